@@ -0,0 +1,90 @@
+package com.sieczk.benchmarks;
+
+import com.sieczk.analyzers.hash.ImageHash;
+import com.sieczk.index.BKTreeIndex;
+import com.sieczk.index.HashMatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries of a BK-tree of 64 bit clustered hashes compared with a linear scan, and the bulk build of the tree
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx16g"})
+public class BKTreeIndexBenchmark {
+    private static final int QUERIES = 64;
+
+    @Param({"1000000", "10000000"})
+    public int entries;
+
+    @Param({"4", "8"})
+    public int radius;
+
+    private List<ImageHash> hashes;
+    private List<Integer> values;
+    private BKTreeIndex<Integer> index;
+    private ImageHash[] queries;
+    private int query;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        hashes = BenchmarkHashes.clustered(entries, random);
+        values = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            values.add(i);
+        }
+        index = BKTreeIndex.build(hashes, values);
+        queries = BenchmarkHashes.queries(hashes, QUERIES, random);
+    }
+
+    @Benchmark
+    public List<HashMatch<Integer>> findWithin() {
+        return index.findWithin(nextQuery(), radius);
+    }
+
+    @Benchmark
+    public List<HashMatch<Integer>> findNearest() {
+        return index.findNearest(nextQuery(), 10);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        ImageHash hash = nextQuery();
+        int found = 0;
+        for (ImageHash stored : hashes) {
+            if (stored.hammingDistance(hash) <= radius) found++;
+        }
+        return found;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Measurement(iterations = 5)
+    public BKTreeIndex<Integer> build() {
+        return BKTreeIndex.build(hashes, values);
+    }
+
+    private ImageHash nextQuery() {
+        return queries[query++ & (QUERIES - 1)];
+    }
+}
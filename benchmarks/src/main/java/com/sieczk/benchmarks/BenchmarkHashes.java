@@ -0,0 +1,55 @@
+package com.sieczk.benchmarks;
+
+import com.sieczk.analyzers.hash.ImageHash;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 64 bit hashes grouped in clusters of similar images, so queries find their near duplicates
+ */
+final class BenchmarkHashes {
+    static final int LENGTH = 64;
+
+    private static final int CLUSTER_SIZE = 20;
+    private static final int CLUSTER_RADIUS = 4;
+
+    private BenchmarkHashes() {
+    }
+
+    static List<ImageHash> clustered(int count, Random random) {
+        List<ImageHash> hashes = new ArrayList<>(count);
+
+        long center = 0;
+        for (int i = 0; i < count; i++) {
+            if (i % CLUSTER_SIZE == 0) center = random.nextLong();
+            hashes.add(hash(flipBits(center, random.nextInt(CLUSTER_RADIUS + 1), random)));
+        }
+        return hashes;
+    }
+
+    /**
+     * @return hashes differing from random stored hashes in 2 bits
+     */
+    static ImageHash[] queries(List<ImageHash> hashes, int count, Random random) {
+        ImageHash[] queries = new ImageHash[count];
+        for (int i = 0; i < count; i++) {
+            long stored = hashes.get(random.nextInt(hashes.size())).bits(0, LENGTH);
+            queries[i] = hash(flipBits(stored, 2, random));
+        }
+        return queries;
+    }
+
+    private static long flipBits(long bits, int count, Random random) {
+        for (int i = 0; i < count; i++) {
+            bits ^= 1L << random.nextInt(LENGTH);
+        }
+        return bits;
+    }
+
+    private static ImageHash hash(long bits) {
+        return ImageHash.fromBitSet(BitSet.valueOf(new long[]{bits}), LENGTH);
+    }
+}
@@ -0,0 +1,126 @@
+package com.sieczk.benchmarks;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Random;
+
+/**
+ * Images shared by the benchmarks. Content is random but seeded, so every run measures the same pixels
+ */
+final class BenchmarkImages {
+
+    /**
+     * Image sizes from a small thumbnail to 8K UHD
+     */
+    static final String SMALL = "256x256";
+    static final String FULL_HD = "1920x1080";
+    static final String UHD_4K = "3840x2160";
+    static final String UHD_8K = "7680x4320";
+
+    private BenchmarkImages() {
+    }
+
+    static int width(String size) {
+        return Integer.parseInt(size.substring(0, size.indexOf('x')));
+    }
+
+    static int height(String size) {
+        return Integer.parseInt(size.substring(size.indexOf('x') + 1));
+    }
+
+    /**
+     * Creates smooth image with noise, so neighbouring pixels are similar like in screenshots and photos
+     */
+    static BufferedImage noise(String size, long seed) {
+        int width = width(size);
+        int height = height(size);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        Random random = new Random(seed);
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int red = (x * 255 / width + random.nextInt(16)) & 0xFF;
+                int green = (y * 255 / height + random.nextInt(16)) & 0xFF;
+                int blue = ((x + y) & 0xFF) ^ random.nextInt(8);
+                pixels[y * width + x] = (red << 16) | (green << 8) | blue;
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Copies the image and changes colors of randomly chosen pixels
+     *
+     * @param density fraction of changed pixels
+     */
+    static BufferedImage withMismatches(BufferedImage image, double density, long seed) {
+        BufferedImage changed = convert(image, BufferedImage.TYPE_INT_RGB);
+        int[] pixels = ((DataBufferInt) changed.getRaster().getDataBuffer()).getData();
+        Random random = new Random(seed);
+        long changedCount = Math.round(pixels.length * density);
+
+        for (long i = 0; i < changedCount; i++) {
+            int index = random.nextInt(pixels.length);
+            pixels[index] = ~pixels[index] & 0xFFFFFF;
+        }
+        return changed;
+    }
+
+    /**
+     * Copies the image replacing a few random rectangles, each up to 1/20 of the image in both dimensions, with noise,
+     * like a typical UI regression
+     */
+    static BufferedImage withChangedAreas(BufferedImage image, int areasCount, long seed) {
+        BufferedImage changed = convert(image, BufferedImage.TYPE_INT_RGB);
+        int[] pixels = ((DataBufferInt) changed.getRaster().getDataBuffer()).getData();
+        int width = image.getWidth();
+        int height = image.getHeight();
+        Random random = new Random(seed);
+
+        for (int i = 0; i < areasCount; i++) {
+            int areaWidth = 1 + random.nextInt(Math.max(1, width / 20));
+            int areaHeight = 1 + random.nextInt(Math.max(1, height / 20));
+            int fromX = random.nextInt(width - areaWidth + 1);
+            int fromY = random.nextInt(height - areaHeight + 1);
+
+            for (int y = fromY; y < fromY + areaHeight; y++) {
+                for (int x = fromX; x < fromX + areaWidth; x++) {
+                    pixels[y * width + x] = random.nextInt(0x1000000);
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Copies the image shifting every channel of every pixel by a small random amount
+     * and a quarter of pixels by any amount, so color distances cluster around low thresholds
+     */
+    static BufferedImage perturbed(BufferedImage image, long seed) {
+        BufferedImage perturbed = convert(image, BufferedImage.TYPE_INT_RGB);
+        int[] pixels = ((DataBufferInt) perturbed.getRaster().getDataBuffer()).getData();
+        Random random = new Random(seed);
+
+        for (int i = 0; i < pixels.length; i++) {
+            int spread = random.nextInt(4) == 0 ? 256 : 40;
+            int red = ((pixels[i] >> 16) + random.nextInt(spread)) & 0xFF;
+            int green = ((pixels[i] >> 8) - random.nextInt(spread)) & 0xFF;
+            int blue = (pixels[i] + random.nextInt(spread)) & 0xFF;
+            pixels[i] = (red << 16) | (green << 8) | blue;
+        }
+        return perturbed;
+    }
+
+    /**
+     * Draws the image into a new image of provided type
+     */
+    static BufferedImage convert(BufferedImage image, int type) {
+        BufferedImage converted = new BufferedImage(image.getWidth(), image.getHeight(), type);
+        Graphics2D g2d = converted.createGraphics();
+        g2d.drawImage(image, 0, 0, null);
+        g2d.dispose();
+        return converted;
+    }
+}
@@ -0,0 +1,59 @@
+package com.sieczk.benchmarks;
+
+import com.sieczk.analyzers.direct.ColorSpace;
+import com.sieczk.analyzers.direct.DirectAnalyzer;
+import com.sieczk.analyzers.direct.Mismatches;
+import com.sieczk.comparators.DirectComparatorConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of color distances of every color space, compared with scalar row kernels, so the Lab lookup tables
+ * are measured against the same RGB path. Images are perturbed, so every pixel differs slightly
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class ColorSpaceBenchmark {
+
+    @Param({BenchmarkImages.FULL_HD, BenchmarkImages.UHD_4K})
+    public String size;
+
+    @Param
+    public ColorSpace colorSpace;
+
+    private DirectAnalyzer analyzer;
+    private BufferedImage actual;
+    private BufferedImage checked;
+
+    @Setup
+    public void setUp() {
+        analyzer = new DirectAnalyzer(new DirectComparatorConfig()
+                .colorSpace(colorSpace)
+                .colorDistanceThreshold(3)
+                .vectorizedComparison(false));
+
+        actual = BenchmarkImages.noise(size, 1);
+        checked = BenchmarkImages.perturbed(actual, 2);
+    }
+
+    @Benchmark
+    public Mismatches compare() {
+        return analyzer.compare(actual, checked);
+    }
+}
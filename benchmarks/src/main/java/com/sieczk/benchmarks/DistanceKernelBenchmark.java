@@ -0,0 +1,89 @@
+package com.sieczk.benchmarks;
+
+import com.sieczk.analyzers.direct.ColorSpace;
+import com.sieczk.analyzers.direct.DirectAnalyzer;
+import com.sieczk.analyzers.direct.Mismatches;
+import com.sieczk.comparators.DirectComparatorConfig;
+import com.sieczk.utils.PixelColorUtil;
+import com.sieczk.utils.accessor.ImageAccessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * RGB distance kernels: per-pixel comparison through a boxed distance function, as performed before row kernels,
+ * compared with scalar and vectorized row kernels. Images are perturbed, so distances cluster around the threshold
+ * and branches are unpredictable
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "--add-modules", "jdk.incubator.vector"})
+public class DistanceKernelBenchmark {
+    private static final int DISTANCE_THRESHOLD = 3;
+
+    @Param({BenchmarkImages.FULL_HD, BenchmarkImages.UHD_4K})
+    public String size;
+
+    @Param({"RGB", "WEIGHTED_RGB"})
+    public ColorSpace colorSpace;
+
+    private BiFunction<Integer, Integer, Integer> boxedDistance;
+    private DirectAnalyzer scalarAnalyzer;
+    private DirectAnalyzer vectorizedAnalyzer;
+    private BufferedImage actual;
+    private BufferedImage checked;
+
+    @Setup
+    public void setUp() {
+        boxedDistance = colorSpace == ColorSpace.RGB
+                ? PixelColorUtil::normalizedDistanceRGB
+                : PixelColorUtil::normalizedDistanceWeightedRGB;
+
+        DirectComparatorConfig config = new DirectComparatorConfig()
+                .colorSpace(colorSpace)
+                .colorDistanceThreshold(DISTANCE_THRESHOLD);
+        scalarAnalyzer = new DirectAnalyzer(config.vectorizedComparison(false));
+        vectorizedAnalyzer = new DirectAnalyzer(config.vectorizedComparison(true));
+
+        actual = BenchmarkImages.noise(size, 1);
+        checked = BenchmarkImages.perturbed(actual, 2);
+    }
+
+    @Benchmark
+    public int boxedPerPixel() {
+        ImageAccessor actualAccessor = ImageAccessor.create(actual);
+        ImageAccessor checkedAccessor = ImageAccessor.create(checked);
+        int count = 0;
+        for (int x = 0; x < actual.getWidth(); x++) {
+            for (int y = 0; y < actual.getHeight(); y++) {
+                if (boxedDistance.apply(actualAccessor.getPixel(x, y), checkedAccessor.getPixel(x, y)) > DISTANCE_THRESHOLD) count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public Mismatches scalarRows() {
+        return scalarAnalyzer.compare(actual, checked);
+    }
+
+    @Benchmark
+    public Mismatches vectorizedRows() {
+        return vectorizedAnalyzer.compare(actual, checked);
+    }
+}
@@ -0,0 +1,69 @@
+package com.sieczk.benchmarks;
+
+import com.sieczk.analyzers.direct.ColorSpace;
+import com.sieczk.analyzers.direct.DirectAnalyzer;
+import com.sieczk.analyzers.direct.FastCompareStrategy;
+import com.sieczk.analyzers.direct.Mismatches;
+import com.sieczk.comparators.DirectComparatorConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fast comparison of images differing in a few small areas with every fast compare strategy,
+ * every 2nd pixel for EVERY_NTH. Full comparison is the reference and does not depend on the strategy
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "--add-modules", "jdk.incubator.vector"})
+public class FastCompareBenchmark {
+
+    @Param({BenchmarkImages.FULL_HD, BenchmarkImages.UHD_4K})
+    public String size;
+
+    @Param
+    public FastCompareStrategy strategy;
+
+    @Param
+    public ColorSpace colorSpace;
+
+    private DirectAnalyzer analyzer;
+    private BufferedImage actual;
+    private BufferedImage checked;
+
+    @Setup
+    public void setUp() {
+        analyzer = new DirectAnalyzer(new DirectComparatorConfig()
+                .colorSpace(colorSpace)
+                .colorDistanceThreshold(10)
+                .pixelsSkipped(1)
+                .fastCompareStrategy(strategy));
+
+        actual = BenchmarkImages.noise(size, 1);
+        checked = BenchmarkImages.withChangedAreas(actual, 6, 2);
+    }
+
+    @Benchmark
+    public Mismatches compare() {
+        return analyzer.compare(actual, checked);
+    }
+
+    @Benchmark
+    public Mismatches compareFast() {
+        return analyzer.compareFast(actual, checked, null, 0);
+    }
+}
@@ -0,0 +1,69 @@
+package com.sieczk.benchmarks;
+
+import com.sieczk.analyzers.hash.AHashAnalyzer;
+import com.sieczk.analyzers.hash.DHashAnalyzer;
+import com.sieczk.analyzers.hash.ImageHash;
+import com.sieczk.analyzers.hash.PHashAnalyzer;
+import com.sieczk.analyzers.hash.WHashAnalyzer;
+import com.sieczk.comparators.HashComparatorConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashing of a single image with every hash analyzer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class HashAnalyzerBenchmark {
+
+    @Param({BenchmarkImages.SMALL, BenchmarkImages.FULL_HD, BenchmarkImages.UHD_4K, BenchmarkImages.UHD_8K})
+    public String size;
+
+    private final PHashAnalyzer pHashAnalyzer = new PHashAnalyzer();
+    private final WHashAnalyzer wHashAnalyzer = new WHashAnalyzer(new HashComparatorConfig().getHashSizeCoefficient());
+    private final AHashAnalyzer aHashAnalyzer = new AHashAnalyzer();
+    private final DHashAnalyzer dHashAnalyzer = new DHashAnalyzer();
+
+    private BufferedImage image;
+
+    @Setup
+    public void setUp() {
+        image = BenchmarkImages.noise(size, 1);
+    }
+
+    @Benchmark
+    public ImageHash pHash() {
+        return pHashAnalyzer.pHash(image);
+    }
+
+    @Benchmark
+    public ImageHash wHash() {
+        return wHashAnalyzer.wHash(image);
+    }
+
+    @Benchmark
+    public ImageHash aHash() {
+        return aHashAnalyzer.aHash(image);
+    }
+
+    @Benchmark
+    public ImageHash dHash() {
+        return dHashAnalyzer.dHash(image);
+    }
+}
@@ -0,0 +1,78 @@
+package com.sieczk.benchmarks;
+
+import com.sieczk.utils.accessor.ImageAccessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading all pixels through the accessor of each image type: ImageAccessorInt for int types,
+ * ImageAccessorByte for byte types and ImageAccessorDefault for the remaining ones
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class ImageAccessorBenchmark {
+
+    @Param({BenchmarkImages.SMALL, BenchmarkImages.FULL_HD, BenchmarkImages.UHD_4K, BenchmarkImages.UHD_8K})
+    public String size;
+
+    @Param({"INT_RGB", "INT_ARGB", "3BYTE_BGR", "4BYTE_ABGR", "USHORT_565_RGB"})
+    public String imageType;
+
+    private ImageAccessor accessor;
+    private int[] row;
+
+    @Setup
+    public void setUp() {
+        int type = switch (imageType) {
+            case "INT_RGB" -> BufferedImage.TYPE_INT_RGB;
+            case "INT_ARGB" -> BufferedImage.TYPE_INT_ARGB;
+            case "3BYTE_BGR" -> BufferedImage.TYPE_3BYTE_BGR;
+            case "4BYTE_ABGR" -> BufferedImage.TYPE_4BYTE_ABGR;
+            default -> BufferedImage.TYPE_USHORT_565_RGB;
+        };
+
+        accessor = ImageAccessor.create(BenchmarkImages.convert(BenchmarkImages.noise(size, 1), type));
+        row = new int[accessor.getWidth()];
+    }
+
+    @Benchmark
+    public int getRow() {
+        int checksum = 0;
+        for (int y = 0; y < accessor.getHeight(); y++) {
+            accessor.getRow(y, row);
+            checksum += row[y % row.length];
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public int getPixel() {
+        int checksum = 0;
+        int pixelsCount = accessor.getWidth() * accessor.getHeight();
+        for (int i = 0; i < pixelsCount; i++) {
+            checksum += accessor.getPixel(i);
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public int[] getPixelsArray() {
+        return accessor.getPixelsArray();
+    }
+}
@@ -0,0 +1,54 @@
+package com.sieczk.benchmarks;
+
+import com.sieczk.utils.ImageUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.Kernel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resizing to half of the image size and convolution of the luminosity with the default SSIM kernel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class ImageUtilBenchmark {
+
+    @Param({BenchmarkImages.SMALL, BenchmarkImages.FULL_HD, BenchmarkImages.UHD_4K, BenchmarkImages.UHD_8K})
+    public String size;
+
+    private BufferedImage image;
+    private int[] luminosity;
+    private Kernel kernel;
+
+    @Setup
+    public void setUp() {
+        image = BenchmarkImages.noise(size, 1);
+        luminosity = ImageUtil.extractLuminosityArray(image);
+        kernel = ImageUtil.generateGaussianKernel(5, 1.6);
+    }
+
+    @Benchmark
+    public BufferedImage resizeBilinear() {
+        return ImageUtil.resizeBilinear(image, image.getWidth() / 2, image.getHeight() / 2);
+    }
+
+    @Benchmark
+    public double[] convolve() {
+        return ImageUtil.convolve(luminosity, image.getWidth(), image.getHeight(), kernel);
+    }
+}
@@ -0,0 +1,126 @@
+package com.sieczk.benchmarks;
+
+import com.sieczk.analyzers.direct.Mismatches;
+import com.sieczk.analyzers.direct.MismatchesGroup;
+import com.sieczk.comparators.DirectComparatorConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grouping of mismatches scattered randomly over the image, from a few isolated pixels to dense noise.
+ * Run-based labelling is compared with the depth first search over the neighbourhood of every mismatch,
+ * which it replaced
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class MismatchesBenchmark {
+
+    @Param({BenchmarkImages.SMALL, BenchmarkImages.FULL_HD, BenchmarkImages.UHD_4K, BenchmarkImages.UHD_8K})
+    public String size;
+
+    /**
+     * Fraction of mismatched pixels
+     */
+    @Param({"0.0001", "0.001", "0.01", "0.1"})
+    public double density;
+
+    private Mismatches mismatches;
+    private int groupingRadius;
+    private int[] stack = new int[64];
+
+    @Setup
+    public void setUp() {
+        int width = BenchmarkImages.width(size);
+        int height = BenchmarkImages.height(size);
+        groupingRadius = new DirectComparatorConfig().getMismatchesGroupingRadius();
+        mismatches = new Mismatches(width, height, groupingRadius);
+
+        Random random = new Random(1);
+        long count = Math.round((double) width * height * density);
+        for (long i = 0; i < count; i++) {
+            mismatches.add(random.nextInt(width), random.nextInt(height));
+        }
+    }
+
+    @Benchmark
+    public List<MismatchesGroup> groupMismatches() {
+        return mismatches.groupMismatches();
+    }
+
+    @Benchmark
+    public List<MismatchesGroup> groupMismatchesDFS() {
+        int width = mismatches.getWidth();
+        int height = mismatches.getHeight();
+        boolean[] visited = new boolean[width * height];
+        List<MismatchesGroup> groups = new ArrayList<>();
+
+        mismatches.forEachMismatch((x, y) -> {
+            if (visited[y * width + x]) return;
+            groups.add(searchDFS(visited, x, y));
+        });
+        return groups;
+    }
+
+    /**
+     * Depth first search visiting every pixel in the (2r+1)^2 neighbourhood of each mismatch of the group
+     */
+    private MismatchesGroup searchDFS(boolean[] visited, int x, int y) {
+        int width = mismatches.getWidth();
+        int stackSize = 0;
+        stack[stackSize++] = y * width + x;
+        visited[y * width + x] = true;
+
+        int groupSize = 1;
+        int minX = x;
+        int maxX = x;
+        int minY = y;
+        int maxY = y;
+
+        while (stackSize > 0) {
+            int current = stack[--stackSize];
+            int currentX = current % width;
+            int currentY = current / width;
+
+            for (int dy = -groupingRadius; dy <= groupingRadius; dy++) {
+                for (int dx = -groupingRadius; dx <= groupingRadius; dx++) {
+                    int newX = currentX + dx;
+                    int newY = currentY + dy;
+                    if (!mismatches.contains(newX, newY) || visited[newY * width + newX]) continue;
+
+                    groupSize++;
+                    minX = Math.min(minX, newX);
+                    maxX = Math.max(maxX, newX);
+                    minY = Math.min(minY, newY);
+                    maxY = Math.max(maxY, newY);
+
+                    if (stackSize == stack.length) {
+                        stack = Arrays.copyOf(stack, stackSize * 2);
+                    }
+                    stack[stackSize++] = newY * width + newX;
+                    visited[newY * width + newX] = true;
+                }
+            }
+        }
+
+        return new MismatchesGroup(groupSize, minX, maxX, minY, maxY);
+    }
+}
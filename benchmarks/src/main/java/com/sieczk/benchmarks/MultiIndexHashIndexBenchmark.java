@@ -0,0 +1,71 @@
+package com.sieczk.benchmarks;
+
+import com.sieczk.analyzers.hash.ImageHash;
+import com.sieczk.index.HashMatch;
+import com.sieczk.index.MultiIndexHashIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries of a multi-index hashing index of 64 bit clustered hashes, with the same data as BKTreeIndexBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx16g"})
+public class MultiIndexHashIndexBenchmark {
+    private static final int QUERIES = 64;
+
+    @Param({"1000000", "10000000"})
+    public int entries;
+
+    @Param({"4", "8"})
+    public int radius;
+
+    @Param({"3", "4"})
+    public int substrings;
+
+    private MultiIndexHashIndex<Integer> index;
+    private ImageHash[] queries;
+    private int query;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        List<ImageHash> hashes = BenchmarkHashes.clustered(entries, random);
+        index = new MultiIndexHashIndex<>(BenchmarkHashes.LENGTH, substrings);
+        for (int i = 0; i < entries; i++) {
+            index.add(hashes.get(i), i);
+        }
+        queries = BenchmarkHashes.queries(hashes, QUERIES, random);
+    }
+
+    @Benchmark
+    public List<HashMatch<Integer>> findWithin() {
+        return index.findWithin(nextQuery(), radius);
+    }
+
+    @Benchmark
+    public List<HashMatch<Integer>> findNearest() {
+        return index.findNearest(nextQuery(), 10);
+    }
+
+    private ImageHash nextQuery() {
+        return queries[query++ & (QUERIES - 1)];
+    }
+}
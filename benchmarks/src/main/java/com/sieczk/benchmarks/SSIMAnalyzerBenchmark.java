@@ -0,0 +1,52 @@
+package com.sieczk.benchmarks;
+
+import com.sieczk.analyzers.ssim.SSIMAnalyzer;
+import com.sieczk.comparators.SSIMComparatorConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SSIM of two unprepared images, so luminosity and all convolutions of both images are calculated in every call
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class SSIMAnalyzerBenchmark {
+
+    @Param({BenchmarkImages.SMALL, BenchmarkImages.FULL_HD, BenchmarkImages.UHD_4K, BenchmarkImages.UHD_8K})
+    public String size;
+
+    @Param({"3", "5", "7", "11"})
+    public int windowSize;
+
+    private SSIMAnalyzer analyzer;
+    private BufferedImage first;
+    private BufferedImage second;
+
+    @Setup
+    public void setUp() {
+        analyzer = new SSIMAnalyzer(new SSIMComparatorConfig().windowSize(windowSize));
+        first = BenchmarkImages.noise(size, 1);
+        second = BenchmarkImages.withMismatches(first, 0.01, 2);
+    }
+
+    @Benchmark
+    public double calculateImagesSSIM() {
+        return analyzer.calculateImagesSSIM(first, second);
+    }
+}
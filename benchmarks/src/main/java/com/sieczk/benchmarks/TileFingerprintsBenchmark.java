@@ -0,0 +1,70 @@
+package com.sieczk.benchmarks;
+
+import com.sieczk.analyzers.direct.DirectAnalyzer;
+import com.sieczk.analyzers.direct.Mismatches;
+import com.sieczk.analyzers.direct.TileFingerprints;
+import com.sieczk.comparators.DirectComparatorConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Direct comparison skipping tiles with equal fingerprints, for images differing in a few small areas.
+ * Fingerprints of the baseline are either calculated by every comparison or calculated once and reused,
+ * full comparison without fingerprints is the reference and does not depend on reuseFingerprints
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "--add-modules", "jdk.incubator.vector"})
+public class TileFingerprintsBenchmark {
+    private static final int TILE_SIZE = 64;
+
+    @Param({BenchmarkImages.FULL_HD, BenchmarkImages.UHD_4K})
+    public String size;
+
+    @Param({"false", "true"})
+    public boolean reuseFingerprints;
+
+    private DirectAnalyzer analyzer;
+    private DirectAnalyzer fingerprintingAnalyzer;
+    private TileFingerprints baselineFingerprints;
+    private BufferedImage actual;
+    private BufferedImage checked;
+
+    @Setup
+    public void setUp() {
+        DirectComparatorConfig config = new DirectComparatorConfig().colorDistanceThreshold(10);
+        analyzer = new DirectAnalyzer(config);
+        fingerprintingAnalyzer = new DirectAnalyzer(config.fingerprintTileSize(TILE_SIZE));
+
+        actual = BenchmarkImages.noise(size, 1);
+        checked = BenchmarkImages.withChangedAreas(actual, 6, 2);
+        baselineFingerprints = TileFingerprints.of(actual, TILE_SIZE);
+    }
+
+    @Benchmark
+    public Mismatches compareWithoutFingerprints() {
+        return analyzer.compare(actual, checked);
+    }
+
+    @Benchmark
+    public Mismatches compareWithFingerprints() {
+        return reuseFingerprints
+                ? analyzer.compare(actual, checked, null, 0, baselineFingerprints)
+                : fingerprintingAnalyzer.compare(actual, checked);
+    }
+}
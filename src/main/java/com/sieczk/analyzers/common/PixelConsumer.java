@@ -0,0 +1,7 @@
+package com.sieczk.analyzers.common;
+
+@FunctionalInterface
+public interface PixelConsumer {
+
+    void accept(int x, int y);
+}
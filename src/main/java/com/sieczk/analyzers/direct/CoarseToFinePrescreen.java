@@ -0,0 +1,86 @@
+package com.sieczk.analyzers.direct;
+
+import com.sieczk.utils.accessor.ImageAccessor;
+
+import java.util.Arrays;
+
+/**
+ * Coarse level of the pyramid comparison. Both images are reduced to the largest sum of absolute channel differences
+ * of a single pixel in each square block, and only blocks in which it reaches the coarse bound
+ * are refined pixel by pixel.<p>
+ * Bound is expressed as a Euclidean distance of RGB channels. Normalized RGB and weighted RGB distances
+ * are squared channel differences scaled to 0-100, and the weighted one never exceeds the threshold
+ * before the plain channel difference reaches the lowest mismatched difference, so both spaces share it.
+ * Sum of absolute channel differences of a pixel is at least its Euclidean channel difference,
+ * so every block containing a mismatched pixel is refined, including isolated pixels and thin lines,
+ * while blocks with only small differences, e.g. compression noise, are skipped.<p>
+ * HSV and Lab distances have no such relation, so in these spaces every block with any color change is refined.
+ */
+class CoarseToFinePrescreen implements TilePrescreen {
+
+    // Weighted RGB distance is at most (1024 / 3068) * 100 * channelDifference^2 / 255^2
+    private static final double WEIGHTED_DISTANCE_RATIO = 3068.0 / 1024 / 100;
+
+    private final int blockSize;
+    private final double channelBound;
+
+
+    CoarseToFinePrescreen(ColorSpace colorSpace, int distanceThreshold, int blockSize) {
+        this.blockSize = blockSize;
+
+        boolean rgbDistance = colorSpace == ColorSpace.RGB || colorSpace == ColorSpace.WEIGHTED_RGB;
+
+        this.channelBound = rgbDistance ? 255 * Math.sqrt(distanceThreshold * WEIGHTED_DISTANCE_RATIO) : 0;
+    }
+
+    @Override
+    public int getTileSize() {
+        return blockSize;
+    }
+
+    @Override
+    public int[] findDifferingSpans(ImageAccessor actual, ImageAccessor checked, int tileRow, int[] actualRow, int[] checkedRow) {
+        int width = actual.getWidth();
+        int blocksPerRow = (width + blockSize - 1) / blockSize;
+
+        int[] blockDifferences = new int[blocksPerRow];
+
+        int fromY = tileRow * blockSize;
+        int toY = Math.min(actual.getHeight(), fromY + blockSize);
+
+        for (int y = fromY; y < toY; y++) {
+            actual.getRow(y, actualRow);
+            checked.getRow(y, checkedRow);
+
+            for (int block = 0; block < blocksPerRow; block++) {
+                int fromX = block * blockSize;
+                int toX = Math.min(width, fromX + blockSize);
+
+                int maxDifference = blockDifferences[block];
+                for (int x = fromX; x < toX; x++) {
+                    int actualRgb = actualRow[x];
+                    int checkedRgb = checkedRow[x];
+                    if (actualRgb == checkedRgb) continue;
+
+                    int difference = Math.abs(((actualRgb >> 16) & 0xFF) - ((checkedRgb >> 16) & 0xFF))
+                            + Math.abs(((actualRgb >> 8) & 0xFF) - ((checkedRgb >> 8) & 0xFF))
+                            + Math.abs((actualRgb & 0xFF) - (checkedRgb & 0xFF));
+                    maxDifference = Math.max(maxDifference, difference);
+                }
+                blockDifferences[block] = maxDifference;
+            }
+        }
+
+        int[] spans = new int[blocksPerRow * 2];
+        int spansLength = 0;
+
+        for (int block = 0; block < blocksPerRow; block++) {
+            int difference = blockDifferences[block];
+            if (difference == 0 || difference < channelBound) continue;
+
+            spansLength = TilePrescreen.appendTile(spans, spansLength, block, blockSize, width);
+        }
+
+        return Arrays.copyOf(spans, spansLength);
+    }
+}
@@ -4,4 +4,8 @@ public enum ColorSpace {
     RGB,
     WEIGHTED_RGB,
     HSV,
+    /**
+     * CIE76 Delta E between colors converted to CIE Lab, the threshold is in Delta E units
+     */
+    LAB_DELTA_E,
 }
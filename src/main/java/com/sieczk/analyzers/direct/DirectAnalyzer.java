@@ -1,44 +1,58 @@
 package com.sieczk.analyzers.direct;
 
-import com.sieczk.analyzers.common.PixelPoint;
+import com.sieczk.comparators.ComparisonListener;
+import com.sieczk.comparators.ComparisonStage;
 import com.sieczk.comparators.DirectComparatorConfig;
-import com.sieczk.utils.PixelColorUtil;
 import com.sieczk.utils.accessor.ImageAccessor;
 
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 
 public class DirectAnalyzer {
-    private BiFunction<Integer, Integer, Integer> distanceCalculationMethod;
+    private static final int BANDS_PER_THREAD = 4;
+
+    private final DistanceKernel distanceKernel;
 
-    private final int distanceThreshold;
     private final int pixelGap;
     private final int groupingRadius;
 
+    private final int parallelism;
+    private final Executor executor;
+
+    private final int fingerprintTileSize;
+
+    private final FastCompareStrategy fastCompareStrategy;
+    private final CoarseToFinePrescreen pyramidPrescreen;
+
+    private final ComparisonListener listener;
+
 
     public DirectAnalyzer(DirectComparatorConfig config) {
-        this.distanceThreshold = config.getColorDistanceThreshold();
         this.pixelGap = config.getPixelsSkipped();
         this.groupingRadius = config.getMismatchesGroupingRadius();
+        this.parallelism = config.getParallelism();
+        this.executor = config.getExecutor() != null ? config.getExecutor() : ForkJoinPool.commonPool();
+        this.fingerprintTileSize = config.getFingerprintTileSize();
+        this.fastCompareStrategy = config.getFastCompareStrategy();
+        this.listener = config.getComparisonListener();
+        this.pyramidPrescreen = new CoarseToFinePrescreen(
+                config.getColorSpace(),
+                config.getColorDistanceThreshold(),
+                config.getPyramidBlockSize()
+        );
 
-        ColorSpace comparisonSpace = config.getColorSpace();
-
-        switch (comparisonSpace) {
-            case RGB -> {
-                distanceCalculationMethod = PixelColorUtil::normalizedDistanceRGB;
-            }
-            case WEIGHTED_RGB -> {
-                distanceCalculationMethod = PixelColorUtil::normalizedDistanceWeightedRGB;
-            }
-            case HSV -> {
-                distanceCalculationMethod = (actualRGB, checkedRGB) -> {
-                    float[] actualHSV = PixelColorUtil.convertRGBtoHSV(actualRGB);
-                    float[] checkedHSV = PixelColorUtil.convertRGBtoHSV(checkedRGB);
-                    return PixelColorUtil.normalizedDistanceHSV(actualHSV, checkedHSV);
-                };
-            }
-        }
+        this.distanceKernel = DistanceKernel.create(
+                config.getColorSpace(),
+                config.getColorDistanceThreshold(),
+                config.isVectorizedComparison()
+        );
     }
 
     public DirectAnalyzer() {
@@ -46,49 +60,549 @@ public class DirectAnalyzer {
     }
 
     public Mismatches compare(BufferedImage actual, BufferedImage checked) {
+        return compare(actual, checked, 0);
+    }
+
+    /**
+     * Compares images starting from provided row. Rows above it are known to be identical
+     * (e.g. from ImageUtil.findFirstDifferentRow()), so they can not contain any mismatches
+     *
+     * @param startRow first row that may differ
+     */
+    public Mismatches compare(BufferedImage actual, BufferedImage checked, int startRow) {
+        return compare(actual, checked, null, startRow, null);
+    }
+
+    /**
+     * Compares images skipping excluded pixels during the scan
+     *
+     * @param excludedAreas areas not taken into account
+     */
+    public Mismatches compare(BufferedImage actual, BufferedImage checked, ExcludedAreas excludedAreas) {
+        return compare(actual, checked, excludedAreas, 0, null);
+    }
+
+    /**
+     * Compares images starting from provided row, skipping excluded pixels
+     * and tiles with fingerprints equal to the actual image ones
+     *
+     * @param excludedAreas areas not taken into account, may be null
+     * @param startRow first row that may differ
+     * @param actualFingerprints precalculated fingerprints of the actual image. If null, they are calculated
+     *                           only when fingerprint tile size is configured
+     */
+    public Mismatches compare(BufferedImage actual, BufferedImage checked, ExcludedAreas excludedAreas,
+                              int startRow, TileFingerprints actualFingerprints) {
+        ScanFilter filter = createScanFilter(actual, excludedAreas, resolveFingerprints(actual, actualFingerprints));
+        return compareWithIncrement(actual, checked, startRow, 1, filter);
+    }
+
+    public Mismatches compareEveryNth(BufferedImage actual, BufferedImage checked) {
+        return compareEveryNth(actual, checked, 0);
+    }
+
+    /**
+     * Compares every n-th pixel starting from provided row. Rows above it are known to be identical
+     *
+     * @param startRow first row that may differ
+     */
+    public Mismatches compareEveryNth(BufferedImage actual, BufferedImage checked, int startRow) {
+        return compareEveryNth(actual, checked, null, startRow);
+    }
+
+    /**
+     * Compares every n-th pixel starting from provided row, skipping excluded pixels
+     *
+     * @param excludedAreas areas not taken into account, may be null
+     * @param startRow first row that may differ
+     */
+    public Mismatches compareEveryNth(BufferedImage actual, BufferedImage checked, ExcludedAreas excludedAreas, int startRow) {
+        return compareWithIncrement(actual, checked, startRow, pixelGap + 1, createScanFilter(actual, excludedAreas, null));
+    }
+
+    /**
+     * Compares images with configured fast compare strategy, starting from provided row and skipping excluded pixels.
+     * EVERY_NTH compares every n-th pixel, PYRAMID finds blocks with the largest channel difference of a pixel
+     * at or above the lowest mismatched difference and compares pixel by pixel only these blocks
+     *
+     * @param excludedAreas areas not taken into account, may be null
+     * @param startRow first row that may differ
+     */
+    public Mismatches compareFast(BufferedImage actual, BufferedImage checked, ExcludedAreas excludedAreas, int startRow) {
+        if (fastCompareStrategy == FastCompareStrategy.PYRAMID) {
+            return compareWithIncrement(actual, checked, startRow, 1, createScanFilter(actual, excludedAreas, pyramidPrescreen));
+        }
+        return compareEveryNth(actual, checked, excludedAreas, startRow);
+    }
+
+    /**
+     * Collects statistics of color distances of all pixels outside excluded areas in a single pass,
+     * without storing mismatched pixels
+     *
+     * @param excludedAreas areas not taken into account
+     * @return distances statistics
+     */
+    public DistanceStatistics collectStatistics(BufferedImage actual, BufferedImage checked, ExcludedAreas excludedAreas) {
+        return collectStatistics(actual, checked, excludedAreas, 0, null, null);
+    }
+
+    /**
+     * Collects statistics of color distances of all pixels outside excluded areas in a single pass.
+     * Pixels above the start row and in tiles with unchanged fingerprints are counted as identical.
+     * Mismatched pixels are optionally marked in the same pass
+     *
+     * @param excludedAreas areas not taken into account
+     * @param startRow first row that may differ
+     * @param actualFingerprints precalculated fingerprints of the actual image. If null, they are calculated
+     *                           only when fingerprint tile size is configured
+     * @param mismatches empty mismatches of the image size receiving mismatched pixels,
+     *                   or null if only statistics are needed
+     * @return distances statistics
+     */
+    public DistanceStatistics collectStatistics(BufferedImage actual, BufferedImage checked, ExcludedAreas excludedAreas,
+                                                int startRow, TileFingerprints actualFingerprints, Mismatches mismatches) {
+        int width = actual.getWidth();
+        int height = actual.getHeight();
+
+        if (mismatches != null && (mismatches.getWidth() != width || mismatches.getHeight() != height))
+            throw new IllegalArgumentException("Mismatches must have the same size as compared images");
+
+        long start = ComparisonListener.start(listener);
         ImageAccessor actualAccessor = ImageAccessor.create(actual);
         ImageAccessor checkedAccessor = ImageAccessor.create(checked);
+        ComparisonListener.finish(listener, ComparisonStage.ACCESSOR_CREATION, start, (long) actual.getWidth() * actual.getHeight());
+        // Fingerprints are not needed if no row is scanned
+        TileFingerprints fingerprints = startRow < height ? resolveFingerprints(actual, actualFingerprints) : null;
+        ScanFilter filter = createScanFilter(actual, excludedAreas, fingerprints);
+        long[] mask = mismatches != null ? mismatches.getMaskWords() : null;
+
+        long imageSize = (long) width * height;
+        DistanceStatistics statistics = new DistanceStatistics(distanceKernel.getDistanceThreshold(), imageSize);
 
+        startRow = startRow - startRow % filter.rowAlignment();
+        start = ComparisonListener.start(listener);
+
+        if (parallelism > 1 && height - startRow > 1) {
+            submitBands(startRow, height, filter.rowAlignment(),
+                    (fromRow, toRow) -> collectRows(actualAccessor, checkedAccessor, fromRow, toRow, filter, imageSize, mask))
+                    .forEach(band -> statistics.add(band.join()));
+        } else {
+            statistics.add(collectRows(actualAccessor, checkedAccessor, startRow, height, filter, imageSize, mask));
+        }
+        ComparisonListener.finish(listener, ComparisonStage.PIXEL_LOOP, start, (long) width * Math.max(0, height - startRow));
+
+        // Every included pixel not passed to the kernel is known to be identical
+        long includedPixels = imageSize - (filter.exclusions() != null ? filter.exclusions().getExcludedCount() : 0);
+        statistics.addIdentical(includedPixels - statistics.getComparedPixels());
+
+        if (mismatches != null) {
+            mismatches.setMismatchesCount((int) statistics.getMismatchesCount());
+        }
+        return statistics;
+    }
+
+    private DistanceStatistics collectRows(ImageAccessor actual, ImageAccessor checked, int fromRow, int toRow,
+                                           ScanFilter filter, long imageSize, long[] mask) {
         int width = actual.getWidth();
-        int height = actual.getHeight();
+        int wordsPerRow = (width + 63) >>> 6;
+        int[] actualRow = new int[width];
+        int[] checkedRow = new int[width];
+        int[] tileSpans = {0, width};
 
-        ArrayList<PixelPoint> mismatches = new ArrayList<>();
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                int actualRGB = actualAccessor.getPixel(x, y);
-                int checkedRGB = checkedAccessor.getPixel(x, y);
-                int distance = distanceCalculationMethod.apply(actualRGB, checkedRGB);
+        DistanceStatistics statistics = new DistanceStatistics(distanceKernel.getDistanceThreshold(), imageSize);
+        long[] histogram = statistics.histogramCounts();
 
-                if (distance > distanceThreshold) {
-                    mismatches.add(new PixelPoint(x, y));
-                }
+        for (int y = fromRow; y < toRow; y++) {
+            tileSpans = filter.updateTileSpans(actual, checked, y, tileSpans, actualRow, checkedRow);
+            int[] spans = filter.restrictToIncludedPixels(y, tileSpans);
+            if (spans.length == 0) continue;
+
+            actual.getRow(y, actualRow);
+            checked.getRow(y, checkedRow);
+
+            for (int i = 0; i < spans.length; i += 2) {
+                distanceKernel.accumulateRow(actualRow, checkedRow, spans[i], spans[i + 1], histogram, mask, y * wordsPerRow);
             }
         }
-        return new Mismatches(mismatches, groupingRadius);
+        return statistics;
     }
 
-    public Mismatches compareEveryNth(BufferedImage actual, BufferedImage checked) {
+    private Mismatches compareWithIncrement(BufferedImage actual, BufferedImage checked,
+                                            int startRow, int increment, ScanFilter filter) {
+        long start = ComparisonListener.start(listener);
         ImageAccessor actualAccessor = ImageAccessor.create(actual);
         ImageAccessor checkedAccessor = ImageAccessor.create(checked);
+        ComparisonListener.finish(listener, ComparisonStage.ACCESSOR_CREATION, start, (long) actual.getWidth() * actual.getHeight());
 
         int width = actual.getWidth();
         int height = actual.getHeight();
 
-        int increment = pixelGap + 1;
+        Mismatches mismatches = new Mismatches(width, height, groupingRadius);
 
-        ArrayList<PixelPoint> mismatches = new ArrayList<>();
-        for (int x = 0; x < width; x=x+increment) {
-            for (int y = 0; y < height; y=y+increment) {
-                int actualRGB = actualAccessor.getPixel(x, y);
-                int checkedRGB = checkedAccessor.getPixel(x, y);
-                int distance = distanceCalculationMethod.apply(actualRGB, checkedRGB);
+        // Tile rows are prescreened as a whole, so scanning starts at the tile row boundary
+        startRow = startRow - startRow % filter.rowAlignment();
+        start = ComparisonListener.start(listener);
 
-                if (distance > distanceThreshold) {
-                    mismatches.add(new PixelPoint(x, y));
-                }
+        int mismatchesCount;
+        if (parallelism > 1 && height - startRow > 1) {
+            mismatchesCount = compareBands(actualAccessor, checkedAccessor, mismatches, startRow, increment, filter);
+        } else {
+            mismatchesCount = compareRows(actualAccessor, checkedAccessor, mismatches, startRow, height, increment, filter);
+        }
+        ComparisonListener.finish(listener, ComparisonStage.PIXEL_LOOP, start, (long) width * Math.max(0, height - startRow));
+
+        mismatches.setMismatchesCount(mismatchesCount);
+        return mismatches;
+    }
+
+    /**
+     * Splits image into horizontal bands compared concurrently on the executor.
+     * Bands never share mask words, so they mark the common mask without locking
+     * and only their counts are summed afterwards.
+     *
+     * @return number of mismatched pixels
+     */
+    private int compareBands(ImageAccessor actual, ImageAccessor checked, Mismatches mismatches,
+                             int startRow, int increment, ScanFilter filter) {
+        int mismatchesCount = 0;
+        for (CompletableFuture<Integer> band : submitBands(startRow, mismatches.getHeight(), filter.rowAlignment(),
+                (fromRow, toRow) -> compareRows(actual, checked, mismatches, fromRow, toRow, increment, filter))) {
+            mismatchesCount += band.join();
+        }
+        return mismatchesCount;
+    }
+
+    /**
+     * Submits consecutive row bands covering rows from startRow to the image bottom to the executor
+     *
+     * @param startRow first row of the first band
+     * @param height image height
+     * @param alignment number of rows every band height is a multiple of
+     * @param band task receiving first (inclusive) and last (exclusive) row of the band
+     * @return futures of the band tasks, ordered from top to bottom
+     */
+    private <T> List<CompletableFuture<T>> submitBands(int startRow, int height, int alignment, BiFunction<Integer, Integer, T> band) {
+        int rowsCount = height - startRow;
+        int bandsCount = Math.min(rowsCount, parallelism * BANDS_PER_THREAD);
+        int bandHeight = (rowsCount + bandsCount - 1) / bandsCount;
+        bandHeight = (bandHeight + alignment - 1) / alignment * alignment;
+
+        List<CompletableFuture<T>> bands = new ArrayList<>(bandsCount);
+        for (int fromRow = startRow; fromRow < height; fromRow += bandHeight) {
+            int bandFrom = fromRow;
+            int bandTo = Math.min(height, fromRow + bandHeight);
+            bands.add(CompletableFuture.supplyAsync(() -> band.apply(bandFrom, bandTo), executor));
+        }
+        return bands;
+    }
+
+    /**
+     * Counts mismatched pixels outside excluded areas without storing them.
+     * Scanning stops as soon as the count reaches provided limit.
+     *
+     * @param excludedAreas areas not taken into account
+     * @param limit count at which scanning can stop
+     * @return number of mismatched pixels, capped at limit
+     */
+    public int countMismatches(BufferedImage actual, BufferedImage checked, ExcludedAreas excludedAreas, int limit) {
+        return countMismatches(actual, checked, excludedAreas, limit, 0);
+    }
+
+    /**
+     * Counts mismatched pixels outside excluded areas starting from provided row.
+     * Rows above it are known to be identical
+     *
+     * @param excludedAreas areas not taken into account
+     * @param limit count at which scanning can stop
+     * @param startRow first row that may differ
+     * @return number of mismatched pixels, capped at limit
+     */
+    public int countMismatches(BufferedImage actual, BufferedImage checked, ExcludedAreas excludedAreas, int limit, int startRow) {
+        return countMismatches(actual, checked, excludedAreas, limit, startRow, null);
+    }
+
+    /**
+     * Counts mismatched pixels outside excluded areas starting from provided row,
+     * skipping tiles with fingerprints equal to the actual image ones
+     *
+     * @param excludedAreas areas not taken into account
+     * @param limit count at which scanning can stop
+     * @param startRow first row that may differ
+     * @param actualFingerprints precalculated fingerprints of the actual image. If null, they are calculated
+     *                           only when fingerprint tile size is configured
+     * @return number of mismatched pixels, capped at limit
+     */
+    public int countMismatches(BufferedImage actual, BufferedImage checked, ExcludedAreas excludedAreas,
+                               int limit, int startRow, TileFingerprints actualFingerprints) {
+        ScanFilter filter = createScanFilter(actual, excludedAreas, resolveFingerprints(actual, actualFingerprints));
+        return countWithIncrement(actual, checked, limit, startRow, 1, filter);
+    }
+
+    /**
+     * Counts every n-th mismatched pixel outside excluded areas without storing them.
+     * Scanning stops as soon as the count reaches provided limit.
+     *
+     * @param excludedAreas areas not taken into account
+     * @param limit count at which scanning can stop
+     * @return number of mismatched pixels, capped at limit
+     */
+    public int countMismatchesEveryNth(BufferedImage actual, BufferedImage checked, ExcludedAreas excludedAreas, int limit) {
+        return countMismatchesEveryNth(actual, checked, excludedAreas, limit, 0);
+    }
+
+    /**
+     * Counts every n-th mismatched pixel outside excluded areas starting from provided row.
+     * Rows above it are known to be identical
+     *
+     * @param excludedAreas areas not taken into account
+     * @param limit count at which scanning can stop
+     * @param startRow first row that may differ
+     * @return number of mismatched pixels, capped at limit
+     */
+    public int countMismatchesEveryNth(BufferedImage actual, BufferedImage checked, ExcludedAreas excludedAreas, int limit, int startRow) {
+        return countWithIncrement(actual, checked, limit, startRow, pixelGap + 1, createScanFilter(actual, excludedAreas, null));
+    }
+
+    /**
+     * Counts mismatched pixels outside excluded areas with configured fast compare strategy.
+     * Scanning stops as soon as the count reaches provided limit.
+     *
+     * @param excludedAreas areas not taken into account
+     * @param limit count at which scanning can stop
+     * @param startRow first row that may differ
+     * @return number of mismatched pixels, capped at limit
+     */
+    public int countMismatchesFast(BufferedImage actual, BufferedImage checked, ExcludedAreas excludedAreas, int limit, int startRow) {
+        if (fastCompareStrategy == FastCompareStrategy.PYRAMID) {
+            return countWithIncrement(actual, checked, limit, startRow, 1, createScanFilter(actual, excludedAreas, pyramidPrescreen));
+        }
+        return countMismatchesEveryNth(actual, checked, excludedAreas, limit, startRow);
+    }
+
+    private int countWithIncrement(BufferedImage actual, BufferedImage checked,
+                                   int limit, int startRow, int increment, ScanFilter filter) {
+        if (limit <= 0) return 0;
+
+        long start = ComparisonListener.start(listener);
+        ImageAccessor actualAccessor = ImageAccessor.create(actual);
+        ImageAccessor checkedAccessor = ImageAccessor.create(checked);
+        ComparisonListener.finish(listener, ComparisonStage.ACCESSOR_CREATION, start, (long) actual.getWidth() * actual.getHeight());
+
+        int height = actual.getHeight();
+        AtomicInteger total = new AtomicInteger();
+
+        startRow = startRow - startRow % filter.rowAlignment();
+        start = ComparisonListener.start(listener);
+
+        if (parallelism > 1 && height - startRow > 1) {
+            submitBands(startRow, height, filter.rowAlignment(), (fromRow, toRow) -> {
+                countRows(actualAccessor, checkedAccessor, fromRow, toRow, increment, filter, total, limit);
+                return null;
+            }).forEach(CompletableFuture::join);
+        } else {
+            countRows(actualAccessor, checkedAccessor, startRow, height, increment, filter, total, limit);
+        }
+        ComparisonListener.finish(listener, ComparisonStage.PIXEL_LOOP, start, (long) actual.getWidth() * Math.max(0, height - startRow));
+
+        return Math.min(total.get(), limit);
+    }
+
+    private void countRows(ImageAccessor actual, ImageAccessor checked, int fromRow, int toRow,
+                           int increment, ScanFilter filter, AtomicInteger total, int limit) {
+        int width = actual.getWidth();
+        int[] actualRow = new int[width];
+        int[] checkedRow = new int[width];
+        long[] rowMask = new long[(width + 63) >>> 6];
+        int[] tileSpans = {0, width};
+
+        int firstRow = (fromRow + increment - 1) / increment * increment;
+
+        for (int y = firstRow; y < toRow; y = y + increment) {
+            if (total.get() >= limit) return;
+
+            tileSpans = filter.updateTileSpans(actual, checked, y, tileSpans, actualRow, checkedRow);
+            int[] spans = filter.restrictToIncluded(y, tileSpans);
+            if (spans.length == 0) continue;
+
+            Arrays.fill(rowMask, 0L);
+            int rowCount = compareRow(actual, checked, y, increment, spans, actualRow, checkedRow, rowMask, 0);
+            rowCount -= filter.clearExcluded(y, rowMask, 0);
+
+            if (rowCount > 0 && total.addAndGet(rowCount) >= limit) return;
+        }
+    }
+
+    /**
+     * Compares every increment-th pixel in every increment-th row within provided rows range
+     *
+     * @param fromRow first row of the range (inclusive)
+     * @param toRow last row of the range (exclusive)
+     * @param increment distance between compared pixels in both dimensions
+     * @return number of mismatched pixels found in the range
+     */
+    private int compareRows(ImageAccessor actual, ImageAccessor checked, Mismatches mismatches,
+                            int fromRow, int toRow, int increment, ScanFilter filter) {
+        int width = mismatches.getWidth();
+        int[] actualRow = new int[width];
+        int[] checkedRow = new int[width];
+        long[] mask = mismatches.getMaskWords();
+        int[] tileSpans = {0, width};
+
+        int firstRow = (fromRow + increment - 1) / increment * increment;
+        int mismatchesCount = 0;
+
+        for (int y = firstRow; y < toRow; y = y + increment) {
+            tileSpans = filter.updateTileSpans(actual, checked, y, tileSpans, actualRow, checkedRow);
+            int[] spans = filter.restrictToIncluded(y, tileSpans);
+            if (spans.length == 0) continue;
+
+            int maskOffset = mismatches.getRowOffset(y);
+            mismatchesCount += compareRow(actual, checked, y, increment, spans, actualRow, checkedRow, mask, maskOffset);
+            mismatchesCount -= filter.clearExcluded(y, mask, maskOffset);
+        }
+        return mismatchesCount;
+    }
+
+    /**
+     * Compares every increment-th pixel of a single row within provided spans.
+     * Full spans are passed to the distance kernel at once
+     *
+     * @param spans pairs of first (inclusive) and last (exclusive) x coordinates of compared parts of the row
+     * @param actualRow buffer for the actual image row
+     * @param checkedRow buffer for the checked image row
+     * @param mask words receiving mismatched pixels bits
+     * @param maskOffset index of the first word of the row
+     * @return number of mismatched pixels found in the row
+     */
+    private int compareRow(ImageAccessor actual, ImageAccessor checked, int y, int increment, int[] spans,
+                           int[] actualRow, int[] checkedRow, long[] mask, int maskOffset) {
+        int mismatchesCount = 0;
+
+        if (increment == 1) {
+            actual.getRow(y, actualRow);
+            checked.getRow(y, checkedRow);
+
+            for (int i = 0; i < spans.length; i += 2) {
+                mismatchesCount += distanceKernel.compareRow(actualRow, checkedRow, spans[i], spans[i + 1], mask, maskOffset);
+            }
+            return mismatchesCount;
+        }
+
+        for (int i = 0; i < spans.length; i += 2) {
+            int firstX = (spans[i] + increment - 1) / increment * increment;
+
+            for (int x = firstX; x < spans[i + 1]; x = x + increment) {
+                if (!distanceKernel.isMismatched(actual.getPixel(x, y), checked.getPixel(x, y))) continue;
+
+                mask[maskOffset + (x >>> 6)] |= 1L << x;
+                mismatchesCount++;
             }
         }
-        return new Mismatches(mismatches, groupingRadius);
+        return mismatchesCount;
     }
 
-}
\ No newline at end of file
+    /**
+     * Returns fingerprints of the actual image used to skip identical tiles. Provided fingerprints are used
+     * if present, otherwise they are calculated when fingerprint tile size is configured
+     *
+     * @return fingerprints of the actual image, or null if every tile is compared
+     */
+    private TileFingerprints resolveFingerprints(BufferedImage actual, TileFingerprints actualFingerprints) {
+        if (actualFingerprints == null) {
+            return fingerprintTileSize > 0 ? TileFingerprints.of(actual, fingerprintTileSize) : null;
+        }
+
+        if (actualFingerprints.getWidth() != actual.getWidth() || actualFingerprints.getHeight() != actual.getHeight())
+            throw new IllegalArgumentException("Fingerprints were calculated for an image of different size");
+
+        return actualFingerprints;
+    }
+
+    private ScanFilter createScanFilter(BufferedImage actual, ExcludedAreas excludedAreas, TilePrescreen prescreen) {
+        boolean hasExclusions = excludedAreas != null && !excludedAreas.getExcluded().isEmpty();
+        ExclusionMask exclusions = null;
+
+        if (hasExclusions) {
+            long start = ComparisonListener.start(listener);
+            exclusions = excludedAreas.compile(actual.getWidth(), actual.getHeight());
+            ComparisonListener.finish(listener, ComparisonStage.EXCLUSION_MASK, start, exclusions.getExcludedCount());
+        }
+
+        return new ScanFilter(prescreen, exclusions);
+    }
+
+    /**
+     * Decides which parts of the rows are compared. Only tiles passing the prescreen
+     * and mask words which are not fully excluded are passed to the distance kernel,
+     * excluded pixels left in compared words are cleared from the mask afterwards
+     *
+     * @param prescreen tile fingerprints or pyramid coarse level, or null if every tile is compared
+     * @param exclusions compiled excluded areas, or null if nothing is excluded
+     */
+    private record ScanFilter(TilePrescreen prescreen, ExclusionMask exclusions) {
+
+        /**
+         * Bands and start row have to be aligned to tile rows, so that every tile row is prescreened by a single band
+         */
+        int rowAlignment() {
+            return prescreen != null ? prescreen.getTileSize() : 1;
+        }
+
+        /**
+         * Prescreens the next tile row when the scan enters it
+         *
+         * @return spans of tiles which may contain mismatches
+         */
+        int[] updateTileSpans(ImageAccessor actual, ImageAccessor checked, int y, int[] tileSpans, int[] actualRow, int[] checkedRow) {
+            if (prescreen == null || y % prescreen.getTileSize() != 0) return tileSpans;
+
+            return prescreen.findDifferingSpans(actual, checked, y / prescreen.getTileSize(), actualRow, checkedRow);
+        }
+
+        int[] restrictToIncluded(int y, int[] tileSpans) {
+            if (exclusions == null || tileSpans.length == 0) return tileSpans;
+            if (tileSpans.length == 2 && tileSpans[0] == 0 && tileSpans[1] == exclusions.getWidth()) {
+                return exclusions.getIncludedSpans(y);
+            }
+
+            return intersectSpans(tileSpans, exclusions.getIncludedSpans(y));
+        }
+
+        /**
+         * Restricts spans to exact runs of included pixels, for scans which cannot clear excluded pixels afterwards
+         */
+        int[] restrictToIncludedPixels(int y, int[] tileSpans) {
+            if (exclusions == null || tileSpans.length == 0 || !exclusions.hasExclusions(y)) return tileSpans;
+
+            return intersectSpans(tileSpans, exclusions.findIncludedRuns(y));
+        }
+
+        int clearExcluded(int y, long[] mask, int maskOffset) {
+            return exclusions != null ? exclusions.clearExcluded(y, mask, maskOffset) : 0;
+        }
+
+        /**
+         * Intersects two sorted lists of disjoint spans
+         */
+        private static int[] intersectSpans(int[] first, int[] second) {
+            int[] intersection = new int[first.length + second.length];
+            int length = 0;
+            int i = 0;
+            int j = 0;
+
+            while (i < first.length && j < second.length) {
+                int fromX = Math.max(first[i], second[j]);
+                int toX = Math.min(first[i + 1], second[j + 1]);
+
+                if (fromX < toX) {
+                    intersection[length++] = fromX;
+                    intersection[length++] = toX;
+                }
+
+                if (first[i + 1] < second[j + 1]) i += 2;
+                else j += 2;
+            }
+            return Arrays.copyOf(intersection, length);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.sieczk.analyzers.direct;
+
+import com.sieczk.utils.PixelColorUtil;
+
+public interface DistanceKernel {
+
+    boolean VECTOR_API_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    /**
+     * Creates kernel calculating distances in provided color space.
+     * Vectorized kernel is used only if requested and jdk.incubator.vector module is present in the boot layer,
+     * otherwise comparison falls back to the scalar kernel. RGB distances are compared as squared distances
+     * against a precomputed cut-off, other spaces calculate normalized distance of every pixel.
+     *
+     * @param colorSpace space in which the pixel color distance is calculated
+     * @param distanceThreshold distance above which pixels are considered mismatched
+     * @param vectorized should Vector API kernels be used when available
+     * @return kernel for provided color space
+     */
+    static DistanceKernel create(ColorSpace colorSpace, int distanceThreshold, boolean vectorized) {
+        boolean canVectorize = colorSpace == ColorSpace.RGB || colorSpace == ColorSpace.WEIGHTED_RGB;
+
+        if (vectorized && canVectorize && VECTOR_API_AVAILABLE) {
+            return new DistanceKernelVector(colorSpace, distanceThreshold);
+        }
+
+        switch (colorSpace) {
+            case RGB, WEIGHTED_RGB -> {
+                return new DistanceKernelSquared(colorSpace, distanceThreshold);
+            }
+            case LAB_DELTA_E -> {
+                return new DistanceKernelScalar(PixelColorUtil::normalizedDistanceLab, distanceThreshold);
+            }
+            default -> {
+                return new DistanceKernelScalar(PixelColorUtil::normalizedDistanceHSV, distanceThreshold);
+            }
+        }
+    }
+
+    /**
+     * Checks if the pair of pixels is mismatched
+     *
+     * @param actualRGB ARGB integer of the actual pixel
+     * @param checkedRGB ARGB integer of the checked pixel
+     * @return true if color distance exceeds the threshold
+     */
+    boolean isMismatched(int actualRGB, int checkedRGB);
+
+    /**
+     * Calculates rounded distance between two pixels, the same one compared with the threshold
+     *
+     * @param actualRGB ARGB integer of the actual pixel
+     * @param checkedRGB ARGB integer of the checked pixel
+     * @return normalized distance [0-100]
+     */
+    int distance(int actualRGB, int checkedRGB);
+
+    /**
+     * @return distance above which pixels are considered mismatched
+     */
+    int getDistanceThreshold();
+
+    /**
+     * Compares two rows of ARGB integers and sets a mask bit for every mismatched pixel.
+     * Bit of pixel x is stored in mask[maskOffset + x / 64] at position x % 64
+     *
+     * @param actualRow ARGB integers of the actual image row
+     * @param checkedRow ARGB integers of the checked image row
+     * @param width number of pixels in the row
+     * @param mask words receiving mismatched pixels bits
+     * @param maskOffset index of the first word of the row
+     * @return number of mismatched pixels in the row
+     */
+    default int compareRow(int[] actualRow, int[] checkedRow, int width, long[] mask, int maskOffset) {
+        return compareRow(actualRow, checkedRow, 0, width, mask, maskOffset);
+    }
+
+    /**
+     * Compares part of two rows of ARGB integers and sets a mask bit for every mismatched pixel.
+     * Bit of pixel x is stored in mask[maskOffset + x / 64] at position x % 64
+     *
+     * @param actualRow ARGB integers of the actual image row
+     * @param checkedRow ARGB integers of the checked image row
+     * @param fromX first compared pixel (inclusive)
+     * @param toX last compared pixel (exclusive)
+     * @param mask words receiving mismatched pixels bits
+     * @param maskOffset index of the first word of the row
+     * @return number of mismatched pixels in the compared part of the row
+     */
+    int compareRow(int[] actualRow, int[] checkedRow, int fromX, int toX, long[] mask, int maskOffset);
+
+    /**
+     * Adds distances of part of two rows to the histogram and sets a mask bit for every mismatched pixel
+     *
+     * @param actualRow ARGB integers of the actual image row
+     * @param checkedRow ARGB integers of the checked image row
+     * @param fromX first compared pixel (inclusive)
+     * @param toX last compared pixel (exclusive)
+     * @param histogram pixels counts indexed by their rounded distance
+     * @param mask words receiving mismatched pixels bits, or null if only the histogram is collected
+     * @param maskOffset index of the first word of the row
+     */
+    default void accumulateRow(int[] actualRow, int[] checkedRow, int fromX, int toX, long[] histogram, long[] mask, int maskOffset) {
+        int threshold = getDistanceThreshold();
+
+        for (int x = fromX; x < toX; x++) {
+            int distance = distance(actualRow[x], checkedRow[x]);
+            histogram[distance]++;
+
+            if (mask != null && distance > threshold) {
+                mask[maskOffset + (x >>> 6)] |= 1L << x;
+            }
+        }
+    }
+}
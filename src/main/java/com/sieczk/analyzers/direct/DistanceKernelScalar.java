@@ -0,0 +1,45 @@
+package com.sieczk.analyzers.direct;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Fallback kernel comparing pixels one by one with provided distance function
+ */
+public class DistanceKernelScalar implements DistanceKernel {
+
+    private final IntBinaryOperator distanceCalculationMethod;
+    private final int distanceThreshold;
+
+    public DistanceKernelScalar(IntBinaryOperator distanceCalculationMethod, int distanceThreshold) {
+        this.distanceCalculationMethod = distanceCalculationMethod;
+        this.distanceThreshold = distanceThreshold;
+    }
+
+    @Override
+    public boolean isMismatched(int actualRGB, int checkedRGB) {
+        return distanceCalculationMethod.applyAsInt(actualRGB, checkedRGB) > distanceThreshold;
+    }
+
+    @Override
+    public int distance(int actualRGB, int checkedRGB) {
+        return distanceCalculationMethod.applyAsInt(actualRGB, checkedRGB);
+    }
+
+    @Override
+    public int getDistanceThreshold() {
+        return distanceThreshold;
+    }
+
+    @Override
+    public int compareRow(int[] actualRow, int[] checkedRow, int fromX, int toX, long[] mask, int maskOffset) {
+        int mismatchesCount = 0;
+
+        for (int x = fromX; x < toX; x++) {
+            if (!isMismatched(actualRow[x], checkedRow[x])) continue;
+
+            mask[maskOffset + (x >>> 6)] |= 1L << x;
+            mismatchesCount++;
+        }
+        return mismatchesCount;
+    }
+}
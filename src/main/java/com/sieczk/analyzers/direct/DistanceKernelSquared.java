@@ -0,0 +1,70 @@
+package com.sieczk.analyzers.direct;
+
+import com.sieczk.utils.PixelColorUtil;
+
+/**
+ * Scalar kernel for RGB and weighted RGB color spaces comparing squared channel differences
+ * with a cut-off precomputed from the threshold. Pixels are tested with a single integer comparison,
+ * without normalizing and rounding their distances, and the results are identical to the rounded ones
+ */
+public class DistanceKernelSquared implements DistanceKernel {
+
+    private final boolean weighted;
+    private final int distanceThreshold;
+    private final int squaredCutoff;
+
+    public DistanceKernelSquared(ColorSpace colorSpace, int distanceThreshold) {
+        if (colorSpace != ColorSpace.RGB && colorSpace != ColorSpace.WEIGHTED_RGB)
+            throw new IllegalArgumentException("Unsupported color space: " + colorSpace);
+
+        this.weighted = colorSpace == ColorSpace.WEIGHTED_RGB;
+        this.distanceThreshold = distanceThreshold;
+        this.squaredCutoff = weighted
+                ? PixelColorUtil.squaredWeightedDistanceCutoffRGB(distanceThreshold)
+                : PixelColorUtil.squaredDistanceCutoffRGB(distanceThreshold);
+    }
+
+    @Override
+    public boolean isMismatched(int actualRGB, int checkedRGB) {
+        int squaredDistance = weighted
+                ? PixelColorUtil.squaredWeightedDistanceRGB(actualRGB, checkedRGB)
+                : PixelColorUtil.squaredDistanceRGB(actualRGB, checkedRGB);
+
+        return squaredDistance >= squaredCutoff;
+    }
+
+    @Override
+    public int distance(int actualRGB, int checkedRGB) {
+        return weighted
+                ? PixelColorUtil.normalizedDistanceWeightedRGB(actualRGB, checkedRGB)
+                : PixelColorUtil.normalizedDistanceRGB(actualRGB, checkedRGB);
+    }
+
+    @Override
+    public int getDistanceThreshold() {
+        return distanceThreshold;
+    }
+
+    @Override
+    public int compareRow(int[] actualRow, int[] checkedRow, int fromX, int toX, long[] mask, int maskOffset) {
+        int mismatchesCount = 0;
+
+        if (weighted) {
+            for (int x = fromX; x < toX; x++) {
+                if (PixelColorUtil.squaredWeightedDistanceRGB(actualRow[x], checkedRow[x]) < squaredCutoff) continue;
+
+                mask[maskOffset + (x >>> 6)] |= 1L << x;
+                mismatchesCount++;
+            }
+            return mismatchesCount;
+        }
+
+        for (int x = fromX; x < toX; x++) {
+            if (PixelColorUtil.squaredDistanceRGB(actualRow[x], checkedRow[x]) < squaredCutoff) continue;
+
+            mask[maskOffset + (x >>> 6)] |= 1L << x;
+            mismatchesCount++;
+        }
+        return mismatchesCount;
+    }
+}
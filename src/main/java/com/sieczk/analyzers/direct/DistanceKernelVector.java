@@ -0,0 +1,128 @@
+package com.sieczk.analyzers.direct;
+
+import com.sieczk.utils.PixelColorUtil;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernel comparing whole rows of pixels with jdk.incubator.vector for RGB and weighted RGB color spaces.<p>
+ * Squared channel differences are compared in integer lanes with the cut-off precomputed by PixelColorUtil,
+ * which is the lowest squared distance normalized above the threshold, so lanes are never normalized or rounded
+ * and the results are identical to the scalar ones.<p>
+ * Must only be loaded when jdk.incubator.vector module is present - use DistanceKernel.create()
+ */
+public class DistanceKernelVector implements DistanceKernel {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private final boolean weighted;
+    private final int distanceThreshold;
+    private final int squaredCutoff;
+
+    public DistanceKernelVector(ColorSpace colorSpace, int distanceThreshold) {
+        if (colorSpace != ColorSpace.RGB && colorSpace != ColorSpace.WEIGHTED_RGB)
+            throw new IllegalArgumentException("Unsupported color space: " + colorSpace);
+
+        this.weighted = colorSpace == ColorSpace.WEIGHTED_RGB;
+        this.distanceThreshold = distanceThreshold;
+        this.squaredCutoff = weighted
+                ? PixelColorUtil.squaredWeightedDistanceCutoffRGB(distanceThreshold)
+                : PixelColorUtil.squaredDistanceCutoffRGB(distanceThreshold);
+    }
+
+    @Override
+    public boolean isMismatched(int actualRGB, int checkedRGB) {
+        int squaredDistance = weighted
+                ? PixelColorUtil.squaredWeightedDistanceRGB(actualRGB, checkedRGB)
+                : PixelColorUtil.squaredDistanceRGB(actualRGB, checkedRGB);
+
+        return squaredDistance >= squaredCutoff;
+    }
+
+    @Override
+    public int distance(int actualRGB, int checkedRGB) {
+        return weighted
+                ? PixelColorUtil.normalizedDistanceWeightedRGB(actualRGB, checkedRGB)
+                : PixelColorUtil.normalizedDistanceRGB(actualRGB, checkedRGB);
+    }
+
+    @Override
+    public int getDistanceThreshold() {
+        return distanceThreshold;
+    }
+
+    @Override
+    public int compareRow(int[] actualRow, int[] checkedRow, int fromX, int toX, long[] mask, int maskOffset) {
+        int mismatchesCount = 0;
+        int lanes = SPECIES.length();
+
+        // Vectors start at multiples of lanes count, so that their lanes never span two mask words
+        int vectorStart = Math.min(toX, (fromX + lanes - 1) / lanes * lanes);
+        int vectorBound = vectorStart + SPECIES.loopBound(toX - vectorStart);
+
+        for (int x = fromX; x < vectorStart; x++) {
+            if (!isMismatched(actualRow[x], checkedRow[x])) continue;
+
+            mask[maskOffset + (x >>> 6)] |= 1L << x;
+            mismatchesCount++;
+        }
+
+        int x = vectorStart;
+        for (; x < vectorBound; x += lanes) {
+            IntVector actual = IntVector.fromArray(SPECIES, actualRow, x);
+            IntVector checked = IntVector.fromArray(SPECIES, checkedRow, x);
+
+            VectorMask<Integer> mismatched = weighted
+                    ? squaredWeightedDistance(actual, checked).compare(VectorOperators.GE, squaredCutoff)
+                    : squaredDistance(actual, checked).compare(VectorOperators.GE, squaredCutoff);
+
+            long bits = mismatched.toLong();
+            if (bits == 0) continue;
+
+            // Lanes count is a power of two not larger than 64, so aligned lanes never span two words
+            mask[maskOffset + (x >>> 6)] |= bits << x;
+            mismatchesCount += Long.bitCount(bits);
+        }
+
+        for (; x < toX; x++) {
+            if (!isMismatched(actualRow[x], checkedRow[x])) continue;
+
+            mask[maskOffset + (x >>> 6)] |= 1L << x;
+            mismatchesCount++;
+        }
+        return mismatchesCount;
+    }
+
+    private IntVector squaredDistance(IntVector actual, IntVector checked) {
+        IntVector redDiff = channel(actual, 16).sub(channel(checked, 16));
+        IntVector greenDiff = channel(actual, 8).sub(channel(checked, 8));
+        IntVector blueDiff = channel(actual, 0).sub(channel(checked, 0));
+
+        return redDiff.mul(redDiff)
+                .add(greenDiff.mul(greenDiff))
+                .add(blueDiff.mul(blueDiff));
+    }
+
+    private IntVector squaredWeightedDistance(IntVector actual, IntVector checked) {
+        IntVector actualRed = channel(actual, 16);
+        IntVector checkedRed = channel(checked, 16);
+
+        IntVector redDiff = actualRed.sub(checkedRed);
+        IntVector greenDiff = channel(actual, 8).sub(channel(checked, 8));
+        IntVector blueDiff = channel(actual, 0).sub(channel(checked, 0));
+
+        IntVector redMean = actualRed.add(checkedRed).lanewise(VectorOperators.ASHR, 1);
+        IntVector redWeight = redMean.lanewise(VectorOperators.LSHL, 1).add(512);
+        IntVector blueWeight = redMean.neg().add(255).lanewise(VectorOperators.LSHL, 1).add(512);
+
+        return redWeight.mul(redDiff).mul(redDiff)
+                .add(greenDiff.mul(greenDiff).mul(1024))
+                .add(blueWeight.mul(blueDiff).mul(blueDiff));
+    }
+
+    private IntVector channel(IntVector pixels, int shift) {
+        return pixels.lanewise(VectorOperators.LSHR, shift).and(0xFF);
+    }
+}
@@ -0,0 +1,103 @@
+package com.sieczk.analyzers.direct;
+
+import java.util.Arrays;
+
+/**
+ * Statistics of color distances of compared pixels, collected in a single pass without storing any pixels.<p>
+ * Every pixel outside excluded areas is counted in a histogram of rounded distances (0-100),
+ * all other values are derived from it. Pixels skipped by the scan because they are known to be identical,
+ * like rows above the first differing one or tiles with unchanged fingerprints, are counted with distance 0.
+ */
+public class DistanceStatistics {
+    public static final int MAX_DISTANCE = 100;
+
+    private final int distanceThreshold;
+    private final long imageSize;
+    private final long[] histogram = new long[MAX_DISTANCE + 1];
+
+
+    DistanceStatistics(int distanceThreshold, long imageSize) {
+        this.distanceThreshold = distanceThreshold;
+        this.imageSize = imageSize;
+    }
+
+    /**
+     * Gives direct access to the histogram. Row bands collected concurrently fill their own statistics,
+     * which are added together afterwards
+     */
+    long[] histogramCounts() {
+        return histogram;
+    }
+
+    void add(DistanceStatistics other) {
+        for (int distance = 0; distance <= MAX_DISTANCE; distance++) {
+            histogram[distance] += other.histogram[distance];
+        }
+    }
+
+    void addIdentical(long pixelsCount) {
+        histogram[0] += pixelsCount;
+    }
+
+    /**
+     * @return copy of the histogram, where index is the rounded distance and value the number of pixels
+     */
+    public long[] getHistogram() {
+        return Arrays.copyOf(histogram, histogram.length);
+    }
+
+    /**
+     * @return number of pixels outside excluded areas
+     */
+    public long getComparedPixels() {
+        long compared = 0;
+        for (long count : histogram) compared += count;
+        return compared;
+    }
+
+    /**
+     * @return number of pixels which distance exceeds the color distance threshold
+     */
+    public long getMismatchesCount() {
+        long mismatches = 0;
+        for (int distance = distanceThreshold + 1; distance <= MAX_DISTANCE; distance++) {
+            mismatches += histogram[distance];
+        }
+        return mismatches;
+    }
+
+    /**
+     * @return percentage of mismatched pixels in the whole image, including excluded areas,
+     * the same reference as the mismatched percentage threshold
+     */
+    public double getMismatchedPercentage() {
+        return imageSize == 0 ? 0 : getMismatchesCount() * 100.0 / imageSize;
+    }
+
+    /**
+     * @return the highest distance of compared pixels, 0 if no pixels were compared
+     */
+    public int getMaxDistance() {
+        for (int distance = MAX_DISTANCE; distance > 0; distance--) {
+            if (histogram[distance] != 0) return distance;
+        }
+        return 0;
+    }
+
+    /**
+     * @return mean distance of compared pixels, 0 if no pixels were compared
+     */
+    public double getMeanDistance() {
+        long compared = 0;
+        long distancesSum = 0;
+        for (int distance = 0; distance <= MAX_DISTANCE; distance++) {
+            compared += histogram[distance];
+            distancesSum += histogram[distance] * distance;
+        }
+        return compared == 0 ? 0 : (double) distancesSum / compared;
+    }
+
+    public int getDistanceThreshold() {
+        return distanceThreshold;
+    }
+}
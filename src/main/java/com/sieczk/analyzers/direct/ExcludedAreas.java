@@ -1,19 +1,23 @@
 package com.sieczk.analyzers.direct;
 
 import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Area;
 import java.util.ArrayList;
 
 public class ExcludedAreas {
     private final Area excluded = new Area();
 
+    private ExclusionMask compiledMask;
+
 
     public void excludeAreas(ArrayList<Rectangle> rectangles) {
         rectangles.forEach(this::excludeArea);
     }
 
-    public void excludeArea(Rectangle rectangle) {
+    public synchronized void excludeArea(Rectangle rectangle) {
         excluded.add(new Area(rectangle));
+        compiledMask = null;
     }
 
 
@@ -21,14 +25,56 @@ public class ExcludedAreas {
         rectangles.forEach(this::includeArea);
     }
 
-    public void includeArea(Rectangle rectangle) {
+    public synchronized void includeArea(Rectangle rectangle) {
         excluded.subtract(new Area(rectangle));
+        compiledMask = null;
     }
 
     public boolean contains(int x, int y) {
         return excluded.contains(x,y);
     }
+
+    /**
+     * Returns excluded area. Changes made directly to the returned area are not reflected
+     * in already compiled masks, use excludeArea() and includeArea() instead
+     */
     public Area getExcluded() {
         return excluded;
     }
-}
\ No newline at end of file
+
+    /**
+     * Rasterizes excluded areas for the image of provided size. The last compiled mask is cached
+     * and reused until the areas change, so the same exclusions can be shared by many comparisons
+     *
+     * @param width image width
+     * @param height image height
+     * @return mask of excluded pixels
+     */
+    public synchronized ExclusionMask compile(int width, int height) {
+        if (compiledMask == null || compiledMask.getWidth() != width || compiledMask.getHeight() != height) {
+            compiledMask = ExclusionMask.compile(excluded, width, height);
+        }
+        return compiledMask;
+    }
+
+    /**
+     * Clips excluded areas to a horizontal band of the image and moves them to band coordinates,
+     * so the band can be compared as a separate image
+     *
+     * @param fromRow first row of the band (inclusive)
+     * @param toRow last row of the band (exclusive)
+     * @param width image width
+     * @return excluded areas of the band, with the band top at row 0
+     */
+    public synchronized ExcludedAreas clipToBand(int fromRow, int toRow, int width) {
+        ExcludedAreas bandAreas = new ExcludedAreas();
+        if (excluded.isEmpty()) return bandAreas;
+
+        Area bandArea = new Area(new Rectangle(0, fromRow, width, toRow - fromRow));
+        bandArea.intersect(excluded);
+        bandArea.transform(AffineTransform.getTranslateInstance(0, -fromRow));
+
+        bandAreas.excluded.add(bandArea);
+        return bandAreas;
+    }
+}
@@ -0,0 +1,273 @@
+package com.sieczk.analyzers.direct;
+
+import java.awt.Rectangle;
+import java.awt.geom.Area;
+import java.awt.geom.PathIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Excluded areas rasterized for a specific image size.<p>
+ * Excluded pixels are stored in a row-padded bit mask with the same layout as the mismatches mask,
+ * so they can be cleared from scanned rows with a few word operations. For every row, spans of mask words
+ * that are not fully excluded are precalculated, so fully excluded parts of the row are not compared at all.<p>
+ * Pixel is excluded exactly when the area contains its (x, y) point. Masks are immutable
+ * and can be shared between comparisons - use ExcludedAreas.compile() to get a cached one.
+ */
+public class ExclusionMask {
+    private final int width;
+    private final int height;
+    private final int wordsPerRow;
+
+    private final long[] words;
+    private final boolean[] rowHasExclusions;
+    private final int[][] includedSpans;
+    private long excludedCount;
+
+
+    private ExclusionMask(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.words = new long[wordsPerRow * height];
+        this.rowHasExclusions = new boolean[height];
+        this.includedSpans = new int[height][];
+    }
+
+    /**
+     * Rasterizes the area. Areas built from rectangles are filled row by row from crossings of their vertical edges,
+     * any other outline falls back to checking every pixel within area bounds
+     *
+     * @param area excluded area
+     * @param width image width
+     * @param height image height
+     * @return compiled exclusion mask
+     */
+    static ExclusionMask compile(Area area, int width, int height) {
+        ExclusionMask exclusionMask = new ExclusionMask(width, height);
+        Rectangle bounds = area.getBounds().intersection(new Rectangle(0, 0, width, height));
+
+        if (!bounds.isEmpty()) {
+            List<double[]> verticalEdges = collectVerticalEdges(area);
+
+            for (int y = bounds.y; y < bounds.y + bounds.height; y++) {
+                if (verticalEdges != null) {
+                    exclusionMask.fillRowCrossings(y, verticalEdges);
+                } else {
+                    exclusionMask.fillRowContained(y, area, bounds);
+                }
+            }
+        }
+
+        int[] fullRow = {0, width};
+        for (int y = 0; y < height; y++) {
+            exclusionMask.includedSpans[y] = exclusionMask.rowHasExclusions[y] ? exclusionMask.findIncludedSpans(y) : fullRow;
+        }
+        for (long word : exclusionMask.words) {
+            exclusionMask.excludedCount += Long.bitCount(word);
+        }
+        return exclusionMask;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return number of excluded pixels within the image
+     */
+    public long getExcludedCount() {
+        return excludedCount;
+    }
+
+    public boolean isExcluded(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) return false;
+
+        return (words[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Returns parts of the row which are not fully excluded. Spans start at multiples of 64,
+     * so they can be passed directly to the distance kernel
+     *
+     * @return pairs of first (inclusive) and last (exclusive) x coordinates of the spans
+     */
+    int[] getIncludedSpans(int y) {
+        return includedSpans[y];
+    }
+
+    boolean hasExclusions(int y) {
+        return rowHasExclusions[y];
+    }
+
+    /**
+     * Finds exact runs of included pixels in the row, for scans which cannot clear excluded pixels afterwards
+     *
+     * @return pairs of first (inclusive) and last (exclusive) x coordinates of the runs
+     */
+    int[] findIncludedRuns(int y) {
+        int[] runs = new int[8];
+        int runsLength = 0;
+        int x = nextPixel(y, 0, false);
+
+        while (x < width) {
+            int end = nextPixel(y, x, true);
+
+            if (runsLength == runs.length) runs = Arrays.copyOf(runs, runsLength * 2);
+            runs[runsLength++] = x;
+            runs[runsLength++] = end;
+
+            x = nextPixel(y, end, false);
+        }
+        return Arrays.copyOf(runs, runsLength);
+    }
+
+    /**
+     * Finds the first pixel at or after x which is excluded (or included)
+     *
+     * @return x coordinate of the pixel, or width if there is none
+     */
+    private int nextPixel(int y, int x, boolean excluded) {
+        int rowOffset = y * wordsPerRow;
+
+        for (int w = x >>> 6; w < wordsPerRow; w++) {
+            long word = excluded ? words[rowOffset + w] : ~words[rowOffset + w];
+            if (w == x >>> 6) word &= -1L << x;
+
+            if (word != 0) return Math.min(width, (w << 6) + Long.numberOfTrailingZeros(word));
+        }
+        return width;
+    }
+
+    /**
+     * Clears excluded pixels from a row of the mismatches mask
+     *
+     * @param mask row-padded mismatches mask with the same width
+     * @param maskOffset index of the first word of the row
+     * @return number of cleared mismatches
+     */
+    int clearExcluded(int y, long[] mask, int maskOffset) {
+        if (!rowHasExclusions[y]) return 0;
+
+        int clearedCount = 0;
+        int rowOffset = y * wordsPerRow;
+
+        for (int w = 0; w < wordsPerRow; w++) {
+            long excludedMismatches = mask[maskOffset + w] & words[rowOffset + w];
+            if (excludedMismatches == 0) continue;
+
+            clearedCount += Long.bitCount(excludedMismatches);
+            mask[maskOffset + w] &= ~excludedMismatches;
+        }
+        return clearedCount;
+    }
+
+    /**
+     * Collects vertical edges of the area outline as (x, minY, maxY) triples
+     *
+     * @return vertical edges, or null if the outline contains curves or slanted lines
+     */
+    private static List<double[]> collectVerticalEdges(Area area) {
+        List<double[]> edges = new ArrayList<>();
+        double[] coords = new double[6];
+        double startX = 0, startY = 0;
+        double lastX = 0, lastY = 0;
+
+        for (PathIterator iterator = area.getPathIterator(null); !iterator.isDone(); iterator.next()) {
+            double x, y;
+
+            switch (iterator.currentSegment(coords)) {
+                case PathIterator.SEG_MOVETO -> {
+                    startX = lastX = coords[0];
+                    startY = lastY = coords[1];
+                    continue;
+                }
+                case PathIterator.SEG_LINETO -> {
+                    x = coords[0];
+                    y = coords[1];
+                }
+                case PathIterator.SEG_CLOSE -> {
+                    x = startX;
+                    y = startY;
+                }
+                default -> {
+                    return null;
+                }
+            }
+
+            if (x == lastX && y != lastY) {
+                edges.add(new double[]{x, Math.min(y, lastY), Math.max(y, lastY)});
+            } else if (x != lastX && y != lastY) {
+                return null;
+            }
+
+            lastX = x;
+            lastY = y;
+        }
+        return edges;
+    }
+
+    /**
+     * Fills the row between pairs of consecutive edge crossings. Edges cover rows from minY (inclusive)
+     * to maxY (exclusive) and pixel is inside from the crossing (inclusive) to the next one (exclusive),
+     * which matches Area insideness rules
+     */
+    private void fillRowCrossings(int y, List<double[]> verticalEdges) {
+        double[] crossings = new double[verticalEdges.size()];
+        int crossingsCount = 0;
+
+        for (double[] edge : verticalEdges) {
+            if (edge[1] <= y && y < edge[2]) crossings[crossingsCount++] = edge[0];
+        }
+        Arrays.sort(crossings, 0, crossingsCount);
+
+        for (int i = 0; i + 1 < crossingsCount; i += 2) {
+            int fromX = (int) Math.max(0, Math.ceil(crossings[i]));
+            int toX = (int) Math.min(width, Math.ceil(crossings[i + 1]));
+
+            for (int x = fromX; x < toX; x++) {
+                words[y * wordsPerRow + (x >>> 6)] |= 1L << x;
+            }
+            if (fromX < toX) rowHasExclusions[y] = true;
+        }
+    }
+
+    private void fillRowContained(int y, Area area, Rectangle bounds) {
+        for (int x = bounds.x; x < bounds.x + bounds.width; x++) {
+            if (!area.contains(x, y)) continue;
+
+            words[y * wordsPerRow + (x >>> 6)] |= 1L << x;
+            rowHasExclusions[y] = true;
+        }
+    }
+
+    /**
+     * Finds spans of mask words in the row which have at least one included pixel
+     */
+    private int[] findIncludedSpans(int y) {
+        int[] spans = new int[wordsPerRow * 2];
+        int spansLength = 0;
+        int rowOffset = y * wordsPerRow;
+
+        for (int w = 0; w < wordsPerRow; w++) {
+            int fromX = w << 6;
+            int toX = Math.min(width, fromX + 64);
+            long validBits = toX - fromX == 64 ? -1L : (1L << (toX - fromX)) - 1;
+
+            if (words[rowOffset + w] == validBits) continue;
+
+            if (spansLength > 0 && spans[spansLength - 1] == fromX) {
+                spans[spansLength - 1] = toX;
+            } else {
+                spans[spansLength++] = fromX;
+                spans[spansLength++] = toX;
+            }
+        }
+        return Arrays.copyOf(spans, spansLength);
+    }
+}
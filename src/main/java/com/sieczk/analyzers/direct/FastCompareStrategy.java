@@ -0,0 +1,6 @@
+package com.sieczk.analyzers.direct;
+
+public enum FastCompareStrategy {
+    EVERY_NTH,
+    PYRAMID,
+}
@@ -1,6 +1,7 @@
 package com.sieczk.analyzers.direct;
 
-import com.sieczk.analyzers.common.PixelPoint;
+import com.sieczk.comparators.ComparisonListener;
+import com.sieczk.comparators.ComparisonStage;
 import com.sieczk.comparators.DirectComparatorConfig;
 import com.sieczk.utils.accessor.ImageAccessor;
 
@@ -10,12 +11,13 @@ import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.geom.Area;
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
+import java.util.List;
 
 
 public class ImageMarker {
     private final int rectangleOffset;
     private final int lineThickness;
+    private final ComparisonListener listener;
 
     MarkingType mismatchedMarkingType;
     Color mismatchMarkingColor;
@@ -26,6 +28,7 @@ public class ImageMarker {
     public ImageMarker(DirectComparatorConfig config) {
         this.rectangleOffset = config.getMarkingOffset();
         this.lineThickness = config.getMarkingLineThickness();
+        this.listener = config.getComparisonListener();
 
         this.mismatchedMarkingType = config.getMismatchedAreasMarking();
         this.mismatchMarkingColor = config.getMismatchedMarkingColor();
@@ -38,35 +41,78 @@ public class ImageMarker {
 
         switch(mismatchedMarkingType) {
             case OUTLINE -> {
-                Rectangle[] boundingRectangles = mismatches
-                        .groupMismatches()
+                long start = ComparisonListener.start(listener);
+                List<MismatchesGroup> groups = mismatches.groupMismatches();
+                ComparisonListener.finish(listener, ComparisonStage.GROUP_MISMATCHES, start, mismatches.getMismatchesCount());
+
+                Rectangle[] boundingRectangles = groups
                         .stream()
                         .map(MismatchesGroup::getBoundingRectangle)
                         .toArray(Rectangle[]::new);
 
-                drawRectangles(boundingRectangles, bufferedImage, mismatchMarkingColor, rectangleOffset, lineThickness);
+                drawRectangles(boundingRectangles, bufferedImage, 0, mismatchMarkingColor, rectangleOffset, lineThickness);
             }
             case PAINT_OVER -> {
-                paintPixels(mismatches.getMismatchedPixels(), bufferedImage, mismatchMarkingColor);
+                paintPixels(mismatches, bufferedImage, mismatchMarkingColor);
             }
         }
 
         return bufferedImage;
     }
 
+    /**
+     * Marks mismatches on a horizontal band of the output image.
+     * Groups are outlined where they cross the band, so marks of consecutive bands join seamlessly
+     *
+     * @param band part of the output image, with the band top at row 0
+     * @param fromRow row of the image at which the band starts
+     * @param bandMismatches mismatches of the band, painted over if PAINT_OVER marking is used
+     * @param groups mismatches groups of the whole image, outlined if OUTLINE marking is used
+     */
+    public BufferedImage mark(BufferedImage band, int fromRow, Mismatches bandMismatches, List<MismatchesGroup> groups) {
+
+        switch(mismatchedMarkingType) {
+            case OUTLINE -> {
+                Rectangle[] boundingRectangles = groups
+                        .stream()
+                        .map(MismatchesGroup::getBoundingRectangle)
+                        .toArray(Rectangle[]::new);
+
+                drawRectangles(boundingRectangles, band, fromRow, mismatchMarkingColor, rectangleOffset, lineThickness);
+            }
+            case PAINT_OVER -> {
+                paintPixels(bandMismatches, band, mismatchMarkingColor);
+            }
+        }
+
+        return band;
+    }
+
     public BufferedImage mark(BufferedImage bufferedImage, ExcludedAreas excludedAreas) {
+        return mark(bufferedImage, 0, excludedAreas);
+    }
+
+    /**
+     * Marks excluded areas on a horizontal band of the output image
+     *
+     * @param band part of the output image, with the band top at row 0
+     * @param fromRow row of the image at which the band starts
+     * @param excludedAreas excluded areas in image coordinates
+     */
+    public BufferedImage mark(BufferedImage band, int fromRow, ExcludedAreas excludedAreas) {
 
         switch(excludedMarkingType) {
-            case OUTLINE -> drawShape(excludedAreas.getExcluded(), bufferedImage, excludedMarkingColor, lineThickness);
-            case PAINT_OVER -> paintPixels(excludedAreas.getExcluded(), bufferedImage, excludedMarkingColor, lineThickness);
+            case OUTLINE -> drawShape(excludedAreas.getExcluded(), band, fromRow, excludedMarkingColor, lineThickness);
+            case PAINT_OVER -> paintPixels(excludedAreas.getExcluded(), band, fromRow, excludedMarkingColor, lineThickness);
         }
 
-        return bufferedImage;
+        return band;
     }
 
 
-    private void drawRectangles(Rectangle[] rectangles, BufferedImage image, Color lineColor, int offset, int lineThickness) {
+    private void drawRectangles(Rectangle[] rectangles, BufferedImage image, int fromRow, Color lineColor, int offset, int lineThickness) {
         Graphics2D g2d = image.createGraphics();
+        g2d.translate(0, -fromRow);
 
         g2d.setColor(lineColor);
         g2d.setStroke(new BasicStroke(lineThickness));
@@ -82,20 +128,21 @@ public class ImageMarker {
         g2d.dispose();
     }
 
-    private void paintPixels(ArrayList<PixelPoint> pixels, BufferedImage image, Color lineColor) {
+    private void paintPixels(Mismatches mismatches, BufferedImage image, Color lineColor) {
         ImageAccessor mismatchedAccessor = ImageAccessor.create(image);
 
         int red = lineColor.getRed();
         int green = lineColor.getGreen();
         int blue = lineColor.getBlue();
 
-        for (PixelPoint pixel : pixels) {
-            mismatchedAccessor.setPixel(pixel.getX(), pixel.getY(), 255, red, green, blue);
-        }
+        mismatches.forEachMismatch((x, y) ->
+                mismatchedAccessor.setPixel(x, y, 255, red, green, blue)
+        );
     }
 
-    private void paintPixels(Area area, BufferedImage image, Color lineColor, int lineThickness) {
+    private void paintPixels(Area area, BufferedImage image, int fromRow, Color lineColor, int lineThickness) {
         Graphics2D g2d = image.createGraphics();
+        g2d.translate(0, -fromRow);
 
         g2d.setColor(lineColor);
         g2d.setStroke(new BasicStroke(lineThickness));
@@ -103,8 +150,9 @@ public class ImageMarker {
         g2d.dispose();
     }
 
-    private void drawShape(Area area, BufferedImage image, Color lineColor, int lineThickness) {
+    private void drawShape(Area area, BufferedImage image, int fromRow, Color lineColor, int lineThickness) {
         Graphics2D g2d = image.createGraphics();
+        g2d.translate(0, -fromRow);
 
         g2d.setColor(lineColor);
         g2d.setStroke(new BasicStroke(lineThickness));
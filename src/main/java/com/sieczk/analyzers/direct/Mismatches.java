@@ -1,139 +1,182 @@
 package com.sieczk.analyzers.direct;
 
+import com.sieczk.analyzers.common.PixelConsumer;
 import com.sieczk.analyzers.common.PixelPoint;
+import com.sieczk.jfr.MismatchesGroupingEvent;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Stack;
 
 public class Mismatches {
 
-    private final int[][] neighboursMatrix;
+    private final int groupingRadius;
+
+    private final int width;
+    private final int height;
+
+    // Bit per pixel, every row starts at a new word, so rows never share a word
+    private final int wordsPerRow;
+    private final long[] mask;
 
     private int totalMismatched;
-    private final ArrayList<PixelPoint> mismatchedPixels;
 
-    public Mismatches(ArrayList<PixelPoint> mismatchedPixels, int groupingRadius) {
-        this.totalMismatched = mismatchedPixels.size() - 1;
-        this.mismatchedPixels = mismatchedPixels;
-        this.neighboursMatrix = generateNeighboursMatrix(groupingRadius);
+    public Mismatches(int width, int height, int groupingRadius) {
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.mask = new long[wordsPerRow * height];
+        this.groupingRadius = groupingRadius;
     }
 
-    public ArrayList<PixelPoint> getMismatchedPixels() {
-        return mismatchedPixels;
+    public Mismatches(List<PixelPoint> mismatchedPixels, int groupingRadius) {
+        this(
+                mismatchedPixels.stream().mapToInt(PixelPoint::getX).max().orElse(-1) + 1,
+                mismatchedPixels.stream().mapToInt(PixelPoint::getY).max().orElse(-1) + 1,
+                groupingRadius
+        );
+        mismatchedPixels.forEach(pixel -> mark(pixel.getX(), pixel.getY()));
     }
 
-    public int getMismatchesCount() {
-        return totalMismatched;
+    /**
+     * Marks pixel under provided coordinates as mismatched
+     *
+     * @param x X pixel coordinate
+     * @param y Y pixel coordinate
+     */
+    public void add(int x, int y) {
+        mark(x, y);
     }
 
-    public void setMismatchesCount(int count) {
-        this.totalMismatched = count;
+    // Not overridable, so constructors can mark pixels
+    private void mark(int x, int y) {
+        int wordIndex = y * wordsPerRow + (x >>> 6);
+        long bit = 1L << x;
+
+        if ((mask[wordIndex] & bit) != 0) return;
+
+        mask[wordIndex] |= bit;
+        totalMismatched++;
     }
 
     /**
-     * Removes areas excluded from comparison from mismatches list
+     * Gives direct access to the mask words. Row bands compared concurrently own whole rows of the mask,
+     * set their bits without updating mismatches count and report their counts separately
+     *
+     * @return mask words, row by row
      */
-    public void excludeResults(ExcludedAreas excluded) {
-        mismatchedPixels.removeIf(pixelPoint -> excluded.contains(
-                pixelPoint.getX(), pixelPoint.getY()
-        ));
+    long[] getMaskWords() {
+        return mask;
     }
 
     /**
-     * Joins connected mismatched pixels into single group. Range by which pixels are treated as grouped is
-     * determined in the Config class .
-     *
-     * @return List of rectangles bounding mismatched pixels groups
+     * @return number of mask words used by each row
      */
-    public List<MismatchesGroup> groupMismatches() {
-        List<MismatchesGroup> groups = new ArrayList<>();
-        ArrayList<PixelPoint> visited = new ArrayList<>();
-
-        for (PixelPoint mismatch : mismatchedPixels) {
-            if (visited.contains(mismatch)) continue;
-            MismatchesGroup group = searchDFS(mismatchedPixels, visited, mismatch.getX(), mismatch.getY());
-            groups.add(group);
-        }
+    int getWordsPerRow() {
+        return wordsPerRow;
+    }
 
-        return groups;
+    /**
+     * @param y row index
+     * @return index of the first mask word of the row
+     */
+    int getRowOffset(int y) {
+        return y * wordsPerRow;
     }
 
     /**
-     * Performs DFS on provided ArrayList of mismatches
+     * Checks if pixel under provided coordinates is mismatched. Coordinates outside the image are never mismatched
      *
-     * @param matrix ArrayList of points to be searched
-     * @param visited ArrayList of already visited elements
      * @param x X pixel coordinate
      * @param y Y pixel coordinate
-     * @return the bounding rectangle for the mismatched group
+     * @return true if pixel was marked as mismatched
      */
-    private MismatchesGroup searchDFS(ArrayList<PixelPoint> matrix, ArrayList<PixelPoint> visited, int x, int y) {
-        final int[] xNeighbours = neighboursMatrix[0];
-        final int[] yNeighbours = neighboursMatrix[1];
-
-        int groupSize = 1;
+    public boolean contains(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) return false;
 
-        Stack<int[]> stack = new Stack<>();
-        stack.push(new int[]{x, y});
+        return (mask[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
 
-        visited.add(new PixelPoint(x,y));
+    /**
+     * Passes coordinates of every mismatched pixel to the consumer, row by row.
+     * Does not allocate per pixel
+     *
+     * @param consumer receiving X and Y coordinates of the mismatched pixel
+     */
+    public void forEachMismatch(PixelConsumer consumer) {
+        for (int y = 0; y < height; y++) {
+            int rowOffset = y * wordsPerRow;
+
+            for (int w = 0; w < wordsPerRow; w++) {
+                long word = mask[rowOffset + w];
+
+                while (word != 0) {
+                    int x = (w << 6) + Long.numberOfTrailingZeros(word);
+                    consumer.accept(x, y);
+                    word &= word - 1;
+                }
+            }
+        }
+    }
 
-        int minX = x;
-        int maxX = x;
-        int minY = y;
-        int maxY = y;
+    /**
+     * Materializes mismatched pixels into a list. Allocates a PixelPoint per mismatch,
+     * prefer forEachMismatch() for large images
+     *
+     * @return list of mismatched pixels ordered row by row
+     */
+    public ArrayList<PixelPoint> getMismatchedPixels() {
+        ArrayList<PixelPoint> pixels = new ArrayList<>(totalMismatched);
+        forEachMismatch((x, y) -> pixels.add(new PixelPoint(x, y)));
+        return pixels;
+    }
 
-        while (!stack.isEmpty()) {
-            int[] current = stack.pop();
-            int currX = current[0];
-            int currY = current[1];
+    public int getMismatchesCount() {
+        return totalMismatched;
+    }
 
-            for (int i = 0; i < xNeighbours.length; i++) {
-                int newX = currX + xNeighbours[i];
-                int newY = currY + yNeighbours[i];
-                PixelPoint neighbourPoint = new PixelPoint(newX, newY);
+    public void setMismatchesCount(int count) {
+        this.totalMismatched = count;
+    }
 
-                if (!matrix.contains(neighbourPoint)) continue;
-                if (visited.contains(neighbourPoint)) continue;
+    public int getWidth() {
+        return width;
+    }
 
-                groupSize++;
+    public int getHeight() {
+        return height;
+    }
 
-                if (newX > maxX) maxX = newX;
-                else if (newX < minX) minX = newX;
-                if (newY > maxY) maxY = newY;
-                else if (newY < minY) minY = newY;
+    /**
+     * Removes areas excluded from comparison from mismatches
+     */
+    public void excludeResults(ExcludedAreas excluded) {
+        if (excluded.getExcluded().isEmpty()) return;
 
-                stack.push(new int[]{newX, newY});
-                visited.add(neighbourPoint);
-            }
+        ExclusionMask exclusionMask = excluded.compile(width, height);
+        for (int y = 0; y < height; y++) {
+            totalMismatched -= exclusionMask.clearExcluded(y, mask, y * wordsPerRow);
         }
-
-        return new MismatchesGroup(groupSize, minX, maxX, minY, maxY);
     }
 
-
     /**
-     * Generate index offsets for surrounding entries based on provided distance
+     * Joins connected mismatched pixels into single group. Range by which pixels are treated as grouped is
+     * determined in the Config class .
      *
-     * @param distance half of the resulting matrix width/height
-     * @return matrix containing two offset arrays for X and Y coordinates respectively
+     * @return List of rectangles bounding mismatched pixels groups
      */
-    private int[][] generateNeighboursMatrix(int distance) {
-        int size = (2 * distance + 1) * (2 * distance + 1) - 1;
-        int[] xNeighbours = new int[size];
-        int[] yNeighbours = new int[size];
-
-        int index = 0;
-        for (int dx = -distance; dx <= distance; dx++) {
-            for (int dy = -distance; dy <= distance; dy++) {
-                if (dx == 0 && dy == 0) continue;
-                xNeighbours[index] = dx;
-                yNeighbours[index] = dy;
-                index++;
-            }
-        }
+    public List<MismatchesGroup> groupMismatches() {
+        MismatchesGroupingEvent event = new MismatchesGroupingEvent();
+        event.begin();
 
-        return new int[][]{xNeighbours, yNeighbours};
+        List<MismatchesGroup> groups = new MismatchesLabeler(groupingRadius).label(mask, wordsPerRow, height);
+
+        if (event.shouldCommit()) {
+            event.width = width;
+            event.height = height;
+            event.mismatchesCount = totalMismatched;
+            event.groupsCount = groups.size();
+            event.commit();
+        }
+        return groups;
     }
 }
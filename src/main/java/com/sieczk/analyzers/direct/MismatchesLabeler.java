@@ -0,0 +1,200 @@
+package com.sieczk.analyzers.direct;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Groups mismatches mask into connected components using union-find over horizontal runs.<p>
+ * Two mismatched pixels belong to the same group if they are no further than grouping radius
+ * apart in both dimensions. Inside a row, pixels separated by at most radius are chained into a single run.
+ * Runs from rows up to radius apart are joined if their ranges, extended by radius, overlap.<p>
+ * Work is proportional to the mask words and number of runs, not to the radius area.
+ */
+class MismatchesLabeler {
+
+    private final int radius;
+
+    // Horizontal runs of mismatched pixels, stored in row-major order
+    private int[] runStart = new int[64];
+    private int[] runEnd = new int[64];
+    private int[] runRow = new int[64];
+    private int[] runSize = new int[64];
+    private int[] parent = new int[64];
+    private int runCount;
+
+    // Index of the first run of every labelled row
+    private int[] rowFirstRun = new int[64];
+    private int labelledRows;
+
+    MismatchesLabeler(int radius) {
+        this.radius = radius;
+    }
+
+    /**
+     * Labels the mask and collects bounding boxes of found groups
+     *
+     * @param mask row-padded bit mask of mismatched pixels
+     * @param wordsPerRow number of mask words used by each row
+     * @param height number of mask rows
+     * @return groups ordered by their first pixel (row by row)
+     */
+    List<MismatchesGroup> label(long[] mask, int wordsPerRow, int height) {
+        addRows(mask, wordsPerRow, height);
+        return collectGroups();
+    }
+
+    /**
+     * Labels mask rows placed directly below already labelled rows,
+     * so the image can be labelled band by band without keeping the whole mask
+     *
+     * @param mask row-padded bit mask of mismatched pixels
+     * @param wordsPerRow number of mask words used by each row
+     * @param rowsCount number of mask rows
+     */
+    void addRows(long[] mask, int wordsPerRow, int rowsCount) {
+        if (rowFirstRun.length < labelledRows + rowsCount) {
+            rowFirstRun = Arrays.copyOf(rowFirstRun, Math.max(rowFirstRun.length * 2, labelledRows + rowsCount));
+        }
+
+        for (int row = 0; row < rowsCount; row++) {
+            int y = labelledRows++;
+            rowFirstRun[y] = runCount;
+            collectRowRuns(mask, row * wordsPerRow, wordsPerRow, y);
+
+            int distance = Math.min(radius, y);
+            for (int k = 1; k <= distance; k++) {
+                mergeRows(rowFirstRun[y - k], rowFirstRun[y - k + 1], rowFirstRun[y], runCount);
+            }
+        }
+    }
+
+    /**
+     * Extracts runs of set bits from a single row, joining runs separated by at most radius
+     */
+    private void collectRowRuns(long[] mask, int rowOffset, int wordsPerRow, int y) {
+        int rowFirstRun = runCount;
+
+        for (int w = 0; w < wordsPerRow; w++) {
+            long word = mask[rowOffset + w];
+
+            while (word != 0) {
+                int start = Long.numberOfTrailingZeros(word);
+                int length = Math.min(Long.numberOfTrailingZeros(~(word >>> start)), 64 - start);
+                long runBits = length == 64 ? -1L : ((1L << length) - 1) << start;
+                word &= ~runBits;
+
+                int x = (w << 6) + start;
+                int last = runCount - 1;
+
+                if (last >= rowFirstRun && x - runEnd[last] <= radius) {
+                    runEnd[last] = x + length - 1;
+                    runSize[last] += length;
+                } else {
+                    addRun(x, x + length - 1, y, length);
+                }
+            }
+        }
+    }
+
+    /**
+     * Joins runs from two rows if their ranges, extended by radius, overlap.
+     * Both rows are sorted and their runs are disjoint, so a single sweep is enough
+     */
+    private void mergeRows(int previousFrom, int previousTo, int currentFrom, int currentTo) {
+        int i = previousFrom;
+        int j = currentFrom;
+
+        while (i < previousTo && j < currentTo) {
+            if (runEnd[i] + radius < runStart[j]) {
+                i++;
+            } else if (runEnd[j] + radius < runStart[i]) {
+                j++;
+            } else {
+                union(i, j);
+                if (runEnd[i] < runEnd[j]) i++;
+                else j++;
+            }
+        }
+    }
+
+    /**
+     * Collects bounding boxes of groups found in all labelled rows
+     *
+     * @return groups ordered by their first pixel (row by row)
+     */
+    List<MismatchesGroup> collectGroups() {
+        int[] groupIndex = new int[runCount];
+        int[] size = new int[runCount];
+        int[] minX = new int[runCount];
+        int[] maxX = new int[runCount];
+        int[] minY = new int[runCount];
+        int[] maxY = new int[runCount];
+        int groupCount = 0;
+
+        for (int i = 0; i < runCount; i++) {
+            int root = find(i);
+
+            // Roots are always the earliest run of their group, so they are visited first
+            if (root == i) {
+                groupIndex[i] = groupCount;
+                minX[groupCount] = runStart[i];
+                maxX[groupCount] = runEnd[i];
+                minY[groupCount] = runRow[i];
+                maxY[groupCount] = runRow[i];
+                groupCount++;
+            }
+
+            int group = groupIndex[root];
+            size[group] += runSize[i];
+            if (runStart[i] < minX[group]) minX[group] = runStart[i];
+            if (runEnd[i] > maxX[group]) maxX[group] = runEnd[i];
+            if (runRow[i] > maxY[group]) maxY[group] = runRow[i];
+        }
+
+        List<MismatchesGroup> groups = new ArrayList<>(groupCount);
+        for (int g = 0; g < groupCount; g++) {
+            groups.add(new MismatchesGroup(size[g], minX[g], maxX[g], minY[g], maxY[g]));
+        }
+        return groups;
+    }
+
+    private void addRun(int start, int end, int row, int size) {
+        if (runCount == runStart.length) {
+            int capacity = runCount * 2;
+            runStart = Arrays.copyOf(runStart, capacity);
+            runEnd = Arrays.copyOf(runEnd, capacity);
+            runRow = Arrays.copyOf(runRow, capacity);
+            runSize = Arrays.copyOf(runSize, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+        }
+
+        runStart[runCount] = start;
+        runEnd[runCount] = end;
+        runRow[runCount] = row;
+        runSize[runCount] = size;
+        parent[runCount] = runCount;
+        runCount++;
+    }
+
+    private int find(int run) {
+        while (parent[run] != run) {
+            parent[run] = parent[parent[run]];
+            run = parent[run];
+        }
+        return run;
+    }
+
+    /**
+     * Joins groups of both runs, keeping the earlier run as the root
+     */
+    private void union(int first, int second) {
+        int firstRoot = find(first);
+        int secondRoot = find(second);
+
+        if (firstRoot == secondRoot) return;
+
+        if (firstRoot < secondRoot) parent[secondRoot] = firstRoot;
+        else parent[firstRoot] = secondRoot;
+    }
+}
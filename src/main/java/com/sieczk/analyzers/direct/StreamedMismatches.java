@@ -0,0 +1,68 @@
+package com.sieczk.analyzers.direct;
+
+import java.util.List;
+
+/**
+ * Mismatches summary of an image compared band by band.<p>
+ * Bands are labelled as soon as they are added and their masks are not kept,
+ * so memory stays bounded by the band size and the number of mismatched runs,
+ * not by the image size. Groups are the same as found by Mismatches.groupMismatches()
+ * for the whole image.
+ */
+public class StreamedMismatches {
+    private final int width;
+    private final int height;
+    private final MismatchesLabeler labeler;
+
+    private int comparedRows;
+    private int totalMismatched;
+
+
+    public StreamedMismatches(int width, int height, int groupingRadius) {
+        this.width = width;
+        this.height = height;
+        this.labeler = new MismatchesLabeler(groupingRadius);
+    }
+
+    /**
+     * Adds mismatches of the next band. Bands have to be added top to bottom, without gaps
+     *
+     * @param bandMismatches mismatches of the band, with the band top at row 0
+     * @param fromRow row of the image at which the band starts
+     */
+    public void addBand(Mismatches bandMismatches, int fromRow) {
+        if (fromRow != comparedRows)
+            throw new IllegalArgumentException("Bands must be added top to bottom, expected band starting at row " + comparedRows);
+        if (bandMismatches.getWidth() != width || fromRow + bandMismatches.getHeight() > height)
+            throw new IllegalArgumentException("Band does not fit the image");
+
+        labeler.addRows(bandMismatches.getMaskWords(), bandMismatches.getWordsPerRow(), bandMismatches.getHeight());
+        comparedRows += bandMismatches.getHeight();
+        totalMismatched += bandMismatches.getMismatchesCount();
+    }
+
+    public int getMismatchesCount() {
+        return totalMismatched;
+    }
+
+    public int getComparedRows() {
+        return comparedRows;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Joins connected mismatched pixels of all added bands into groups
+     *
+     * @return List of rectangles bounding mismatched pixels groups, in image coordinates
+     */
+    public List<MismatchesGroup> groupMismatches() {
+        return labeler.collectGroups();
+    }
+}
@@ -0,0 +1,139 @@
+package com.sieczk.analyzers.direct;
+
+import com.sieczk.utils.accessor.ImageAccessor;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * 64-bit fingerprints of square image tiles, stored row by row.<p>
+ * Tiles with equal fingerprints are considered identical and skipped by the full comparison,
+ * so only the tiles that changed are passed to the distance kernel. Fingerprints of a baseline image
+ * can be calculated once and reused in every comparison against it.<p>
+ * Only RGB channels are fingerprinted, since alpha does not affect color distances.
+ * Pixels are mixed with xxHash64 rounds, which keeps accidental collisions of different tiles negligible.
+ */
+public class TileFingerprints implements TilePrescreen {
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+
+    private final int width;
+    private final int height;
+    private final int tileSize;
+    private final int tilesPerRow;
+    private final long[] fingerprints;
+
+
+    private TileFingerprints(int width, int height, int tileSize) {
+        this.width = width;
+        this.height = height;
+        this.tileSize = tileSize;
+        this.tilesPerRow = (width + tileSize - 1) / tileSize;
+        this.fingerprints = new long[tilesPerRow * ((height + tileSize - 1) / tileSize)];
+    }
+
+    /**
+     * Calculates fingerprints of all image tiles
+     *
+     * @param image fingerprinted image
+     * @param tileSize size of the square tile, a positive multiple of 64
+     * @return fingerprints of the image
+     */
+    public static TileFingerprints of(BufferedImage image, int tileSize) {
+        if (tileSize <= 0 || tileSize % 64 != 0)
+            throw new IllegalArgumentException("Tile size must be a positive multiple of 64");
+
+        TileFingerprints tileFingerprints = new TileFingerprints(image.getWidth(), image.getHeight(), tileSize);
+        ImageAccessor accessor = ImageAccessor.create(image);
+        int[] row = new int[image.getWidth()];
+
+        for (int tileRow = 0; tileRow * tileSize < image.getHeight(); tileRow++) {
+            tileFingerprints.fingerprintTileRow(accessor, tileRow, tileFingerprints.fingerprints, tileRow * tileFingerprints.tilesPerRow, row);
+        }
+        return tileFingerprints;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * Fingerprints a single tile row of the compared image and finds spans of tiles whose fingerprints differ.
+     * Actual image is not read, its fingerprints are already known
+     */
+    @Override
+    public int[] findDifferingSpans(ImageAccessor actual, ImageAccessor checked, int tileRow, int[] actualRow, int[] checkedRow) {
+        long[] checkedFingerprints = new long[tilesPerRow];
+        fingerprintTileRow(checked, tileRow, checkedFingerprints, 0, checkedRow);
+
+        int[] spans = new int[tilesPerRow * 2];
+        int spansLength = 0;
+        int rowOffset = tileRow * tilesPerRow;
+
+        for (int tile = 0; tile < tilesPerRow; tile++) {
+            if (checkedFingerprints[tile] == fingerprints[rowOffset + tile]) continue;
+
+            spansLength = TilePrescreen.appendTile(spans, spansLength, tile, tileSize, width);
+        }
+        return Arrays.copyOf(spans, spansLength);
+    }
+
+    private void fingerprintTileRow(ImageAccessor accessor, int tileRow, long[] destination, int offset, int[] row) {
+        Arrays.fill(destination, offset, offset + tilesPerRow, 0L);
+
+        int fromY = tileRow * tileSize;
+        int toY = Math.min(height, fromY + tileSize);
+
+        for (int y = fromY; y < toY; y++) {
+            accessor.getRow(y, row);
+
+            for (int tile = 0; tile < tilesPerRow; tile++) {
+                int fromX = tile * tileSize;
+                int toX = Math.min(width, fromX + tileSize);
+
+                destination[offset + tile] = round(destination[offset + tile], hashSegment(row, fromX, toX));
+            }
+        }
+    }
+
+    /**
+     * Hashes a horizontal segment of the row. Pixels are packed in pairs and mixed by four independent
+     * accumulators, so consecutive rounds do not wait for each other
+     */
+    private static long hashSegment(int[] row, int fromX, int toX) {
+        long first = PRIME_1;
+        long second = PRIME_2;
+        long third = 0;
+        long fourth = -PRIME_1;
+
+        int x = fromX;
+        for (; x + 8 <= toX; x += 8) {
+            first = round(first, pixelPair(row, x));
+            second = round(second, pixelPair(row, x + 2));
+            third = round(third, pixelPair(row, x + 4));
+            fourth = round(fourth, pixelPair(row, x + 6));
+        }
+        for (; x < toX; x++) {
+            first = round(first, row[x] & 0xFFFFFF);
+        }
+
+        return Long.rotateLeft(first, 1) + Long.rotateLeft(second, 7) + Long.rotateLeft(third, 12) + Long.rotateLeft(fourth, 18);
+    }
+
+    private static long pixelPair(int[] row, int x) {
+        return ((long) (row[x] & 0xFFFFFF) << 32) | (row[x + 1] & 0xFFFFFF);
+    }
+
+    private static long round(long hash, long input) {
+        return Long.rotateLeft(hash + input * PRIME_2, 31) * PRIME_1;
+    }
+}
@@ -0,0 +1,44 @@
+package com.sieczk.analyzers.direct;
+
+import com.sieczk.utils.accessor.ImageAccessor;
+
+/**
+ * Cheap check run once per row of square tiles, before the rows are passed to the distance kernel.
+ * Only tiles which may contain mismatches are compared pixel by pixel
+ */
+interface TilePrescreen {
+
+    int getTileSize();
+
+    /**
+     * Finds horizontal pixel spans covered by tiles which may contain mismatches.
+     * Neighbouring tiles are joined into one span
+     *
+     * @param actual accessor of the actual image
+     * @param checked accessor of the compared image
+     * @param tileRow index of the tile row
+     * @param actualRow buffer for the actual image rows, at least image width long
+     * @param checkedRow buffer for the checked image rows, at least image width long
+     * @return pairs of first (inclusive) and last (exclusive) x coordinates of the spans
+     */
+    int[] findDifferingSpans(ImageAccessor actual, ImageAccessor checked, int tileRow, int[] actualRow, int[] checkedRow);
+
+    /**
+     * Joins tile at provided column into the spans list, extending the last span if the tile directly follows it
+     *
+     * @return new length of the spans list
+     */
+    static int appendTile(int[] spans, int spansLength, int tile, int tileSize, int width) {
+        int fromX = tile * tileSize;
+        int toX = Math.min(width, fromX + tileSize);
+
+        if (spansLength > 0 && spans[spansLength - 1] == fromX) {
+            spans[spansLength - 1] = toX;
+            return spansLength;
+        }
+
+        spans[spansLength] = fromX;
+        spans[spansLength + 1] = toX;
+        return spansLength + 2;
+    }
+}
@@ -1,9 +1,9 @@
 package com.sieczk.analyzers.hash;
 
 import com.sieczk.utils.ImageUtil;
+import com.sieczk.utils.PreparedImage;
 
 import java.awt.image.BufferedImage;
-import java.util.BitSet;
 
 public class AHashAnalyzer {
 
@@ -15,19 +15,32 @@ public class AHashAnalyzer {
      * 3. Iterate through all pixels of the resized image. If value exceeds average, set hash bit to 1 </p>
      *
      * @param image to hash
-     * @return BitSet containing image hash
+     * @return image hash
      */
-    public BitSet aHash(BufferedImage image) {
-        int[] values = ImageUtil.extractLuminosityArray(image);
+    public ImageHash aHash(BufferedImage image) {
+        return aHash(ImageUtil.extractLuminosityArray(image));
+    }
+
+    /**
+     * Computes aHash of the prepared image, reusing its cached luminosity
+     *
+     * @param image to hash
+     * @return image hash
+     */
+    public ImageHash aHash(PreparedImage image) {
+        return aHash(image.getLuminosity());
+    }
+
+    private ImageHash aHash(int[] values) {
         int averageValue = calculateAverage(values);
         int length = values.length;
 
-        BitSet hash = new BitSet(length);
+        long[] words = new long[ImageHash.wordsCount(length)];
         for (int i = 0; i < length; i++) {
-            hash.set(i, values[i] >= averageValue);
+            if (values[i] >= averageValue) words[i >>> 6] |= 1L << i;
         }
 
-        return hash;
+        return new ImageHash(words, length);
     }
 
     private int calculateAverage(int[] array) {
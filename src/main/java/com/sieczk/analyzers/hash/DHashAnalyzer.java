@@ -1,9 +1,9 @@
 package com.sieczk.analyzers.hash;
 
 import com.sieczk.utils.ImageUtil;
+import com.sieczk.utils.PreparedImage;
 
 import java.awt.image.BufferedImage;
-import java.util.BitSet;
 
 public class DHashAnalyzer {
 
@@ -15,25 +15,36 @@ public class DHashAnalyzer {
      * 3. if difference is > 1 set hash bit to 1. </p>
      *
      * @param image to hash
-     * @return BitSet containing image hash
+     * @return image hash
      */
-    public BitSet dHash(BufferedImage image) {
-        int width = image.getWidth();
-        int height = image.getHeight();
+    public ImageHash dHash(BufferedImage image) {
+        return dHash(ImageUtil.extractLuminosityArray(image), image.getWidth(), image.getHeight());
+    }
+
+    /**
+     * Computes dHash of the prepared image, reusing its cached luminosity
+     *
+     * @param image to hash
+     * @return image hash
+     */
+    public ImageHash dHash(PreparedImage image) {
+        return dHash(image.getLuminosity(), image.getWidth(), image.getHeight());
+    }
 
-        int[] values = ImageUtil.extractLuminosityArray(image);
-        BitSet hash = new BitSet(width * height - 1);
+    private ImageHash dHash(int[] values, int width, int height) {
+        int length = (width - 1) * height;
+        long[] words = new long[ImageHash.wordsCount(length)];
 
         int index = 0;
         for (int y = 0; y < height; y++) {
             for (int x = 0; x < width - 1; x++) {
                 int current = values[y * width + x];
                 int next = values[y * width + x + 1];
-                hash.set(index, current > next);
+                if (current > next) words[index >>> 6] |= 1L << index;
                 index++;
             }
         }
 
-        return hash;
+        return new ImageHash(words, length);
     }
 }
@@ -0,0 +1,193 @@
+package com.sieczk.analyzers.hash;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HexFormat;
+
+/**
+ * Immutable hash of an image, packed into words of 64 bits.<p>
+ * Bit i is stored in word i / 64 at position i % 64, bits above the hash length are always cleared,
+ * so hashes are compared word by word without allocating anything. Serialized form starts with the hash length
+ * as a big endian int, followed by (length + 7) / 8 bytes with bit i in byte i / 8 at position i % 8,
+ * the same order as BitSet.toByteArray()
+ */
+public final class ImageHash {
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final long[] words;
+    private final int length;
+
+
+    /**
+     * Wraps words without copying. They must not be modified afterwards
+     */
+    ImageHash(long[] words, int length) {
+        this.words = words;
+        this.length = length;
+    }
+
+    /**
+     * Creates hash with bits set in the BitSet
+     *
+     * @param length number of bits of the hash
+     * @throws IllegalArgumentException if a bit at or above the length is set
+     */
+    public static ImageHash fromBitSet(BitSet bits, int length) {
+        if (length < 0)
+            throw new IllegalArgumentException("Length cannot be negative");
+        if (bits.length() > length)
+            throw new IllegalArgumentException("Bit " + (bits.length() - 1) + " is outside of the hash length " + length);
+
+        return new ImageHash(Arrays.copyOf(bits.toLongArray(), wordsCount(length)), length);
+    }
+
+    /**
+     * Reads hash serialized by toBytes()
+     *
+     * @throws IllegalArgumentException if the bytes are not a serialized hash
+     */
+    public static ImageHash fromBytes(byte[] bytes) {
+        if (bytes.length < Integer.BYTES)
+            throw new IllegalArgumentException("Serialized hash must start with its length");
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int length = buffer.getInt();
+        if (length < 0 || bytes.length - Integer.BYTES != (length + 7L) / 8)
+            throw new IllegalArgumentException("Serialized hash of " + length + " bits must have " + (length + 7L) / 8 + " data bytes");
+
+        long[] words = new long[wordsCount(length)];
+        for (int i = 0; buffer.hasRemaining(); i++) {
+            words[i >>> 3] |= (buffer.get() & 0xFFL) << ((i & 7) << 3);
+        }
+
+        if (length % 64 != 0 && words.length > 0 && words[words.length - 1] >>> (length % 64) != 0)
+            throw new IllegalArgumentException("Serialized hash has bits set outside of its length");
+
+        return new ImageHash(words, length);
+    }
+
+    /**
+     * Reads hash serialized by toHex()
+     *
+     * @throws IllegalArgumentException if the text is not a serialized hash
+     */
+    public static ImageHash fromHex(String hex) {
+        return fromBytes(HEX.parseHex(hex));
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return value of the bit at provided index
+     */
+    public boolean get(int index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException("Bit " + index + " is outside of the hash length " + length);
+
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Reads consecutive bits as a number, e.g. to use parts of the hash as keys
+     *
+     * @param from index of the first bit, stored at position 0 of the result
+     * @param count number of bits, at most 64
+     * @return bits from the index up to the count
+     */
+    public long bits(int from, int count) {
+        if (count < 0 || count > Long.SIZE)
+            throw new IllegalArgumentException("Count must be between 0 and " + Long.SIZE);
+        if (from < 0 || from + count > length)
+            throw new IndexOutOfBoundsException("Bits from " + from + " to " + (from + count) + " are outside of the hash length " + length);
+        if (count == 0) return 0;
+
+        int word = from >>> 6;
+        int offset = from & 63;
+        long bits = words[word] >>> offset;
+        if (offset + count > Long.SIZE) {
+            bits |= words[word + 1] << (Long.SIZE - offset);
+        }
+        return count == Long.SIZE ? bits : bits & ((1L << count) - 1);
+    }
+
+    /**
+     * Counts differing bits. If hashes have different lengths, missing bits of the shorter one are treated as cleared
+     *
+     * @return number of differing bits
+     */
+    public int hammingDistance(ImageHash other) {
+        long[] shorter = words.length <= other.words.length ? words : other.words;
+        long[] longer = shorter == words ? other.words : words;
+
+        int distance = 0;
+        for (int i = 0; i < shorter.length; i++) {
+            distance += Long.bitCount(shorter[i] ^ longer[i]);
+        }
+        for (int i = shorter.length; i < longer.length; i++) {
+            distance += Long.bitCount(longer[i]);
+        }
+        return distance;
+    }
+
+    /**
+     * Calculates similarity as the fraction of equal bits, relative to the length of the longer hash
+     *
+     * @return similarity from 0 to 1, 1 for two empty hashes
+     */
+    public double similarity(ImageHash other) {
+        int bitsCount = Math.max(length, other.length);
+        return bitsCount == 0 ? 1.0 : 1.0 - (double) hammingDistance(other) / bitsCount;
+    }
+
+    /**
+     * @return bits of the hash as a new BitSet
+     */
+    public BitSet toBitSet() {
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Serializes the hash to its length followed by its bits packed into bytes
+     */
+    public byte[] toBytes() {
+        int dataBytes = (length + 7) / 8;
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + dataBytes).putInt(length);
+
+        for (int i = 0; i < dataBytes; i++) {
+            buffer.put((byte) (words[i >>> 3] >>> ((i & 7) << 3)));
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Serializes the hash to the hex form of toBytes()
+     */
+    public String toHex() {
+        return HEX.formatHex(toBytes());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ImageHash other)) return false;
+
+        return length == other.length && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * length + Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        return toHex();
+    }
+
+    static int wordsCount(int length) {
+        return (length + 63) >>> 6;
+    }
+}
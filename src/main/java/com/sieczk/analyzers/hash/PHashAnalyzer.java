@@ -3,7 +3,6 @@ package com.sieczk.analyzers.hash;
 import com.sieczk.utils.ImageUtil;
 
 import java.awt.image.BufferedImage;
-import java.util.BitSet;
 
 public class PHashAnalyzer {
 
@@ -11,9 +10,9 @@ public class PHashAnalyzer {
      * Computes pHash representing provided image
      *
      * @param image to hash
-     * @return BitSet containing image hash
+     * @return image hash
      */
-    public BitSet pHash(BufferedImage image) {
+    public ImageHash pHash(BufferedImage image) {
         // 1: Resize image to a fixed size
         int size = 32;
         BufferedImage resized = ImageUtil.resizeBilinear(image, size, size);
@@ -43,16 +42,17 @@ public class PHashAnalyzer {
         double average = total / count;
 
         // 5: Generate the hash based on the average
-        BitSet bits = new BitSet(count);
+        long[] words = new long[ImageHash.wordsCount(count)];
         int bitIndex = 0;
         for (int x = 0; x < blockSize; x++) {
             for (int y = 0; y < blockSize; y++) {
                 if (x != 0 || y != 0) {
-                    bits.set(bitIndex++, dctBlock[x][y] > average);
+                    if (dctBlock[x][y] > average) words[bitIndex >>> 6] |= 1L << bitIndex;
+                    bitIndex++;
                 }
             }
         }
-        return bits;
+        return new ImageHash(words, count);
     }
 
     /**
@@ -3,7 +3,6 @@ package com.sieczk.analyzers.hash;
 import com.sieczk.utils.ImageUtil;
 
 import java.awt.image.BufferedImage;
-import java.util.BitSet;
 
 public class WHashAnalyzer {
 
@@ -22,9 +21,9 @@ public class WHashAnalyzer {
      * 4. Iterate through comparison matrix and set hash bytes if the coefficient exceeds mean
      *
      * @param image to hash
-     * @return BitSet containing image hash
+     * @return image hash
      */
-    public BitSet wHash(BufferedImage image) {
+    public ImageHash wHash(BufferedImage image) {
         int[][] imageMatrix = ImageUtil.extractLuminosityMatrix(image);
         performHaarWaveletTransform(imageMatrix);
 
@@ -81,22 +80,23 @@ public class WHashAnalyzer {
         return (int) (sum / count);
     }
 
-    private BitSet calculateHash(int[][] matrix, int mean) {
+    private ImageHash calculateHash(int[][] matrix, int mean) {
         int hashRows = (int) (matrix.length * hashSizeCoefficient);
         int hashCols = (int) (matrix[0].length * hashSizeCoefficient);
 
-        BitSet hash = new BitSet(hashRows * hashCols);
+        int length = hashRows * hashCols;
+        long[] words = new long[ImageHash.wordsCount(length)];
 
         int bitIndex = 0;
         for (int i = 0; i < hashRows; i++) {
             for (int j = 0; j < hashCols; j++) {
                 if (matrix[i][j] > mean) {
-                    hash.set(bitIndex);
+                    words[bitIndex >>> 6] |= 1L << bitIndex;
                 }
                 bitIndex++;
             }
         }
 
-        return hash;
+        return new ImageHash(words, length);
     }
 }
\ No newline at end of file
@@ -1,6 +1,9 @@
 package com.sieczk.analyzers.ssim;
 
 import com.sieczk.utils.ImageUtil;
+import com.sieczk.utils.PreparedImage;
+import com.sieczk.comparators.ComparisonListener;
+import com.sieczk.comparators.ComparisonStage;
 import com.sieczk.comparators.SSIMComparatorConfig;
 import com.sieczk.analyzers.common.TriFunction;
 
@@ -9,6 +12,8 @@ import java.awt.image.Kernel;
 
 public class SSIMAnalyzer {
     private final Kernel gaussianKernel;
+    private final MomentsKey momentsKey;
+    private final ComparisonListener listener;
 
     // Components exponents
     private final double alpha;
@@ -31,6 +36,8 @@ public class SSIMAnalyzer {
         double k2 = config.getK2();
 
         this.gaussianKernel = ImageUtil.generateGaussianKernel(windowDimension, sigma);
+        this.momentsKey = new MomentsKey(windowDimension, sigma);
+        this.listener = config.getComparisonListener();
         this.alpha = config.getAlpha();
         this.beta = config.getBeta();
         this.gamma = config.getGamma();
@@ -50,26 +57,36 @@ public class SSIMAnalyzer {
     }
 
     public double calculateImagesSSIM(BufferedImage firstImage, BufferedImage secondImage) {
-        int[] firstImageLuminosity = ImageUtil.extractLuminosityArray(firstImage);
-        int[] secondImageLuminosity = ImageUtil.extractLuminosityArray(secondImage);
+        return calculateImagesSSIM(new PreparedImage(firstImage), new PreparedImage(secondImage));
+    }
+
+    /**
+     * Calculates SSIM of prepared images. Luminosity and its weighted means of each image are cached
+     * in the prepared image, so only the weighted product of both images is convolved for every pair
+     */
+    public double calculateImagesSSIM(PreparedImage firstImage, PreparedImage secondImage) {
+        long start = ComparisonListener.start(listener);
+        int[] firstImageLuminosity = firstImage.getLuminosity();
+        int[] secondImageLuminosity = secondImage.getLuminosity();
         int imgWidth = firstImage.getWidth();
         int imgHeight = firstImage.getHeight();
         int numPixels = firstImageLuminosity.length;
+        ComparisonListener.finish(listener, ComparisonStage.LUMINOSITY, start, numPixels);
+
+        WeightedMoments firstImageMoments = firstImage.getDerived(momentsKey, this::calculateWeightedMoments);
+        WeightedMoments secondImageMoments = secondImage.getDerived(momentsKey, this::calculateWeightedMoments);
 
-        int[] firstImageSquaredData = new int[numPixels];
-        int[] secondImageSquaredData = new int[numPixels];
+        start = ComparisonListener.start(listener);
         int[] imagesProductData = new int[numPixels];
 
         for(int i=0; i<numPixels; i++) {
-            firstImageSquaredData[i] = firstImageLuminosity[i] * firstImageLuminosity[i];
-            secondImageSquaredData[i] = secondImageLuminosity[i] * secondImageLuminosity[i];
             imagesProductData[i] = firstImageLuminosity[i] * secondImageLuminosity[i];
         }
 
-        double[] firstImageWeightedMeanData = ImageUtil.convolve(firstImageLuminosity, imgWidth, imgHeight, gaussianKernel);
-        double[] secondImageWeightedMeanData = ImageUtil.convolve(secondImageLuminosity, imgWidth, imgHeight, gaussianKernel);
-        double[] firstImageWeightedSquaredData = ImageUtil.convolve(firstImageSquaredData, imgWidth, imgHeight, gaussianKernel);
-        double[] secondImageWeightedSquaredData = ImageUtil.convolve(secondImageSquaredData, imgWidth, imgHeight, gaussianKernel);
+        double[] firstImageWeightedMeanData = firstImageMoments.mean();
+        double[] secondImageWeightedMeanData = secondImageMoments.mean();
+        double[] firstImageWeightedSquaredData = firstImageMoments.squared();
+        double[] secondImageWeightedSquaredData = secondImageMoments.squared();
         double[] imagesWeightedProductData = ImageUtil.convolve(imagesProductData, imgWidth, imgHeight, gaussianKernel);
 
         double totalSSIM = 0.0;
@@ -104,9 +121,32 @@ public class SSIMAnalyzer {
             }
         }
 
+        ComparisonListener.finish(listener, ComparisonStage.SSIM_MAP, start, numPixels);
+
         return validWindows > 0 ? totalSSIM / validWindows : 0.0;
     }
 
+    /**
+     * Convolves luminosity of the image and its square with the gaussian kernel
+     */
+    private WeightedMoments calculateWeightedMoments(PreparedImage image) {
+        int[] luminosity = image.getLuminosity();
+        long start = ComparisonListener.start(listener);
+        int[] squaredData = new int[luminosity.length];
+
+        for (int i = 0; i < luminosity.length; i++) {
+            squaredData[i] = luminosity[i] * luminosity[i];
+        }
+
+        WeightedMoments moments = new WeightedMoments(
+                ImageUtil.convolve(luminosity, image.getWidth(), image.getHeight(), gaussianKernel),
+                ImageUtil.convolve(squaredData, image.getWidth(), image.getHeight(), gaussianKernel)
+        );
+        ComparisonListener.finish(listener, ComparisonStage.WEIGHTED_MOMENTS, start, luminosity.length);
+
+        return moments;
+    }
+
 
     /**
      * Computes SSIM score for the window using simplified approach - multiplying components
@@ -179,4 +219,15 @@ public class SSIMAnalyzer {
         return numerator / denominator;
     }
 
+    /**
+     * Identifies weighted moments cached in prepared images, they depend only on the gaussian kernel
+     */
+    private record MomentsKey(int windowSize, double sigma) {
+    }
+
+    /**
+     * Luminosity convolved with the gaussian kernel (E[X]) and squared luminosity convolved with it (E[X^2])
+     */
+    private record WeightedMoments(double[] mean, double[] squared) {
+    }
 }
@@ -0,0 +1,311 @@
+package com.sieczk.cli;
+
+import com.sieczk.analyzers.direct.ColorSpace;
+import com.sieczk.analyzers.direct.DistanceStatistics;
+import com.sieczk.comparators.DirectComparator;
+import com.sieczk.comparators.DirectComparatorConfig;
+import com.sieczk.comparators.DirectComparisonResult;
+import com.sieczk.comparators.HashComparator;
+import com.sieczk.comparators.SSIMComparator;
+import com.sieczk.utils.ImageUtil;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Command line entry point comparing pairs of image files.<p>
+ * Pairs are given as consecutive arguments or in manifest files, one pair per line with paths separated by a tab.
+ * Relative paths in a manifest are resolved against its directory, empty lines and lines starting with # are skipped.
+ * Pairs are compared concurrently and every result is printed as a JSON line as soon as it is ready,
+ * so results appear in completion order. Exit code is 0 if all pairs match, 1 if any pair does not match
+ * and 2 if any pair could not be compared or arguments are invalid.
+ */
+public class ImageComparatorCli {
+    public static final int EXIT_MATCHING = 0;
+    public static final int EXIT_NOT_MATCHING = 1;
+    public static final int EXIT_ERROR = 2;
+
+    private static final String USAGE = """
+            Usage: ImageComparatorCli [options] [baseFile comparedFile]...
+              --manifest <file>              file with tab separated pairs, can be repeated
+              --algorithm <name>             direct, ssim, phash, ahash, dhash or whash (default: direct)
+              --threads <n>                  number of pairs compared concurrently (default: available processors)
+              --color-space <name>           direct: RGB, WEIGHTED_RGB, HSV or LAB_DELTA_E (default: RGB)
+              --color-distance <n>           direct: color distance above which pixels mismatch (default: 1)
+              --mismatched-percentage <n>    direct: percentage of mismatched pixels at which images do not match (default: 1)
+              --min-similarity <value>       ssim and hashes: lowest similarity of matching images, 0 to 1 (default: 0.95)
+            """;
+
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Compares pairs given by the arguments
+     *
+     * @param out stream receiving JSON lines with results
+     * @param err stream receiving usage and argument errors
+     * @return exit code
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        Options options;
+        List<File[]> pairs;
+
+        try {
+            options = Options.parse(args);
+            pairs = options.collectPairs();
+        } catch (IllegalArgumentException | IOException e) {
+            err.println(e.getMessage());
+            err.print(USAGE);
+            return EXIT_ERROR;
+        }
+
+        BiFunction<BufferedImage, BufferedImage, Verdict> comparison = options.createComparison();
+        AtomicInteger notMatching = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(options.threads);
+
+        try {
+            for (File[] pair : pairs) {
+                executor.execute(() -> {
+                    String line = compare(pair[0], pair[1], options.algorithm, comparison, notMatching, failed);
+
+                    synchronized (out) {
+                        out.println(line);
+                        out.flush();
+                    }
+                    completed.incrementAndGet();
+                });
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                // Waiting for the remaining pairs
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            return EXIT_ERROR;
+        }
+
+        // Errors, e.g. OutOfMemoryError while decoding, escape the task without printing a result
+        if (failed.get() > 0 || completed.get() < pairs.size()) return EXIT_ERROR;
+        return notMatching.get() > 0 ? EXIT_NOT_MATCHING : EXIT_MATCHING;
+    }
+
+    private static String compare(File baseFile, File comparedFile, String algorithm,
+                                  BiFunction<BufferedImage, BufferedImage, Verdict> comparison,
+                                  AtomicInteger notMatching, AtomicInteger failed) {
+        String pairFields = "\"base\":" + json(baseFile.getPath()) + ",\"compared\":" + json(comparedFile.getPath())
+                + ",\"algorithm\":" + json(algorithm);
+
+        try {
+            Verdict verdict = comparison.apply(ImageUtil.readImage(baseFile), ImageUtil.readImage(comparedFile));
+            if (!verdict.matching()) notMatching.incrementAndGet();
+
+            return "{" + pairFields + ",\"matching\":" + verdict.matching() + verdict.fields() + "}";
+        } catch (IOException | RuntimeException e) {
+            failed.incrementAndGet();
+            return "{" + pairFields + ",\"error\":" + json(String.valueOf(e.getMessage())) + "}";
+        }
+    }
+
+    /**
+     * Quotes and escapes the text as a JSON string
+     */
+    private static String json(String text) {
+        StringBuilder builder = new StringBuilder(text.length() + 2).append('"');
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    /**
+     * Verdict of the pair with additional JSON fields of the result, each preceded by a comma
+     */
+    private record Verdict(boolean matching, String fields) {
+    }
+
+    private static class Options {
+        private final List<String> manifests = new ArrayList<>();
+        private final List<String> files = new ArrayList<>();
+        private String algorithm = "direct";
+        private int threads = Runtime.getRuntime().availableProcessors();
+        private ColorSpace colorSpace = ColorSpace.RGB;
+        private int colorDistance = 1;
+        private int mismatchedPercentage = 1;
+        private double minSimilarity = 0.95;
+
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (!arg.startsWith("--")) {
+                    options.files.add(arg);
+                    continue;
+                }
+                if (i + 1 == args.length)
+                    throw new IllegalArgumentException("Missing value of " + arg);
+
+                String value = args[++i];
+                switch (arg) {
+                    case "--manifest" -> options.manifests.add(value);
+                    case "--algorithm" -> options.algorithm = value.toLowerCase(Locale.ROOT);
+                    case "--threads" -> options.threads = parseInt(arg, value, 1, Integer.MAX_VALUE);
+                    case "--color-space" -> options.colorSpace = parseColorSpace(value);
+                    case "--color-distance" -> options.colorDistance = parseInt(arg, value, 0, 100);
+                    case "--mismatched-percentage" -> options.mismatchedPercentage = parseInt(arg, value, 0, 100);
+                    case "--min-similarity" -> options.minSimilarity = parseDouble(arg, value, 0, 1);
+                    default -> throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+
+            if (!List.of("direct", "ssim", "phash", "ahash", "dhash", "whash").contains(options.algorithm))
+                throw new IllegalArgumentException("Unknown algorithm " + options.algorithm);
+            if (options.files.size() % 2 != 0)
+                throw new IllegalArgumentException("Files must be given in pairs");
+            if (options.files.isEmpty() && options.manifests.isEmpty())
+                throw new IllegalArgumentException("No pairs to compare");
+
+            return options;
+        }
+
+        List<File[]> collectPairs() throws IOException {
+            List<File[]> pairs = new ArrayList<>();
+
+            for (int i = 0; i < files.size(); i += 2) {
+                pairs.add(new File[]{new File(files.get(i)), new File(files.get(i + 1))});
+            }
+
+            for (String manifest : manifests) {
+                Path manifestPath = Path.of(manifest);
+                Path directory = manifestPath.toAbsolutePath().getParent();
+                List<String> lines = Files.readAllLines(manifestPath);
+
+                for (int lineNumber = 1; lineNumber <= lines.size(); lineNumber++) {
+                    String line = lines.get(lineNumber - 1).strip();
+                    if (line.isEmpty() || line.startsWith("#")) continue;
+
+                    String[] paths = line.split("\t");
+                    if (paths.length != 2)
+                        throw new IllegalArgumentException("Line " + lineNumber + " of " + manifest + " is not a tab separated pair");
+
+                    pairs.add(new File[]{directory.resolve(paths[0].strip()).toFile(), directory.resolve(paths[1].strip()).toFile()});
+                }
+            }
+            return pairs;
+        }
+
+        /**
+         * Creates comparison of the chosen algorithm
+         */
+        BiFunction<BufferedImage, BufferedImage, Verdict> createComparison() {
+            switch (algorithm) {
+                case "direct" -> {
+                    DirectComparator comparator = new DirectComparator(new DirectComparatorConfig()
+                            .colorSpace(colorSpace)
+                            .colorDistanceThreshold(colorDistance)
+                            .mismatchedPercentageThreshold(mismatchedPercentage)
+                            .returnOutputImage(false)
+                            .collectStatistics(true));
+
+                    return (base, compared) -> directVerdict(comparator.compare(base, compared));
+                }
+                case "ssim" -> {
+                    SSIMComparator comparator = new SSIMComparator();
+                    return (base, compared) -> similarityVerdict(comparator.compare(base, compared));
+                }
+                default -> {
+                    HashComparator comparator = new HashComparator();
+                    BiFunction<BufferedImage, BufferedImage, Double> hash = switch (algorithm) {
+                        case "phash" -> comparator::comparePHash;
+                        case "ahash" -> comparator::compareAHash;
+                        case "dhash" -> comparator::compareDHash;
+                        default -> comparator::compareWHash;
+                    };
+                    return (base, compared) -> similarityVerdict(hash.apply(base, compared));
+                }
+            }
+        }
+
+        private Verdict similarityVerdict(double similarity) {
+            return new Verdict(similarity >= minSimilarity, ",\"similarity\":" + similarity);
+        }
+
+        private static Verdict directVerdict(DirectComparisonResult result) {
+            DistanceStatistics statistics = result.getStatistics();
+
+            return new Verdict(result.getIsMatching(),
+                    ",\"mismatchedPixels\":" + statistics.getMismatchesCount()
+                    + ",\"mismatchedPercentage\":" + statistics.getMismatchedPercentage()
+                    + ",\"maxDistance\":" + statistics.getMaxDistance());
+        }
+
+        private static int parseInt(String option, String value, int min, int max) {
+            try {
+                int number = Integer.parseInt(value);
+                if (number < min || number > max)
+                    throw new IllegalArgumentException(option + " must be between " + min + " and " + max);
+
+                return number;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(option + " must be an integer");
+            }
+        }
+
+        private static double parseDouble(String option, String value, double min, double max) {
+            try {
+                double number = Double.parseDouble(value);
+                if (!(number >= min && number <= max))
+                    throw new IllegalArgumentException(option + " must be between " + min + " and " + max);
+
+                return number;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(option + " must be a number");
+            }
+        }
+
+        private static ColorSpace parseColorSpace(String value) {
+            try {
+                return ColorSpace.valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown color space " + value);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.sieczk.comparators;
+
+import com.sieczk.utils.ImageUtil;
+import com.sieczk.utils.PreparedImage;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Runs comparisons asynchronously, returning CompletableFutures instead of blocking the caller.<p>
+ * Work is split between two executors. Image files are read on the I/O executor, by default one virtual thread per file,
+ * so thousands of comparisons can wait for their files without a thread pool sized for them. Comparisons themselves
+ * keep the CPU busy, so they run on the bounded compute executor, by default one platform thread per processor.<p>
+ * Any comparator entry point can be run, e.g.
+ * {@code async.compare(baseFile, comparedFile, hashComparator::comparePHash)}.
+ * Failures, including files which cannot be read, complete the returned future exceptionally.
+ */
+public class AsyncComparator implements AutoCloseable {
+    private final Executor ioExecutor;
+    private final Executor computeExecutor;
+
+    private final ExecutorService ownedIoExecutor;
+    private final ExecutorService ownedComputeExecutor;
+
+
+    /**
+     * Creates comparator with its own executors: virtual threads for reading files
+     * and a pool of one thread per available processor for comparisons. They are shut down by close()
+     */
+    public AsyncComparator() {
+        AtomicInteger computeThreads = new AtomicInteger();
+
+        this.ownedIoExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.ownedComputeExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "async-comparator-compute-" + computeThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.ioExecutor = ownedIoExecutor;
+        this.computeExecutor = ownedComputeExecutor;
+    }
+
+    /**
+     * Creates comparator running on provided executors. They are not shut down by close()
+     *
+     * @param ioExecutor executor reading image files
+     * @param computeExecutor executor running comparisons
+     */
+    public AsyncComparator(Executor ioExecutor, Executor computeExecutor) {
+        if (ioExecutor == null || computeExecutor == null)
+            throw new IllegalArgumentException("Executors cannot be null");
+
+        this.ioExecutor = ioExecutor;
+        this.computeExecutor = computeExecutor;
+        this.ownedIoExecutor = null;
+        this.ownedComputeExecutor = null;
+    }
+
+    /**
+     * Reads image file on the I/O executor
+     *
+     * @return future of the decoded image, completed with UncheckedIOException if the file cannot be read
+     */
+    public CompletableFuture<BufferedImage> read(File file) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return ImageUtil.readImage(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, ioExecutor);
+    }
+
+    /**
+     * Runs comparison of decoded images on the compute executor
+     *
+     * @param comparison comparator entry point, e.g. directComparator::compare
+     * @return future of the comparison result
+     */
+    public <T> CompletableFuture<T> compare(BufferedImage baseImage, BufferedImage comparedImage,
+                                            BiFunction<BufferedImage, BufferedImage, T> comparison) {
+        return CompletableFuture.supplyAsync(() -> comparison.apply(baseImage, comparedImage), computeExecutor);
+    }
+
+    /**
+     * Reads both files concurrently on the I/O executor and compares them on the compute executor once both are decoded
+     *
+     * @param comparison comparator entry point, e.g. ssimComparator::compare
+     * @return future of the comparison result
+     */
+    public <T> CompletableFuture<T> compare(File baseFile, File comparedFile,
+                                            BiFunction<BufferedImage, BufferedImage, T> comparison) {
+        return read(baseFile).thenCombineAsync(read(comparedFile), comparison, computeExecutor);
+    }
+
+    /**
+     * Reads compared file on the I/O executor and compares it with the prepared base image on the compute executor
+     *
+     * @param comparison comparator entry point, e.g. directComparator::compare
+     * @return future of the comparison result
+     */
+    public <T> CompletableFuture<T> compare(PreparedImage baseImage, File comparedFile,
+                                            BiFunction<PreparedImage, BufferedImage, T> comparison) {
+        return read(comparedFile).thenApplyAsync(comparedImage -> comparison.apply(baseImage, comparedImage), computeExecutor);
+    }
+
+    /**
+     * Shuts down executors created by this comparator. Already submitted comparisons are completed.
+     * Comparisons of files reach the compute executor only after their files are read,
+     * so the compute executor is shut down after all reads have finished
+     */
+    @Override
+    public void close() {
+        if (ownedIoExecutor != null) {
+            ownedIoExecutor.shutdown();
+            try {
+                while (!ownedIoExecutor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    // Waiting for files being read
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (ownedComputeExecutor != null) ownedComputeExecutor.shutdown();
+    }
+}
@@ -1,10 +1,24 @@
 package com.sieczk.comparators;
 
+import com.sieczk.jfr.ResizeEvent;
 import com.sieczk.utils.ImageUtil;
+import com.sieczk.utils.PreparedImage;
 
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 public abstract class BaseComparator {
+    final ComparisonListener listener;
+
+
+    BaseComparator(BaseComparatorConfig config) {
+        this.listener = config.getComparisonListener();
+    }
 
     boolean checkImageSizes(BufferedImage baseImage, BufferedImage comparedImage) {
         return baseImage.getHeight() == comparedImage.getHeight() &&
@@ -22,11 +36,72 @@ public abstract class BaseComparator {
         if(!areImagesSameSize) {
             if(isShouldEnforceSize)
                 throw new IllegalArgumentException("Compared image should have the same size");
-            if(isShouldAssureSize)
-                return ImageUtil.resizeBilinear(comparedImage, baseImage.getWidth(), baseImage.getHeight());
+            if(isShouldAssureSize) {
+                ResizeEvent event = new ResizeEvent();
+                event.begin();
+                long start = ComparisonListener.start(listener);
+
+                BufferedImage resizedImage = ImageUtil.resizeBilinear(comparedImage, baseImage.getWidth(), baseImage.getHeight());
+
+                ComparisonListener.finish(listener, ComparisonStage.RESIZE, start, (long) baseImage.getWidth() * baseImage.getHeight());
+                if (event.shouldCommit()) {
+                    event.sourceWidth = comparedImage.getWidth();
+                    event.sourceHeight = comparedImage.getHeight();
+                    event.width = resizedImage.getWidth();
+                    event.height = resizedImage.getHeight();
+                    event.commit();
+                }
+                return resizedImage;
+            }
         }
 
         return comparedImage;
     }
 
+    /**
+     * Checks sizes of prepared images. If the compared image is resized, the resized one is prepared anew,
+     * since forms cached for the original size do not apply to it
+     */
+    PreparedImage handleInputComparedImage(
+            PreparedImage baseImage,
+            PreparedImage comparedImage,
+            boolean isShouldEnforceSize,
+            boolean isShouldAssureSize) {
+
+        BufferedImage checkedComparedImage = handleInputComparedImage(
+                baseImage.getImage(),
+                comparedImage.getImage(),
+                isShouldEnforceSize,
+                isShouldAssureSize
+        );
+
+        return checkedComparedImage == comparedImage.getImage() ? comparedImage : new PreparedImage(checkedComparedImage);
+    }
+
+    /**
+     * Compares every candidate as a separate task on the executor and waits for all of them.
+     * Exception thrown by the first failed comparison, in candidates order, is rethrown as is
+     *
+     * @param candidates images compared against the same baseline
+     * @param comparison comparison of a single candidate with the baseline
+     * @param executor executor running comparisons
+     * @return results in the order of candidates
+     */
+    <T> List<T> compareAll(List<BufferedImage> candidates, Function<BufferedImage, T> comparison, Executor executor) {
+        List<CompletableFuture<T>> comparisons = new ArrayList<>(candidates.size());
+        for (BufferedImage candidate : candidates) {
+            comparisons.add(CompletableFuture.supplyAsync(() -> comparison.apply(candidate), executor));
+        }
+
+        List<T> results = new ArrayList<>(candidates.size());
+        for (CompletableFuture<T> candidateComparison : comparisons) {
+            try {
+                results.add(candidateComparison.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                throw e;
+            }
+        }
+        return results;
+    }
 }
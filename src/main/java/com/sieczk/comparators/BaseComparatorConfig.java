@@ -12,6 +12,11 @@ public abstract class BaseComparatorConfig {
      */
     private boolean assureImageSize = true;
 
+    /**
+     * Listener receiving durations of comparison stages. If null, stages are not timed
+     */
+    private ComparisonListener comparisonListener = null;
+
 
     public boolean isEnforceImageSize() {
         return enforceImageSize;
@@ -30,4 +35,13 @@ public abstract class BaseComparatorConfig {
         this.assureImageSize = assureImageSize;
         return this;
     }
+
+    public ComparisonListener getComparisonListener() {
+        return comparisonListener;
+    }
+
+    public BaseComparatorConfig comparisonListener(ComparisonListener listener) {
+        this.comparisonListener = listener;
+        return this;
+    }
 }
@@ -0,0 +1,38 @@
+package com.sieczk.comparators;
+
+/**
+ * Receives durations of comparison stages, registered with BaseComparatorConfig.comparisonListener().<p>
+ * Comparisons run on many threads at once in compareAll() and async comparisons, so the listener must be thread safe.
+ * It is called on the comparing thread right after the stage ends, so it should return quickly.
+ * If no listener is registered, stages are not timed at all
+ */
+@FunctionalInterface
+public interface ComparisonListener {
+
+    /**
+     * @param stage finished stage
+     * @param nanos duration of the stage in nanoseconds
+     * @param size amount of data processed by the stage, as described by the stage
+     */
+    void onStage(ComparisonStage stage, long nanos, long size);
+
+    /**
+     * Returns the start time of a stage, read only if the listener is registered
+     *
+     * @param listener registered listener or null
+     * @return current value of System.nanoTime(), or 0 if there is no listener
+     */
+    static long start(ComparisonListener listener) {
+        return listener != null ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Reports the stage started at provided time to the listener, if it is registered
+     *
+     * @param listener registered listener or null
+     * @param startNanos value returned by start()
+     */
+    static void finish(ComparisonListener listener, ComparisonStage stage, long startNanos, long size) {
+        if (listener != null) listener.onStage(stage, System.nanoTime() - startNanos, size);
+    }
+}
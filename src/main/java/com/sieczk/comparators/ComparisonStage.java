@@ -0,0 +1,65 @@
+package com.sieczk.comparators;
+
+/**
+ * Stages of comparisons reported to ComparisonListener, with the meaning of the size reported for each of them
+ */
+public enum ComparisonStage {
+    /**
+     * Resizing the compared image to the base image size. Size is the number of pixels of the resized image
+     */
+    RESIZE,
+
+    /**
+     * Compiling excluded areas into the mask skipped by the scan. Size is the number of excluded pixels
+     */
+    EXCLUSION_MASK,
+
+    /**
+     * Creating pixel accessors of both images. Size is the number of pixels of a single image
+     */
+    ACCESSOR_CREATION,
+
+    /**
+     * Scanning pixels of both images, including the parallel bands. Size is the number of pixels in scanned rows
+     */
+    PIXEL_LOOP,
+
+    /**
+     * Grouping mismatched pixels into areas. Size is the number of mismatched pixels
+     */
+    GROUP_MISMATCHES,
+
+    /**
+     * Copying the compared image into the output image. Size is the number of pixels of the copy
+     */
+    DEEP_COPY,
+
+    /**
+     * Marking mismatches and excluded areas in the output image, including grouping of mismatches when they are outlined.
+     * Size is the number of mismatched pixels
+     */
+    MARK,
+
+    /**
+     * Getting luminosity of both images for SSIM, close to zero when it is cached in prepared images.
+     * Size is the number of pixels of a single image
+     */
+    LUMINOSITY,
+
+    /**
+     * Convolving luminosity and squared luminosity of a single image for SSIM. Reported only when they are not cached
+     * in the prepared image. Size is the number of pixels of the image
+     */
+    WEIGHTED_MOMENTS,
+
+    /**
+     * Convolving the product of both images and averaging SSIM of all windows. Size is the number of pixels of a single image
+     */
+    SSIM_MAP,
+
+    /**
+     * Hashing a single image. Reported only when the hash is not cached in the prepared image.
+     * Size is the number of pixels of the image
+     */
+    HASH
+}
@@ -1,11 +1,21 @@
 package com.sieczk.comparators;
 
 import com.sieczk.analyzers.direct.*;
+import com.sieczk.utils.BandImageReader;
+import com.sieczk.utils.BandedImage;
 import com.sieczk.utils.ImageUtil;
-import org.sieczk.analyzers.direct.*;
+import com.sieczk.utils.PreparedImage;
 import com.sieczk.analyzers.direct.ExcludedAreas;
+import com.sieczk.jfr.ComparisonEvent;
 
+import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 
 public class DirectComparator extends BaseComparator {
@@ -17,6 +27,7 @@ public class DirectComparator extends BaseComparator {
 
 
     public DirectComparator(DirectComparatorConfig config) {
+        super(config);
         this.config = config;
 
         this.mismatchesPercentageThreshold = config.getMismatchedPercentageThreshold();
@@ -38,6 +49,20 @@ public class DirectComparator extends BaseComparator {
     }
 
     public DirectComparisonResult compare(BufferedImage baseImage, BufferedImage comparedImage, ExcludedAreas excludedAreas) {
+        return compare(baseImage, comparedImage, excludedAreas, null);
+    }
+
+    /**
+     * Compares images skipping tiles with unchanged fingerprints.
+     * Fingerprints of the base image can be calculated once and reused for every image compared against it
+     *
+     * @param baseFingerprints fingerprints of the base image, calculated with TileFingerprints.of()
+     */
+    public DirectComparisonResult compare(BufferedImage baseImage, BufferedImage comparedImage,
+                                          ExcludedAreas excludedAreas, TileFingerprints baseFingerprints) {
+        ComparisonEvent event = new ComparisonEvent();
+        event.begin();
+
         DirectAnalyzer analyzer = new DirectAnalyzer(config);
 
         BufferedImage checkedComparedImage = handleInputComparedImage(
@@ -47,24 +72,82 @@ public class DirectComparator extends BaseComparator {
                 assureImageSize
         );
 
-        Mismatches mismatches = analyzer.compare(baseImage, checkedComparedImage);
-        mismatches.excludeResults(excludedAreas);
+        int startRow = ImageUtil.findFirstDifferentRow(baseImage, checkedComparedImage);
+        boolean collectStatistics = config.isCollectStatistics() && !config.isVerdictOnly();
 
-        BufferedImage resultsImage = null;
+        if (startRow == baseImage.getHeight()) {
+            DistanceStatistics statistics = collectStatistics
+                    ? analyzer.collectStatistics(baseImage, checkedComparedImage, excludedAreas, startRow, baseFingerprints, null)
+                    : null;
 
-        if(config.isProduceOutputImage() ) {
-            ImageMarker imageMarker = new ImageMarker(config);
-            resultsImage = ImageUtil.deepCopy(comparedImage);
-            resultsImage = imageMarker.mark(resultsImage, mismatches);
-            resultsImage = imageMarker.mark(resultsImage, excludedAreas);
+            return commitEvent(event, "direct", baseImage, identicalImagesResult(baseImage, comparedImage, excludedAreas, statistics), 0);
+        }
+
+        if (config.isVerdictOnly()) {
+            int mismatchesLimit = getMismatchesLimit(baseImage);
+            int mismatchesCount = analyzer.countMismatches(baseImage, checkedComparedImage, excludedAreas, mismatchesLimit, startRow, baseFingerprints);
+
+            return commitEvent(event, "direct", baseImage, new DirectComparisonResult(null, mismatchesCount < mismatchesLimit), mismatchesCount);
+        }
+
+        if (collectStatistics) {
+            DirectComparisonResult result = compareWithStatistics(analyzer, baseImage, comparedImage, checkedComparedImage, excludedAreas, startRow, baseFingerprints);
+            return commitEvent(event, "direct", baseImage, result, result.getStatistics().getMismatchesCount());
         }
 
+        Mismatches mismatches = analyzer.compare(baseImage, checkedComparedImage, excludedAreas, startRow, baseFingerprints);
+
+        BufferedImage resultsImage = config.isProduceOutputImage()
+                ? createOutputImage(comparedImage, mismatches, excludedAreas)
+                : null;
+
         boolean isMatching = isBelowMismatchThreshold(baseImage, mismatches);
 
-        return new DirectComparisonResult(
+        return commitEvent(event, "direct", baseImage, new DirectComparisonResult(
                 resultsImage,
                 isMatching
-        );
+        ), mismatches.getMismatchesCount());
+    }
+
+    public DirectComparisonResult compare(PreparedImage baseImage, BufferedImage comparedImage) {
+        return compare(baseImage, comparedImage, new ExcludedAreas());
+    }
+
+    /**
+     * Compares the compared image with the prepared base image. If fingerprintTileSize is set,
+     * fingerprints of the base image are calculated once and cached in it, so only the compared image
+     * is fingerprinted by every comparison
+     */
+    public DirectComparisonResult compare(PreparedImage baseImage, BufferedImage comparedImage, ExcludedAreas excludedAreas) {
+        int tileSize = config.getFingerprintTileSize();
+
+        TileFingerprints baseFingerprints = tileSize > 0
+                ? baseImage.getDerived(new FingerprintsKey(tileSize), image -> TileFingerprints.of(image.getImage(), tileSize))
+                : null;
+
+        return compare(baseImage.getImage(), comparedImage, excludedAreas, baseFingerprints);
+    }
+
+    public List<DirectComparisonResult> compareAll(BufferedImage baseImage, List<BufferedImage> comparedImages) {
+        return compareAll(baseImage, comparedImages, new ExcludedAreas());
+    }
+
+    public List<DirectComparisonResult> compareAll(BufferedImage baseImage, List<BufferedImage> comparedImages, ExcludedAreas excludedAreas) {
+        return compareAll(new PreparedImage(baseImage), comparedImages, excludedAreas, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Compares every image with the same base image. Base image fingerprints and excluded areas mask are prepared once,
+     * and compared images are spread across the executor threads.<p>
+     * With parallelism above 1 every comparison waits for its row bands, so the executor should not be the one
+     * set in the config for bands, unless it is a ForkJoinPool
+     *
+     * @param executor executor running comparisons of single images
+     * @return results in the order of compared images
+     */
+    public List<DirectComparisonResult> compareAll(PreparedImage baseImage, List<BufferedImage> comparedImages,
+                                                   ExcludedAreas excludedAreas, Executor executor) {
+        return compareAll(comparedImages, comparedImage -> compare(baseImage, comparedImage, excludedAreas), executor);
     }
 
     public DirectComparisonResult fastCompare(BufferedImage actualImage, BufferedImage checkedImage) {
@@ -76,6 +159,9 @@ public class DirectComparator extends BaseComparator {
     }
 
     public DirectComparisonResult fastCompare(BufferedImage baseImage, BufferedImage comparedImage, ExcludedAreas excludedAreas) {
+        ComparisonEvent event = new ComparisonEvent();
+        event.begin();
+
         DirectAnalyzer analyzer = new DirectAnalyzer(config);
 
         BufferedImage checkedComparedImage = handleInputComparedImage(
@@ -85,30 +171,264 @@ public class DirectComparator extends BaseComparator {
                 assureImageSize
         );
 
-        Mismatches mismatches = analyzer.compareEveryNth(baseImage, checkedComparedImage);
-        mismatches.excludeResults(excludedAreas);
+        int startRow = ImageUtil.findFirstDifferentRow(baseImage, checkedComparedImage);
+        if (startRow == baseImage.getHeight()) {
+            return commitEvent(event, "direct-fast", baseImage, identicalImagesResult(baseImage, comparedImage, excludedAreas, null), 0);
+        }
 
-        BufferedImage resultsImage = null;
+        if (config.isVerdictOnly()) {
+            int mismatchesLimit = getMismatchesLimit(baseImage);
+            int mismatchesCount = analyzer.countMismatchesFast(baseImage, checkedComparedImage, excludedAreas, mismatchesLimit, startRow);
 
-        if(config.isProduceOutputImage() ) {
-            ImageMarker imageMarker = new ImageMarker(config);
-            resultsImage = ImageUtil.deepCopy(comparedImage);
-            resultsImage = imageMarker.mark(resultsImage, mismatches);
-            resultsImage = imageMarker.mark(resultsImage, excludedAreas);
+            return commitEvent(event, "direct-fast", baseImage, new DirectComparisonResult(null, mismatchesCount < mismatchesLimit), mismatchesCount);
         }
 
+        Mismatches mismatches = analyzer.compareFast(baseImage, checkedComparedImage, excludedAreas, startRow);
+
+        BufferedImage resultsImage = config.isProduceOutputImage()
+                ? createOutputImage(comparedImage, mismatches, excludedAreas)
+                : null;
+
         boolean isMatching = isBelowMismatchThreshold(baseImage, mismatches);
 
-        return new DirectComparisonResult(
+        return commitEvent(event, "direct-fast", baseImage, new DirectComparisonResult(
                 resultsImage,
                 isMatching
-        );
+        ), mismatches.getMismatchesCount());
+    }
+
+    public DirectComparisonResult fastCompare(PreparedImage baseImage, BufferedImage comparedImage) {
+        return fastCompare(baseImage.getImage(), comparedImage, new ExcludedAreas());
+    }
+
+    public DirectComparisonResult fastCompare(PreparedImage baseImage, BufferedImage comparedImage, ExcludedAreas excludedAreas) {
+        return fastCompare(baseImage.getImage(), comparedImage, excludedAreas);
+    }
+
+    public StreamedComparisonResult compareStreamed(File baseFile, File comparedFile) throws IOException {
+        return compareStreamed(baseFile, comparedFile, new ExcludedAreas(), null, null);
+    }
+
+    public StreamedComparisonResult compareStreamed(File baseFile, File comparedFile, ExcludedAreas excludedAreas) throws IOException {
+        return compareStreamed(baseFile, comparedFile, excludedAreas, null, null);
+    }
+
+    /**
+     * Compares image files band by band, without decoding whole images. Only a band of each image
+     * and the mismatches summary are held in memory, so images larger than the heap can be compared.
+     * Bands are compared the same way as whole images in compare(), so the results are the same.<p>
+     * Output image is written band by band as well. Bands of the compared file are decoded again
+     * and marked with mismatches groups of the whole image, so the file is read twice
+     * and the base file is read twice too if mismatches are painted over.
+     * Both images must have the same size, they are never resized
+     *
+     * @param outputFile file receiving the output image, or null if no output should be written
+     * @param outputFormat informal name of the output format, e.g. "png" or "tiff"
+     */
+    public StreamedComparisonResult compareStreamed(File baseFile, File comparedFile, ExcludedAreas excludedAreas,
+                                                    File outputFile, String outputFormat) throws IOException {
+        ComparisonEvent event = new ComparisonEvent();
+        event.begin();
+
+        DirectAnalyzer analyzer = new DirectAnalyzer(config);
+        int bandHeight = config.getStreamingBandHeight();
+
+        try (BandImageReader baseReader = new BandImageReader(baseFile);
+             BandImageReader comparedReader = new BandImageReader(comparedFile)) {
+
+            int width = baseReader.getWidth();
+            int height = baseReader.getHeight();
+
+            if (comparedReader.getWidth() != width || comparedReader.getHeight() != height)
+                throw new IllegalArgumentException("Compared image should have the same size");
+
+            long mismatchesLimit = getMismatchesLimit((long) width * height);
+            StreamedMismatches streamedMismatches = new StreamedMismatches(width, height, config.getMismatchesGroupingRadius());
+            int limitedCount = 0;
+
+            for (int fromRow = 0; fromRow < height; fromRow += bandHeight) {
+                int toRow = Math.min(height, fromRow + bandHeight);
+
+                BufferedImage baseBand = baseReader.readBand(fromRow, toRow);
+                BufferedImage comparedBand = comparedReader.readBand(fromRow, toRow);
+                ExcludedAreas bandExclusions = excludedAreas.clipToBand(fromRow, toRow, width);
+                int startRow = ImageUtil.findFirstDifferentRow(baseBand, comparedBand);
+
+                if (config.isVerdictOnly()) {
+                    int bandLimit = (int) Math.min(Integer.MAX_VALUE, mismatchesLimit - limitedCount);
+                    limitedCount += analyzer.countMismatches(baseBand, comparedBand, bandExclusions, bandLimit, startRow);
+
+                    if (limitedCount >= mismatchesLimit) break;
+                } else {
+                    streamedMismatches.addBand(analyzer.compare(baseBand, comparedBand, bandExclusions, startRow, null), fromRow);
+                }
+            }
+
+            if (config.isVerdictOnly()) {
+                return commitEvent(event, width, height,
+                        new StreamedComparisonResult(limitedCount < mismatchesLimit, limitedCount, List.of()));
+            }
+
+            long groupingStart = ComparisonListener.start(listener);
+            List<MismatchesGroup> groups = streamedMismatches.groupMismatches();
+            ComparisonListener.finish(listener, ComparisonStage.GROUP_MISMATCHES, groupingStart, streamedMismatches.getMismatchesCount());
+
+            if (outputFile != null && config.isProduceOutputImage()) {
+                writeStreamedOutput(baseReader, comparedReader, excludedAreas, groups, outputFile, outputFormat);
+            }
+
+            return commitEvent(event, width, height, new StreamedComparisonResult(
+                    streamedMismatches.getMismatchesCount() < mismatchesLimit,
+                    streamedMismatches.getMismatchesCount(),
+                    groups
+            ));
+        }
+    }
+
+    /**
+     * Writes the compared image with marked mismatches and excluded areas. Bands are rendered
+     * only when the image writer requests their rows
+     */
+    private void writeStreamedOutput(BandImageReader baseReader, BandImageReader comparedReader, ExcludedAreas excludedAreas,
+                                     List<MismatchesGroup> groups, File outputFile, String outputFormat) throws IOException {
+        DirectAnalyzer analyzer = new DirectAnalyzer(config);
+        ImageMarker imageMarker = new ImageMarker(config);
+        boolean paintOver = config.getMismatchedAreasMarking() == MarkingType.PAINT_OVER;
+        int width = comparedReader.getWidth();
+
+        BandedImage outputImage = new BandedImage(width, comparedReader.getHeight(), config.getStreamingBandHeight(), (fromRow, toRow) -> {
+            BufferedImage band = comparedReader.readBand(fromRow, toRow);
+            ExcludedAreas bandExclusions = excludedAreas.clipToBand(fromRow, toRow, width);
+
+            Mismatches bandMismatches = paintOver
+                    ? analyzer.compare(baseReader.readBand(fromRow, toRow), band, bandExclusions)
+                    : null;
+
+            imageMarker.mark(band, fromRow, bandMismatches, groups);
+            return imageMarker.mark(band, fromRow, excludedAreas);
+        });
+
+        try {
+            if (!ImageIO.write(outputImage, outputFormat, outputFile))
+                throw new IOException("No image writer found for format " + outputFormat);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Compares images collecting distances statistics in the same pass.
+     * Mismatches are stored only if the output image is produced
+     */
+    private DirectComparisonResult compareWithStatistics(DirectAnalyzer analyzer, BufferedImage baseImage, BufferedImage comparedImage,
+                                                         BufferedImage checkedComparedImage, ExcludedAreas excludedAreas,
+                                                         int startRow, TileFingerprints baseFingerprints) {
+        Mismatches mismatches = config.isProduceOutputImage()
+                ? new Mismatches(baseImage.getWidth(), baseImage.getHeight(), config.getMismatchesGroupingRadius())
+                : null;
+
+        DistanceStatistics statistics = analyzer.collectStatistics(
+                baseImage, checkedComparedImage, excludedAreas, startRow, baseFingerprints, mismatches);
+
+        BufferedImage resultsImage = mismatches != null
+                ? createOutputImage(comparedImage, mismatches, excludedAreas)
+                : null;
+
+        boolean isMatching = statistics.getMismatchesCount() < getMismatchesLimit(baseImage);
+
+        return new DirectComparisonResult(resultsImage, isMatching, statistics);
+    }
+
+    /**
+     * Builds the result for images with identical rasters without comparing pixels.
+     * Output image is produced only if requested and contains just the excluded areas
+     */
+    private DirectComparisonResult identicalImagesResult(BufferedImage baseImage, BufferedImage comparedImage,
+                                                         ExcludedAreas excludedAreas, DistanceStatistics statistics) {
+        BufferedImage resultsImage = null;
+
+        if (config.isProduceOutputImage() && !config.isVerdictOnly()) {
+            resultsImage = createOutputImage(comparedImage, null, excludedAreas);
+        }
+
+        return new DirectComparisonResult(resultsImage, 0 < getMismatchesLimit(baseImage), statistics);
+    }
+
+    /**
+     * Copies the compared image and marks mismatches and excluded areas on the copy
+     *
+     * @param mismatches mismatches to mark, or null if only excluded areas are marked
+     */
+    private BufferedImage createOutputImage(BufferedImage comparedImage, Mismatches mismatches, ExcludedAreas excludedAreas) {
+        long start = ComparisonListener.start(listener);
+        BufferedImage resultsImage = ImageUtil.deepCopy(comparedImage);
+        ComparisonListener.finish(listener, ComparisonStage.DEEP_COPY, start, (long) comparedImage.getWidth() * comparedImage.getHeight());
+
+        start = ComparisonListener.start(listener);
+        ImageMarker imageMarker = new ImageMarker(config);
+        if (mismatches != null) {
+            resultsImage = imageMarker.mark(resultsImage, mismatches);
+        }
+        resultsImage = imageMarker.mark(resultsImage, excludedAreas);
+        ComparisonListener.finish(listener, ComparisonStage.MARK, start, mismatches != null ? mismatches.getMismatchesCount() : 0);
+
+        return resultsImage;
+    }
+
+    /**
+     * Records the comparison in JFR if the event is enabled
+     *
+     * @return the result as is
+     */
+    private DirectComparisonResult commitEvent(ComparisonEvent event, String algorithm, BufferedImage baseImage,
+                                               DirectComparisonResult result, long mismatchesCount) {
+        if (event.shouldCommit()) {
+            event.algorithm = algorithm;
+            event.colorSpace = config.getColorSpace().name();
+            event.width = baseImage.getWidth();
+            event.height = baseImage.getHeight();
+            event.mismatchesCount = mismatchesCount;
+            event.matching = result.getIsMatching();
+            event.commit();
+        }
+        return result;
+    }
+
+    private StreamedComparisonResult commitEvent(ComparisonEvent event, int width, int height, StreamedComparisonResult result) {
+        if (event.shouldCommit()) {
+            event.algorithm = "direct-streamed";
+            event.colorSpace = config.getColorSpace().name();
+            event.width = width;
+            event.height = height;
+            event.mismatchesCount = result.getMismatchesCount();
+            event.matching = result.getIsMatching();
+            event.commit();
+        }
+        return result;
     }
 
     private boolean isBelowMismatchThreshold(BufferedImage actualImage, Mismatches mismatches) {
-        int imageSize = actualImage.getWidth() * actualImage.getHeight();
-        int mismatchesCount = mismatches.getMismatchesCount();
+        return mismatches.getMismatchesCount() < getMismatchesLimit(actualImage);
+    }
+
+    /**
+     * Calculates the lowest mismatches count at which the image is no longer matching,
+     * i.e. the smallest count for which (count * 100 / imageSize) reaches the percentage threshold
+     *
+     * @param actualImage image which size is the reference for the percentage
+     * @return mismatches count limit
+     */
+    private int getMismatchesLimit(BufferedImage actualImage) {
+        return (int) getMismatchesLimit((long) actualImage.getWidth() * actualImage.getHeight());
+    }
+
+    private long getMismatchesLimit(long imageSize) {
+        return (mismatchesPercentageThreshold * imageSize + 99) / 100;
+    }
 
-        return mismatchesPercentageThreshold > mismatchesCount*100/imageSize;
+    /**
+     * Identifies tile fingerprints cached in prepared images
+     */
+    private record FingerprintsKey(int tileSize) {
     }
 }
@@ -1,9 +1,11 @@
 package com.sieczk.comparators;
 
 import com.sieczk.analyzers.direct.ColorSpace;
+import com.sieczk.analyzers.direct.FastCompareStrategy;
 import com.sieczk.analyzers.direct.MarkingType;
 
 import java.awt.Color;
+import java.util.concurrent.Executor;
 
 public class DirectComparatorConfig extends BaseComparatorConfig {
 
@@ -18,6 +20,12 @@ public class DirectComparatorConfig extends BaseComparatorConfig {
      */
     private int colorDistanceThreshold = 1;
 
+    /**
+     * Should RGB and weighted RGB distances be calculated with Vector API kernels.
+     * Used only if jdk.incubator.vector module is added to the JVM, otherwise scalar kernel is used
+     */
+    private boolean vectorizedComparison = true;
+
     /**
      * Above what percent of mismatched pixels in the image, will the image be marked as mismatched
      */
@@ -28,6 +36,20 @@ public class DirectComparatorConfig extends BaseComparatorConfig {
      */
     private boolean produceOutputImage = true;
 
+    /**
+     * Should the comparison only return whether images are matching.
+     * Scanning stops as soon as the mismatched percentage threshold is reached,
+     * mismatches are not stored and no output image is produced
+     */
+    private boolean verdictOnly = false;
+
+    /**
+     * Should the comparison collect statistics of color distances: histogram, max and mean distance.
+     * Collected by compare() in the same pass as mismatches, if no output image is produced mismatches are not stored at all.
+     * Not collected by fastCompare() and in verdict only mode
+     */
+    private boolean collectStatistics = false;
+
     /**
      * How excluded areas are supposed to be marked in the output image
      */
@@ -65,11 +87,47 @@ public class DirectComparatorConfig extends BaseComparatorConfig {
      */
     private int pixelsSkipped = 0;
 
+    /**
+     * Works only with fastCompare method. EVERY_NTH compares a fixed grid of pixels set by pixelsSkipped.
+     * PYRAMID finds blocks in which any pixel differs by at least the lowest mismatched channel difference
+     * and compares pixel by pixel only these blocks, so isolated pixels, thin lines and text changes are still found
+     */
+    private FastCompareStrategy fastCompareStrategy = FastCompareStrategy.EVERY_NTH;
+
+    /**
+     * Works only with PYRAMID fast compare strategy. Size of square blocks refined pixel by pixel
+     * when any of their pixels differs enough
+     */
+    private int pyramidBlockSize = 8;
+
     /**
      * In what radius will the mismatches be grouped. Reduces number of separate areas found
      */
     private int mismatchesGroupingRadius = 3;
 
+    /**
+     * How many threads compare image row bands concurrently. If set to 1, comparison runs on the calling thread
+     */
+    private int parallelism = 1;
+
+    /**
+     * Executor running row bands when parallelism is above 1. If not set, common ForkJoinPool is used
+     */
+    private Executor executor = null;
+
+    /**
+     * Size of square tiles fingerprinted before the full comparison. Only tiles with different fingerprints
+     * are compared pixel by pixel. Must be a multiple of 64, if set to 0 every pixel is compared.
+     * Works only with full comparison, fastCompare always samples every n-th pixel
+     */
+    private int fingerprintTileSize = 0;
+
+    /**
+     * Works only with streamed comparison of image files. How many rows are decoded, compared and written at once.
+     * Peak memory is bounded by a few bands of this height instead of whole images
+     */
+    private int streamingBandHeight = 256;
+
 
     public ColorSpace getColorSpace() {
         return colorSpace;
@@ -92,6 +150,15 @@ public class DirectComparatorConfig extends BaseComparatorConfig {
         return this;
     }
 
+    public boolean isVectorizedComparison() {
+        return vectorizedComparison;
+    }
+
+    public DirectComparatorConfig vectorizedComparison(boolean vectorized) {
+        this.vectorizedComparison = vectorized;
+        return this;
+    }
+
     public int getMismatchedPercentageThreshold() {
         return mismatchedPercentageThreshold;
     }
@@ -113,6 +180,24 @@ public class DirectComparatorConfig extends BaseComparatorConfig {
         return this;
     }
 
+    public boolean isVerdictOnly() {
+        return verdictOnly;
+    }
+
+    public DirectComparatorConfig verdictOnly(boolean verdictOnly) {
+        this.verdictOnly = verdictOnly;
+        return this;
+    }
+
+    public boolean isCollectStatistics() {
+        return collectStatistics;
+    }
+
+    public DirectComparatorConfig collectStatistics(boolean collect) {
+        this.collectStatistics = collect;
+        return this;
+    }
+
     public MarkingType getExcludedAreasMarking() {
         return excludedAreasMarking;
     }
@@ -185,6 +270,27 @@ public class DirectComparatorConfig extends BaseComparatorConfig {
         return this;
     }
 
+    public FastCompareStrategy getFastCompareStrategy() {
+        return fastCompareStrategy;
+    }
+
+    public DirectComparatorConfig fastCompareStrategy(FastCompareStrategy strategy) {
+        this.fastCompareStrategy = strategy;
+        return this;
+    }
+
+    public int getPyramidBlockSize() {
+        return pyramidBlockSize;
+    }
+
+    public DirectComparatorConfig pyramidBlockSize(int size) {
+        if (size < 2 || size > 128)
+            throw new IllegalArgumentException("Pyramid block size must be between 2 and 128");
+
+        this.pyramidBlockSize = size;
+        return this;
+    }
+
     public int getMismatchesGroupingRadius() {
         return mismatchesGroupingRadius;
     }
@@ -197,4 +303,49 @@ public class DirectComparatorConfig extends BaseComparatorConfig {
         return this;
     }
 
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public DirectComparatorConfig parallelism(int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+
+        this.parallelism = threads;
+        return this;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public DirectComparatorConfig executor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    public int getFingerprintTileSize() {
+        return fingerprintTileSize;
+    }
+
+    public DirectComparatorConfig fingerprintTileSize(int size) {
+        if (size < 0 || size % 64 != 0)
+            throw new IllegalArgumentException("Fingerprint tile size must be 0 or a positive multiple of 64");
+
+        this.fingerprintTileSize = size;
+        return this;
+    }
+
+    public int getStreamingBandHeight() {
+        return streamingBandHeight;
+    }
+
+    public DirectComparatorConfig streamingBandHeight(int rows) {
+        if (rows < 1)
+            throw new IllegalArgumentException("Streaming band height must be at least 1");
+
+        this.streamingBandHeight = rows;
+        return this;
+    }
+
 }
@@ -1,14 +1,22 @@
 package com.sieczk.comparators;
 
+import com.sieczk.analyzers.direct.DistanceStatistics;
+
 import java.awt.image.BufferedImage;
 
 public class DirectComparisonResult {
     private BufferedImage resultImage;
     private boolean isMatching;
+    private DistanceStatistics statistics;
 
     public DirectComparisonResult(BufferedImage resultImage, boolean isMatching) {
+        this(resultImage, isMatching, null);
+    }
+
+    public DirectComparisonResult(BufferedImage resultImage, boolean isMatching, DistanceStatistics statistics) {
         this.resultImage = resultImage;
         this.isMatching = isMatching;
+        this.statistics = statistics;
     }
 
     public BufferedImage getResultImage() {
@@ -18,4 +26,11 @@ public class DirectComparisonResult {
     public boolean getIsMatching() {
         return isMatching;
     }
+
+    /**
+     * @return statistics of color distances, or null if they were not collected
+     */
+    public DistanceStatistics getStatistics() {
+        return statistics;
+    }
 }
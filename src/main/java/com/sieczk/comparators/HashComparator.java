@@ -1,13 +1,18 @@
 package com.sieczk.comparators;
 
-import com.sieczk.utils.HashUtil;
+import com.sieczk.jfr.ComparisonEvent;
+import com.sieczk.jfr.HashEvent;
 import com.sieczk.analyzers.hash.AHashAnalyzer;
 import com.sieczk.analyzers.hash.DHashAnalyzer;
+import com.sieczk.analyzers.hash.ImageHash;
 import com.sieczk.analyzers.hash.PHashAnalyzer;
 import com.sieczk.analyzers.hash.WHashAnalyzer;
+import com.sieczk.utils.PreparedImage;
 
 import java.awt.image.BufferedImage;
-import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 
 
@@ -18,6 +23,7 @@ public class HashComparator extends BaseComparator{
     private final boolean assureImageSize;
 
     public HashComparator(HashComparatorConfig config) {
+        super(config);
         this.enforceImageSize = config.isEnforceImageSize();
         this.assureImageSize = config.isAssureImageSize();
 
@@ -29,59 +35,153 @@ public class HashComparator extends BaseComparator{
         this(new HashComparatorConfig());
     }
 
-    private double compare(BufferedImage baseImage, BufferedImage comparedImage, Function<BufferedImage, BitSet> hash) {
-        BufferedImage checkedComparedImage = handleInputComparedImage(
+    /**
+     * Hashes are cached in prepared images under the key of their algorithm and its parameter,
+     * so every image is hashed once no matter how many images it is compared with
+     */
+    private double compare(PreparedImage baseImage, PreparedImage comparedImage, HashKey key, Function<PreparedImage, ImageHash> hash) {
+        ComparisonEvent event = new ComparisonEvent();
+        event.begin();
+
+        PreparedImage checkedComparedImage = handleInputComparedImage(
                 baseImage,
                 comparedImage,
                 enforceImageSize,
                 assureImageSize
         );
 
-        BitSet actualHash = hash.apply(baseImage);
-        BitSet checkedHash = hash.apply(checkedComparedImage);
-        int hammingDistance = HashUtil.calculateHammingDistance(actualHash, checkedHash);
-
-        return HashUtil.calculateSimilarity(hammingDistance, actualHash.size());
+        Function<PreparedImage, ImageHash> timedHash = image -> {
+            HashEvent hashEvent = new HashEvent();
+            hashEvent.begin();
+            long start = ComparisonListener.start(listener);
+
+            ImageHash imageHash = hash.apply(image);
+
+            ComparisonListener.finish(listener, ComparisonStage.HASH, start, (long) image.getWidth() * image.getHeight());
+            if (hashEvent.shouldCommit()) {
+                hashEvent.algorithm = key.algorithm();
+                hashEvent.width = image.getWidth();
+                hashEvent.height = image.getHeight();
+                hashEvent.commit();
+            }
+            return imageHash;
+        };
+
+        ImageHash actualHash = baseImage.getDerived(key, timedHash);
+        ImageHash checkedHash = checkedComparedImage.getDerived(key, timedHash);
+
+        double similarity = actualHash.similarity(checkedHash);
+
+        if (event.shouldCommit()) {
+            event.algorithm = key.algorithm();
+            event.width = baseImage.getWidth();
+            event.height = baseImage.getHeight();
+            event.similarity = similarity;
+            event.commit();
+        }
+        return similarity;
     }
 
 
     public double comparePHash(BufferedImage actual, BufferedImage checked) {
+        return comparePHash(new PreparedImage(actual), new PreparedImage(checked));
+    }
+
+    public double comparePHash(PreparedImage actual, PreparedImage checked) {
         PHashAnalyzer analyzer = new PHashAnalyzer();
 
         return compare(
                 actual,
                 checked,
-                analyzer::pHash
+                new HashKey("pHash", 0),
+                image -> analyzer.pHash(image.getImage())
         );
     }
 
     public double compareWHash(BufferedImage actual, BufferedImage checked) {
+        return compareWHash(new PreparedImage(actual), new PreparedImage(checked));
+    }
+
+    public double compareWHash(PreparedImage actual, PreparedImage checked) {
         WHashAnalyzer analyzer = new WHashAnalyzer(config.getHashSizeCoefficient());
 
         return compare(
                 actual,
                 checked,
-                analyzer::wHash
+                new HashKey("wHash", config.getHashSizeCoefficient()),
+                image -> analyzer.wHash(image.getImage())
         );
     }
 
     public double compareAHash(BufferedImage actual, BufferedImage checked) {
+        return compareAHash(new PreparedImage(actual), new PreparedImage(checked));
+    }
+
+    public double compareAHash(PreparedImage actual, PreparedImage checked) {
         AHashAnalyzer analyzer = new AHashAnalyzer();
 
         return compare(
                 actual,
                 checked,
+                new HashKey("aHash", 0),
                 analyzer::aHash
         );
     }
 
     public double compareDHash(BufferedImage actual, BufferedImage checked) {
+        return compareDHash(new PreparedImage(actual), new PreparedImage(checked));
+    }
+
+    public double compareDHash(PreparedImage actual, PreparedImage checked) {
         DHashAnalyzer analyzer = new DHashAnalyzer();
 
         return compare(
                 actual,
                 checked,
+                new HashKey("dHash", 0),
                 analyzer::dHash
         );
     }
+
+    public List<Double> compareAllPHash(BufferedImage actual, List<BufferedImage> checked) {
+        return compareAllPHash(new PreparedImage(actual), checked, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Compares every image with the same base image, which is hashed only once.
+     * Compared images are spread across the executor threads
+     *
+     * @param executor executor running comparisons of single images
+     * @return similarities in the order of compared images
+     */
+    public List<Double> compareAllPHash(PreparedImage actual, List<BufferedImage> checked, Executor executor) {
+        return compareAll(checked, image -> comparePHash(actual, new PreparedImage(image)), executor);
+    }
+
+    public List<Double> compareAllWHash(BufferedImage actual, List<BufferedImage> checked) {
+        return compareAllWHash(new PreparedImage(actual), checked, ForkJoinPool.commonPool());
+    }
+
+    public List<Double> compareAllWHash(PreparedImage actual, List<BufferedImage> checked, Executor executor) {
+        return compareAll(checked, image -> compareWHash(actual, new PreparedImage(image)), executor);
+    }
+
+    public List<Double> compareAllAHash(BufferedImage actual, List<BufferedImage> checked) {
+        return compareAllAHash(new PreparedImage(actual), checked, ForkJoinPool.commonPool());
+    }
+
+    public List<Double> compareAllAHash(PreparedImage actual, List<BufferedImage> checked, Executor executor) {
+        return compareAll(checked, image -> compareAHash(actual, new PreparedImage(image)), executor);
+    }
+
+    public List<Double> compareAllDHash(BufferedImage actual, List<BufferedImage> checked) {
+        return compareAllDHash(new PreparedImage(actual), checked, ForkJoinPool.commonPool());
+    }
+
+    public List<Double> compareAllDHash(PreparedImage actual, List<BufferedImage> checked, Executor executor) {
+        return compareAll(checked, image -> compareDHash(actual, new PreparedImage(image)), executor);
+    }
+
+    private record HashKey(String algorithm, double parameter) {
+    }
 }
@@ -1,8 +1,14 @@
 package com.sieczk.comparators;
 
 import com.sieczk.analyzers.ssim.SSIMAnalyzer;
+import com.sieczk.jfr.ComparisonEvent;
+import com.sieczk.utils.ImageUtil;
+import com.sieczk.utils.PreparedImage;
 
 import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 public class SSIMComparator extends BaseComparator {
     private final SSIMAnalyzer analyzer;
@@ -11,6 +17,7 @@ public class SSIMComparator extends BaseComparator {
     private final boolean assureImageSize;
 
     public SSIMComparator(SSIMComparatorConfig config) {
+        super(config);
         this.enforceImageSize = config.isEnforceImageSize();
         this.assureImageSize = config.isAssureImageSize();
 
@@ -22,14 +29,51 @@ public class SSIMComparator extends BaseComparator {
     }
 
     public double compare(BufferedImage baseImage, BufferedImage comparedImage) {
-        BufferedImage checkedComparedImage = handleInputComparedImage(
+        return compare(new PreparedImage(baseImage), new PreparedImage(comparedImage));
+    }
+
+    /**
+     * Compares prepared images, reusing luminosity and weighted means cached by previous comparisons
+     */
+    public double compare(PreparedImage baseImage, PreparedImage comparedImage) {
+        ComparisonEvent event = new ComparisonEvent();
+        event.begin();
+
+        PreparedImage checkedComparedImage = handleInputComparedImage(
                 baseImage,
                 comparedImage,
                 enforceImageSize,
                 assureImageSize
         );
 
-        return analyzer.calculateImagesSSIM(baseImage, checkedComparedImage);
+        // Images with identical rasters always have the perfect score
+        double similarity = ImageUtil.findFirstDifferentRow(baseImage.getImage(), checkedComparedImage.getImage()) == baseImage.getHeight()
+                ? 1.0
+                : analyzer.calculateImagesSSIM(baseImage, checkedComparedImage);
+
+        if (event.shouldCommit()) {
+            event.algorithm = "ssim";
+            event.width = baseImage.getWidth();
+            event.height = baseImage.getHeight();
+            event.similarity = similarity;
+            event.commit();
+        }
+        return similarity;
+    }
+
+    public List<Double> compareAll(BufferedImage baseImage, List<BufferedImage> comparedImages) {
+        return compareAll(new PreparedImage(baseImage), comparedImages, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Compares every image with the same base image. Base image luminosity and weighted means are calculated once,
+     * and compared images are spread across the executor threads
+     *
+     * @param executor executor running comparisons of single images
+     * @return SSIM scores in the order of compared images
+     */
+    public List<Double> compareAll(PreparedImage baseImage, List<BufferedImage> comparedImages, Executor executor) {
+        return compareAll(comparedImages, comparedImage -> compare(baseImage, new PreparedImage(comparedImage)), executor);
     }
 
 }
@@ -0,0 +1,34 @@
+package com.sieczk.comparators;
+
+import com.sieczk.analyzers.direct.MismatchesGroup;
+
+import java.util.List;
+
+/**
+ * Result of image files compared band by band. Output image is never held in memory,
+ * it is written to the output file instead, so only the mismatches summary is returned
+ */
+public class StreamedComparisonResult extends DirectComparisonResult {
+    private final int mismatchesCount;
+    private final List<MismatchesGroup> mismatchesGroups;
+
+    public StreamedComparisonResult(boolean isMatching, int mismatchesCount, List<MismatchesGroup> mismatchesGroups) {
+        super(null, isMatching);
+        this.mismatchesCount = mismatchesCount;
+        this.mismatchesGroups = mismatchesGroups;
+    }
+
+    /**
+     * @return number of mismatched pixels. In verdict only mode counting stops at the mismatches limit
+     */
+    public int getMismatchesCount() {
+        return mismatchesCount;
+    }
+
+    /**
+     * @return bounding boxes of mismatches groups. Empty in verdict only mode
+     */
+    public List<MismatchesGroup> getMismatchesGroups() {
+        return mismatchesGroups;
+    }
+}
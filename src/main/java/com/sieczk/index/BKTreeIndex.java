@@ -0,0 +1,451 @@
+package com.sieczk.index;
+
+import com.sieczk.analyzers.hash.ImageHash;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * BK-tree of image hashes. Every child of a node is at the same Hamming distance from the node as all entries
+ * in the child subtree, so by the triangle inequality a query at distance d from a node visits only children
+ * with distances from d - radius to d + radius, instead of comparing the hash with every entry.<p>
+ * Nodes are stored in parallel arrays, children of a node form a linked list of siblings, so an entry costs
+ * three ints and two references. Entries identical to a node form a chain below it, so duplicates are neither
+ * partitioned nor walked when added. build() creates the same tree as inserting entries one by one,
+ * up to the order of duplicates, but partitions entries by their distance to subtree roots,
+ * building large subtrees in parallel.<p>
+ * Queries run concurrently with each other, additions wait for running queries
+ *
+ * @param <T> type of values stored with hashes
+ */
+public class BKTreeIndex<T> implements HashIndex<T> {
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Subtrees with more entries than this are built by separate fork join tasks
+     */
+    private static final int PARALLEL_BUILD_THRESHOLD = 1 << 15;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Node i holds hashes[i] and values[i], the root is node 0
+    private ImageHash[] hashes;
+    private Object[] values;
+    private int[] firstChild;
+    private int[] nextSibling;
+    private int[] parentDistance;
+    private int size;
+
+
+    public BKTreeIndex() {
+        this(INITIAL_CAPACITY);
+    }
+
+    private BKTreeIndex(int capacity) {
+        this.hashes = new ImageHash[capacity];
+        this.values = new Object[capacity];
+        this.firstChild = new int[capacity];
+        this.nextSibling = new int[capacity];
+        this.parentDistance = new int[capacity];
+        Arrays.fill(firstChild, NONE);
+        Arrays.fill(nextSibling, NONE);
+    }
+
+    /**
+     * Builds index of many entries at once on the common ForkJoinPool
+     *
+     * @param hashes hashes of entries
+     * @param values values of entries, in the order of hashes
+     */
+    public static <T> BKTreeIndex<T> build(List<ImageHash> hashes, List<T> values) {
+        if (hashes.size() != values.size())
+            throw new IllegalArgumentException("Every hash must have a value");
+
+        int count = hashes.size();
+        BKTreeIndex<T> index = new BKTreeIndex<>(Math.max(count, INITIAL_CAPACITY));
+
+        int node = 0;
+        for (ImageHash hash : hashes) {
+            if (hash == null)
+                throw new IllegalArgumentException("Hashes cannot be null");
+            index.hashes[node++] = hash;
+        }
+        node = 0;
+        for (T value : values) {
+            index.values[node++] = value;
+        }
+
+        if (count > 1) {
+            BuildBuffers buffers = new BuildBuffers(count);
+            ForkJoinPool.commonPool().invoke(index.new BuildTask(buffers, 0, count));
+        }
+        index.size = count;
+
+        return index;
+    }
+
+    @Override
+    public void add(ImageHash hash, T value) {
+        if (hash == null)
+            throw new IllegalArgumentException("Hash cannot be null");
+
+        lock.writeLock().lock();
+        try {
+            ensureCapacity(size + 1);
+            int node = size;
+            hashes[node] = hash;
+            values[node] = value;
+
+            int current = 0;
+            while (node > 0) {
+                int distance = hashes[current].hammingDistance(hash);
+                int child = findChild(current, distance);
+
+                if (distance == 0 && child != NONE) {
+                    spliceDuplicate(current, child, node);
+                    break;
+                }
+                if (child == NONE) {
+                    parentDistance[node] = distance;
+                    nextSibling[node] = firstChild[current];
+                    firstChild[current] = node;
+                    break;
+                }
+                current = child;
+            }
+            size++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<HashMatch<T>> findWithin(ImageHash hash, int radius) {
+        if (radius < 0)
+            throw new IllegalArgumentException("Radius cannot be negative");
+
+        List<HashMatch<T>> matches = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            if (size == 0) return matches;
+
+            IntStack nodes = new IntStack();
+            nodes.push(0);
+
+            while (!nodes.isEmpty()) {
+                int node = nodes.pop();
+                int distance = hashes[node].hammingDistance(hash);
+                if (distance <= radius) {
+                    matches.add(match(node, distance));
+                }
+
+                for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+                    if (Math.abs(parentDistance[child] - distance) <= radius) {
+                        nodes.push(child);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort(Comparator.comparingInt(HashMatch::getDistance));
+        return matches;
+    }
+
+    /**
+     * Finds nearest entries, visiting subtrees in the order of the lowest possible distance of their entries
+     * and stopping once no subtree can contain entries closer than the farthest one found so far
+     */
+    @Override
+    public List<HashMatch<T>> findNearest(ImageHash hash, int count) {
+        if (count <= 0)
+            throw new IllegalArgumentException("Count must be positive");
+
+        PriorityQueue<HashMatch<T>> nearest = new PriorityQueue<>(Comparator.comparingInt(HashMatch<T>::getDistance).reversed());
+
+        lock.readLock().lock();
+        try {
+            if (size == 0) return new ArrayList<>();
+
+            // Stack at index b holds nodes whose subtree entries are at distance b or more, distances are bounded
+            // by the hash lengths, so this bucket queue replaces a priority queue of boxed nodes
+            List<IntStack> subtrees = new ArrayList<>();
+            subtrees.add(new IntStack());
+            subtrees.get(0).push(0);
+
+            for (int lowerBound = 0; lowerBound < subtrees.size(); lowerBound++) {
+                if (nearest.size() == count && lowerBound >= nearest.peek().getDistance()) break;
+
+                IntStack nodes = subtrees.get(lowerBound);
+                while (!nodes.isEmpty() && (nearest.size() < count || lowerBound < nearest.peek().getDistance())) {
+                    int node = nodes.pop();
+                    int distance = hashes[node].hammingDistance(hash);
+                    if (nearest.size() < count) {
+                        nearest.add(match(node, distance));
+                    } else if (distance < nearest.peek().getDistance()) {
+                        nearest.poll();
+                        nearest.add(match(node, distance));
+                    }
+
+                    for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+                        // Never lower than the bound of the parent subtree, so it is not pushed to an already drained stack
+                        int childBound = Math.max(lowerBound, Math.abs(parentDistance[child] - distance));
+                        if (nearest.size() == count && childBound >= nearest.peek().getDistance()) continue;
+
+                        while (subtrees.size() <= childBound) {
+                            subtrees.add(new IntStack());
+                        }
+                        subtrees.get(childBound).push(child);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<HashMatch<T>> matches = new ArrayList<>(nearest);
+        matches.sort(Comparator.comparingInt(HashMatch::getDistance));
+        return matches;
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private HashMatch<T> match(int node, int distance) {
+        return new HashMatch<>(hashes[node], (T) values[node], distance);
+    }
+
+    private int findChild(int node, int distance) {
+        for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+            if (parentDistance[child] == distance) return child;
+        }
+        return NONE;
+    }
+
+    /**
+     * Inserts node identical to its parent between the parent and the chain of its duplicates,
+     * so adding duplicates does not walk the whole chain
+     *
+     * @param duplicate child of the parent at distance 0
+     */
+    private void spliceDuplicate(int parent, int duplicate, int node) {
+        parentDistance[node] = 0;
+        nextSibling[node] = nextSibling[duplicate];
+        firstChild[node] = duplicate;
+        nextSibling[duplicate] = NONE;
+
+        if (firstChild[parent] == duplicate) {
+            firstChild[parent] = node;
+            return;
+        }
+
+        int sibling = firstChild[parent];
+        while (nextSibling[sibling] != duplicate) {
+            sibling = nextSibling[sibling];
+        }
+        nextSibling[sibling] = node;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= hashes.length) return;
+
+        int oldCapacity = hashes.length;
+        int newCapacity = Math.max(capacity, oldCapacity + (oldCapacity >> 1));
+        hashes = Arrays.copyOf(hashes, newCapacity);
+        values = Arrays.copyOf(values, newCapacity);
+        firstChild = Arrays.copyOf(firstChild, newCapacity);
+        nextSibling = Arrays.copyOf(nextSibling, newCapacity);
+        parentDistance = Arrays.copyOf(parentDistance, newCapacity);
+        Arrays.fill(firstChild, oldCapacity, newCapacity, NONE);
+        Arrays.fill(nextSibling, oldCapacity, newCapacity, NONE);
+    }
+
+    /**
+     * Scratch arrays shared by build tasks. Tasks work on disjoint ranges, so they never touch the same elements
+     */
+    private static class BuildBuffers {
+        final int[] distances;
+        final ImageHash[] hashes;
+        final Object[] values;
+
+        BuildBuffers(int count) {
+            this.distances = new int[count];
+            this.hashes = new ImageHash[count];
+            this.values = new Object[count];
+        }
+    }
+
+    /**
+     * Builds subtrees of entries in ranges of the node arrays. The first entry of a range becomes the subtree root,
+     * remaining entries are sorted by their distance to it, and every group of entries at the same distance
+     * becomes the range of a child subtree. Node of an entry is its final position in the arrays
+     */
+    private class BuildTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        // ForkJoinTask is Serializable, but build tasks are never serialized
+        private final transient BuildBuffers buffers;
+        private final int from;
+        private final int to;
+
+        BuildTask(BuildBuffers buffers, int from, int to) {
+            this.buffers = buffers;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            List<BuildTask> forked = new ArrayList<>();
+            IntStack ranges = new IntStack();
+            ranges.push(from);
+            ranges.push(to);
+
+            while (!ranges.isEmpty()) {
+                int rangeTo = ranges.pop();
+                int rangeFrom = ranges.pop();
+                int[] childStarts = partition(rangeFrom, rangeTo);
+
+                // The largest child is built by this task, so forked subtrees are at most half of the range
+                // and chains of duplicates do not nest tasks
+                int largestChild = 0;
+                for (int i = 1; i + 1 < childStarts.length; i++) {
+                    if (childStarts[i + 1] - childStarts[i] > childStarts[largestChild + 1] - childStarts[largestChild]) {
+                        largestChild = i;
+                    }
+                }
+
+                for (int i = 0; i + 1 < childStarts.length; i++) {
+                    int childFrom = childStarts[i];
+                    int childTo = childStarts[i + 1];
+                    if (childTo - childFrom < 2) continue;
+
+                    if (childTo - childFrom > PARALLEL_BUILD_THRESHOLD && i != largestChild) {
+                        BuildTask task = new BuildTask(buffers, childFrom, childTo);
+                        task.fork();
+                        forked.add(task);
+                    } else {
+                        ranges.push(childFrom);
+                        ranges.push(childTo);
+                    }
+                }
+            }
+
+            forked.forEach(BuildTask::join);
+        }
+
+        /**
+         * Links entries identical to the root of their range as a chain, each being the only child of the previous one.
+         * Every entry routed to them is at distance 0, so there is nothing to partition
+         */
+        private void linkDuplicates(int from, int to) {
+            for (int node = from; node + 1 < to; node++) {
+                firstChild[node] = node + 1;
+                parentDistance[node + 1] = 0;
+            }
+        }
+
+        /**
+         * Sorts entries following the range root by their distance to it and links the root with its children
+         *
+         * @return starts of child ranges to build, followed by the end of the range
+         */
+        private int[] partition(int rangeFrom, int rangeTo) {
+            ImageHash root = hashes[rangeFrom];
+            int[] distances = buffers.distances;
+            int maxDistance = 0;
+
+            for (int i = rangeFrom + 1; i < rangeTo; i++) {
+                distances[i] = root.hammingDistance(hashes[i]);
+                maxDistance = Math.max(maxDistance, distances[i]);
+            }
+
+            int[] positions = new int[maxDistance + 2];
+            for (int i = rangeFrom + 1; i < rangeTo; i++) {
+                positions[distances[i] + 1]++;
+            }
+            positions[0] = rangeFrom + 1;
+            for (int distance = 1; distance < positions.length; distance++) {
+                positions[distance] += positions[distance - 1];
+            }
+
+            int[] bucketStarts = Arrays.copyOf(positions, positions.length);
+            for (int i = rangeFrom + 1; i < rangeTo; i++) {
+                int position = positions[distances[i]]++;
+                buffers.hashes[position] = hashes[i];
+                buffers.values[position] = values[i];
+            }
+            System.arraycopy(buffers.hashes, rangeFrom + 1, hashes, rangeFrom + 1, rangeTo - rangeFrom - 1);
+            System.arraycopy(buffers.values, rangeFrom + 1, values, rangeFrom + 1, rangeTo - rangeFrom - 1);
+
+            int childCount = 0;
+            int[] childStarts = new int[bucketStarts.length];
+            int previousChild = NONE;
+
+            for (int distance = 0; distance <= maxDistance; distance++) {
+                int child = bucketStarts[distance];
+                if (child == bucketStarts[distance + 1]) continue;
+
+                parentDistance[child] = distance;
+                if (previousChild == NONE) {
+                    firstChild[rangeFrom] = child;
+                } else {
+                    nextSibling[previousChild] = child;
+                }
+                previousChild = child;
+
+                if (distance == 0) {
+                    linkDuplicates(child, bucketStarts[1]);
+                } else {
+                    childStarts[childCount++] = child;
+                }
+            }
+            childStarts[childCount++] = rangeTo;
+
+            return Arrays.copyOf(childStarts, childCount);
+        }
+    }
+
+    /**
+     * Growable stack of ints, so traversals do not box node numbers and do not recurse into deep chains of duplicates
+     */
+    private static class IntStack {
+        private int[] elements = new int[64];
+        private int size;
+
+        void push(int element) {
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, size * 2);
+            }
+            elements[size++] = element;
+        }
+
+        int pop() {
+            return elements[--size];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
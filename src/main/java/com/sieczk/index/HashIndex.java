@@ -0,0 +1,39 @@
+package com.sieczk.index;
+
+import com.sieczk.analyzers.hash.ImageHash;
+
+import java.util.List;
+
+/**
+ * Index of image hashes with attached values, e.g. image identifiers, searched by Hamming distance
+ *
+ * @param <T> type of values stored with hashes
+ */
+public interface HashIndex<T> {
+
+    /**
+     * Adds hash with its value. The same hash can be added many times, with the same or different values
+     */
+    void add(ImageHash hash, T value);
+
+    /**
+     * Finds all entries within provided Hamming distance of the hash
+     *
+     * @param radius the largest distance of returned entries
+     * @return matches ordered by distance
+     */
+    List<HashMatch<T>> findWithin(ImageHash hash, int radius);
+
+    /**
+     * Finds entries closest to the hash. Among entries at the same distance as the last returned one, any can be returned
+     *
+     * @param count the largest number of returned entries
+     * @return matches ordered by distance
+     */
+    List<HashMatch<T>> findNearest(ImageHash hash, int count);
+
+    /**
+     * @return number of entries
+     */
+    int size();
+}
@@ -0,0 +1,41 @@
+package com.sieczk.index;
+
+import com.sieczk.analyzers.hash.ImageHash;
+
+/**
+ * Entry of a hash index found by a query, with its distance to the queried hash
+ *
+ * @param <T> type of values stored with hashes
+ */
+public class HashMatch<T> {
+    private final ImageHash hash;
+    private final T value;
+    private final int distance;
+
+
+    HashMatch(ImageHash hash, T value, int distance) {
+        this.hash = hash;
+        this.value = value;
+        this.distance = distance;
+    }
+
+    public ImageHash getHash() {
+        return hash;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * @return Hamming distance between the stored and the queried hash
+     */
+    public int getDistance() {
+        return distance;
+    }
+
+    @Override
+    public String toString() {
+        return "HashMatch{value=" + value + ", distance=" + distance + ", hash=" + hash + "}";
+    }
+}
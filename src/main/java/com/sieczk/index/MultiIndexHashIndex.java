@@ -0,0 +1,370 @@
+package com.sieczk.index;
+
+import com.sieczk.analyzers.hash.ImageHash;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Multi-index hashing of image hashes of a fixed length. Every hash is split into m substrings, each kept
+ * in its own hash table keyed by the substring bits. If two hashes are within distance r = q * m + a,
+ * by the pigeonhole principle one of the first a + 1 substrings differs by at most q bits, or one of the remaining
+ * by at most q - 1 bits, so a query probes only keys within these distances of its substrings
+ * and verifies the candidates by their full distance.<p>
+ * Query costs depend on the radius and the substring length, not on the tree shape, so for small radii it stays fast
+ * on large datasets where a BK-tree visits most of its nodes. When probing would cost more than comparing
+ * all entries, queries scan the entries instead. Results are exact.<p>
+ * Queries run concurrently with each other, additions wait for running queries
+ *
+ * @param <T> type of values stored with hashes
+ */
+public class MultiIndexHashIndex<T> implements HashIndex<T> {
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int DEFAULT_SUBSTRING_LENGTH = 16;
+    private static final int MAX_SUBSTRING_LENGTH = 32;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int hashLength;
+    // Substring i covers bits from substringStarts[i] to substringStarts[i + 1]
+    private final int[] substringStarts;
+    private final SubstringTable[] tables;
+
+    private ImageHash[] hashes;
+    private Object[] values;
+    private int size;
+
+
+    /**
+     * Creates index splitting hashes into substrings of about 16 bits
+     *
+     * @param hashLength length of all stored and queried hashes
+     */
+    public MultiIndexHashIndex(int hashLength) {
+        this(hashLength, Math.max(1, (hashLength + DEFAULT_SUBSTRING_LENGTH - 1) / DEFAULT_SUBSTRING_LENGTH));
+    }
+
+    /**
+     * Creates index splitting hashes into provided number of substrings. More substrings allow larger radii
+     * before queries fall back to scanning, fewer substrings find fewer false candidates.
+     * Good substring length is about log2 of the number of entries
+     *
+     * @param hashLength length of all stored and queried hashes
+     * @param substrings number of substrings, each at most 32 bits long
+     */
+    public MultiIndexHashIndex(int hashLength, int substrings) {
+        if (hashLength <= 0)
+            throw new IllegalArgumentException("Hash length must be positive");
+        if (substrings <= 0 || substrings > hashLength)
+            throw new IllegalArgumentException("Substrings count must be between 1 and the hash length");
+        if ((hashLength + substrings - 1) / substrings > MAX_SUBSTRING_LENGTH)
+            throw new IllegalArgumentException("Substrings cannot be longer than " + MAX_SUBSTRING_LENGTH + " bits");
+
+        this.hashLength = hashLength;
+        this.substringStarts = new int[substrings + 1];
+        this.tables = new SubstringTable[substrings];
+        for (int i = 0; i <= substrings; i++) {
+            substringStarts[i] = (int) ((long) i * hashLength / substrings);
+        }
+        for (int i = 0; i < substrings; i++) {
+            tables[i] = new SubstringTable(INITIAL_CAPACITY);
+        }
+
+        this.hashes = new ImageHash[INITIAL_CAPACITY];
+        this.values = new Object[INITIAL_CAPACITY];
+    }
+
+    @Override
+    public void add(ImageHash hash, T value) {
+        checkLength(hash);
+
+        lock.writeLock().lock();
+        try {
+            ensureCapacity(size + 1);
+            hashes[size] = hash;
+            values[size] = value;
+            for (int i = 0; i < tables.length; i++) {
+                tables[i].add(substring(hash, i), size);
+            }
+            size++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<HashMatch<T>> findWithin(ImageHash hash, int radius) {
+        checkLength(hash);
+        if (radius < 0)
+            throw new IllegalArgumentException("Radius cannot be negative");
+
+        List<HashMatch<T>> matches = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            int lastStep = Math.min(radius, hashLength);
+            long probes = 0;
+            for (int step = 0; step <= lastStep; step++) {
+                probes += probesCount(step);
+            }
+
+            if (probes > size) {
+                for (int entry = 0; entry < size; entry++) {
+                    int distance = hashes[entry].hammingDistance(hash);
+                    if (distance <= radius) matches.add(match(entry, distance));
+                }
+            } else {
+                long[] keys = substrings(hash);
+                for (int step = 0; step <= lastStep; step++) {
+                    probe(hash, keys, step, (entry, distance) -> {
+                        if (distance <= radius) matches.add(match(entry, distance));
+                    });
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort(Comparator.comparingInt(HashMatch::getDistance));
+        return matches;
+    }
+
+    /**
+     * Finds nearest entries, probing with growing radius until the farthest of the nearest entries found so far
+     * is within the radius already searched
+     */
+    @Override
+    public List<HashMatch<T>> findNearest(ImageHash hash, int count) {
+        checkLength(hash);
+        if (count <= 0)
+            throw new IllegalArgumentException("Count must be positive");
+
+        PriorityQueue<HashMatch<T>> nearest = new PriorityQueue<>(Comparator.comparingInt(HashMatch<T>::getDistance).reversed());
+        EntryConsumer collector = (entry, distance) -> {
+            if (nearest.size() < count) {
+                nearest.add(match(entry, distance));
+            } else if (distance < nearest.peek().getDistance()) {
+                nearest.poll();
+                nearest.add(match(entry, distance));
+            }
+        };
+
+        lock.readLock().lock();
+        try {
+            long[] keys = substrings(hash);
+            long probes = 0;
+
+            for (int step = 0; step <= hashLength; step++) {
+                // After the previous step every entry within distance step - 1 was found
+                if (nearest.size() == count && nearest.peek().getDistance() < step) break;
+
+                probes += probesCount(step);
+                if (probes > size) {
+                    nearest.clear();
+                    for (int entry = 0; entry < size; entry++) {
+                        collector.accept(entry, hashes[entry].hammingDistance(hash));
+                    }
+                    break;
+                }
+                probe(hash, keys, step, collector);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<HashMatch<T>> matches = new ArrayList<>(nearest);
+        matches.sort(Comparator.comparingInt(HashMatch::getDistance));
+        return matches;
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Probes keys differing from the query substring step % m in exactly step / m bits. Over steps from 0 to r
+     * this follows the pigeonhole bound of radius r. Every entry is passed to the consumer at the first step
+     * which reaches one of its substrings, so it is never passed twice
+     */
+    private void probe(ImageHash hash, long[] keys, int step, EntryConsumer consumer) {
+        int substring = step % tables.length;
+        int bitsCount = step / tables.length;
+        int substringLength = substringStarts[substring + 1] - substringStarts[substring];
+        if (bitsCount > substringLength) return;
+
+        SubstringTable table = tables[substring];
+        for (long mask = (1L << bitsCount) - 1; mask < 1L << substringLength; mask = nextMask(mask)) {
+            for (int entry = table.find(keys[substring] ^ mask); entry != NONE; entry = table.next[entry]) {
+                if (isFirstStep(entry, keys, step)) {
+                    consumer.accept(entry, hashes[entry].hammingDistance(hash));
+                }
+            }
+            if (mask == 0) break;
+        }
+    }
+
+    /**
+     * @return true if no other substring of the entry is reached by an earlier step
+     */
+    private boolean isFirstStep(int entry, long[] keys, int step) {
+        int substrings = tables.length;
+        for (int i = 0; i < substrings; i++) {
+            if (i == step % substrings) continue;
+
+            int bitsCount = Long.bitCount(substring(hashes[entry], i) ^ keys[i]);
+            if (bitsCount * substrings + i < step) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return number of keys probed by the step
+     */
+    private long probesCount(int step) {
+        int substring = step % tables.length;
+        int bitsCount = step / tables.length;
+        return binomial(substringStarts[substring + 1] - substringStarts[substring], bitsCount);
+    }
+
+    private long[] substrings(ImageHash hash) {
+        long[] keys = new long[tables.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = substring(hash, i);
+        }
+        return keys;
+    }
+
+    private long substring(ImageHash hash, int substring) {
+        return hash.bits(substringStarts[substring], substringStarts[substring + 1] - substringStarts[substring]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private HashMatch<T> match(int entry, int distance) {
+        return new HashMatch<>(hashes[entry], (T) values[entry], distance);
+    }
+
+    private void checkLength(ImageHash hash) {
+        if (hash == null)
+            throw new IllegalArgumentException("Hash cannot be null");
+        if (hash.length() != hashLength)
+            throw new IllegalArgumentException("Hash of " + hash.length() + " bits cannot be used with index of " + hashLength + " bit hashes");
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= hashes.length) return;
+
+        int newCapacity = Math.max(capacity, hashes.length + (hashes.length >> 1));
+        hashes = Arrays.copyOf(hashes, newCapacity);
+        values = Arrays.copyOf(values, newCapacity);
+        for (SubstringTable table : tables) {
+            table.next = Arrays.copyOf(table.next, newCapacity);
+        }
+    }
+
+    /**
+     * @return next larger number with the same count of set bits
+     */
+    private static long nextMask(long mask) {
+        long lowest = mask & -mask;
+        long ripple = mask + lowest;
+        return (((ripple ^ mask) >>> 2) / lowest) | ripple;
+    }
+
+    private static long binomial(int n, int k) {
+        if (k < 0 || k > n) return 0;
+
+        long result = 1;
+        for (int i = 1; i <= Math.min(k, n - k); i++) {
+            result = result * (n - i + 1) / i;
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface EntryConsumer {
+        void accept(int entry, int distance);
+    }
+
+    /**
+     * Open addressing table from substring keys to lists of entries with that substring.
+     * Lists are linked through the next array indexed by entries, so the table holds no objects per entry
+     */
+    private static class SubstringTable {
+        private long[] keys;
+        private int[] heads;
+        private int keysCount;
+        int[] next;
+
+        SubstringTable(int capacity) {
+            this.keys = new long[capacity];
+            this.heads = new int[capacity];
+            this.next = new int[INITIAL_CAPACITY];
+            Arrays.fill(heads, NONE);
+        }
+
+        /**
+         * @return first entry with the key or NONE
+         */
+        int find(long key) {
+            int mask = keys.length - 1;
+            for (int slot = slot(key, mask); heads[slot] != NONE; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) return heads[slot];
+            }
+            return NONE;
+        }
+
+        void add(long key, int entry) {
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (heads[slot] != NONE && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+
+            if (heads[slot] == NONE) {
+                keys[slot] = key;
+                keysCount++;
+            }
+            next[entry] = heads[slot];
+            heads[slot] = entry;
+
+            if (keysCount * 2 > keys.length) {
+                rehash();
+            }
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            int[] oldHeads = heads;
+            keys = new long[oldKeys.length * 2];
+            heads = new int[oldKeys.length * 2];
+            Arrays.fill(heads, NONE);
+
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldHeads[i] == NONE) continue;
+
+                int slot = slot(oldKeys[i], mask);
+                while (heads[slot] != NONE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                heads[slot] = oldHeads[i];
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.sieczk.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Comparison of a pair of images, from the call of the comparator until its result is ready
+ */
+@Name("com.sieczk.Comparison")
+@Label("Image Comparison")
+@Category(ImageComparatorEvents.CATEGORY)
+@Description("Comparison of a pair of images by one of the comparators")
+public class ComparisonEvent extends jdk.jfr.Event {
+
+    @Label("Algorithm")
+    @Description("direct, direct-fast, direct-streamed, ssim, pHash, wHash, aHash or dHash")
+    public String algorithm;
+
+    @Label("Color Space")
+    @Description("Color space of direct comparisons, not set for other algorithms")
+    public String colorSpace;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Mismatches Count")
+    @Description("Mismatched pixels of direct comparisons, capped at the mismatches limit in verdict only mode")
+    public long mismatchesCount;
+
+    @Label("Similarity")
+    @Description("Similarity of SSIM and hash comparisons")
+    public double similarity;
+
+    @Label("Matching")
+    @Description("Verdict of direct comparisons")
+    public boolean matching;
+}
@@ -0,0 +1,23 @@
+package com.sieczk.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Convolution of a single channel with a kernel, e.g. luminosity with the SSIM gaussian window
+ */
+@Name("com.sieczk.Convolution")
+@Label("Convolution")
+@Category(ImageComparatorEvents.CATEGORY)
+public class ConvolutionEvent extends jdk.jfr.Event {
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Kernel Size")
+    public int kernelSize;
+}
@@ -0,0 +1,23 @@
+package com.sieczk.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Decoding of a whole image file
+ */
+@Name("com.sieczk.Decode")
+@Label("Image Decode")
+@Category(ImageComparatorEvents.CATEGORY)
+public class DecodeEvent extends jdk.jfr.Event {
+
+    @Label("File")
+    public String file;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+}
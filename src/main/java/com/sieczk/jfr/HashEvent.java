@@ -0,0 +1,23 @@
+package com.sieczk.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Hashing of a single image, recorded only when the hash is not cached in the prepared image
+ */
+@Name("com.sieczk.Hash")
+@Label("Image Hash")
+@Category(ImageComparatorEvents.CATEGORY)
+public class HashEvent extends jdk.jfr.Event {
+
+    @Label("Algorithm")
+    public String algorithm;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+}
@@ -0,0 +1,14 @@
+package com.sieczk.jfr;
+
+/**
+ * JDK Flight Recorder events of comparisons, decoding, resizing, hashing, convolutions and grouping of mismatches.<p>
+ * Events are enabled in a recording like any JDK event, e.g. with a .jfc file or
+ * {@code recording.enable(ComparisonEvent.class)}, so slow comparisons can be correlated with GC and CPU load.
+ * When they are disabled, only an event object is allocated, which JIT usually removes
+ */
+public final class ImageComparatorEvents {
+    public static final String CATEGORY = "Image Comparator";
+
+    private ImageComparatorEvents() {
+    }
+}
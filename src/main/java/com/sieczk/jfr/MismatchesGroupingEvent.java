@@ -0,0 +1,26 @@
+package com.sieczk.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Grouping of mismatched pixels into areas
+ */
+@Name("com.sieczk.MismatchesGrouping")
+@Label("Mismatches Grouping")
+@Category(ImageComparatorEvents.CATEGORY)
+public class MismatchesGroupingEvent extends jdk.jfr.Event {
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Mismatches Count")
+    public long mismatchesCount;
+
+    @Label("Groups Count")
+    public int groupsCount;
+}
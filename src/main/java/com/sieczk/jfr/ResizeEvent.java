@@ -0,0 +1,26 @@
+package com.sieczk.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Resizing of the compared image to the base image size
+ */
+@Name("com.sieczk.Resize")
+@Label("Image Resize")
+@Category(ImageComparatorEvents.CATEGORY)
+public class ResizeEvent extends jdk.jfr.Event {
+
+    @Label("Source Width")
+    public int sourceWidth;
+
+    @Label("Source Height")
+    public int sourceHeight;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+}
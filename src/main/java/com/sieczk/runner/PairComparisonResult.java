@@ -0,0 +1,53 @@
+package com.sieczk.runner;
+
+import java.io.File;
+
+/**
+ * Result of comparing a pair of files with the same relative path in both trees
+ */
+public class PairComparisonResult {
+    private final String relativePath;
+    private final boolean isMatching;
+    private final File outputFile;
+    private final Exception failure;
+
+
+    PairComparisonResult(String relativePath, boolean isMatching, File outputFile, Exception failure) {
+        this.relativePath = relativePath;
+        this.isMatching = isMatching;
+        this.outputFile = outputFile;
+        this.failure = failure;
+    }
+
+    /**
+     * @return path of the files relative to the tree roots, with '/' separators
+     */
+    public String getRelativePath() {
+        return relativePath;
+    }
+
+    /**
+     * @return true if images are matching. Always false for failed comparisons
+     */
+    public boolean getIsMatching() {
+        return isMatching;
+    }
+
+    /**
+     * @return written output image, or null if none was written
+     */
+    public File getOutputFile() {
+        return outputFile;
+    }
+
+    /**
+     * @return exception thrown while decoding, comparing or writing the pair, or null if there was none
+     */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    public boolean isFailed() {
+        return failure != null;
+    }
+}
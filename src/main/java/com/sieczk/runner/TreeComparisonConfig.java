@@ -0,0 +1,130 @@
+package com.sieczk.runner;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class TreeComparisonConfig {
+
+    /**
+     * Number of threads decoding image files
+     */
+    private int decodeThreads = 2;
+
+    /**
+     * Number of threads comparing decoded images
+     */
+    private int compareThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Number of threads writing output images and reporting results
+     */
+    private int writeThreads = 1;
+
+    /**
+     * Capacity of each queue between the stages. Decoded and compared pairs wait in the queues,
+     * so together with the threads count it limits number of images held in memory
+     */
+    private int queueCapacity = 8;
+
+    /**
+     * Extensions of compared files, without the dot. Other files in the trees are ignored
+     */
+    private Set<String> imageExtensions = Set.of("png");
+
+    /**
+     * Directory receiving output images, mirroring the trees layout. If not set, output images are not written
+     */
+    private File outputDirectory = null;
+
+    /**
+     * Informal name of the output images format, e.g. "png"
+     */
+    private String outputFormat = "png";
+
+
+    public int getDecodeThreads() {
+        return decodeThreads;
+    }
+
+    public TreeComparisonConfig decodeThreads(int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Decode threads count must be at least 1");
+
+        this.decodeThreads = threads;
+        return this;
+    }
+
+    public int getCompareThreads() {
+        return compareThreads;
+    }
+
+    public TreeComparisonConfig compareThreads(int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Compare threads count must be at least 1");
+
+        this.compareThreads = threads;
+        return this;
+    }
+
+    public int getWriteThreads() {
+        return writeThreads;
+    }
+
+    public TreeComparisonConfig writeThreads(int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Write threads count must be at least 1");
+
+        this.writeThreads = threads;
+        return this;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public TreeComparisonConfig queueCapacity(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Queue capacity must be at least 1");
+
+        this.queueCapacity = capacity;
+        return this;
+    }
+
+    public Set<String> getImageExtensions() {
+        return imageExtensions;
+    }
+
+    public TreeComparisonConfig imageExtensions(String... extensions) {
+        if (extensions.length == 0)
+            throw new IllegalArgumentException("At least one image extension is required");
+
+        this.imageExtensions = Stream.of(extensions)
+                .map(extension -> extension.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        return this;
+    }
+
+    public File getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    public TreeComparisonConfig outputDirectory(File directory) {
+        this.outputDirectory = directory;
+        return this;
+    }
+
+    public String getOutputFormat() {
+        return outputFormat;
+    }
+
+    public TreeComparisonConfig outputFormat(String format) {
+        if (format == null || format.isEmpty())
+            throw new IllegalArgumentException("Output format cannot be empty");
+
+        this.outputFormat = format;
+        return this;
+    }
+}
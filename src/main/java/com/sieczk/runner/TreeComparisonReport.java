@@ -0,0 +1,114 @@
+package com.sieczk.runner;
+
+import java.util.List;
+
+/**
+ * Progress of the trees comparison. Reports taken while the comparison is running show current queue depths,
+ * the final one has both queues empty
+ */
+public class TreeComparisonReport {
+    private final int pairsCount;
+    private final int completedCount;
+    private final int matchingCount;
+    private final int failedCount;
+    private final List<String> onlyInBase;
+    private final List<String> onlyInCompared;
+    private final long elapsedNanos;
+    private final int decodedQueueDepth;
+    private final int comparedQueueDepth;
+    private final int peakDecodedQueueDepth;
+    private final int peakComparedQueueDepth;
+
+
+    TreeComparisonReport(int pairsCount, int completedCount, int matchingCount, int failedCount,
+                         List<String> onlyInBase, List<String> onlyInCompared, long elapsedNanos,
+                         int decodedQueueDepth, int comparedQueueDepth, int peakDecodedQueueDepth, int peakComparedQueueDepth) {
+        this.pairsCount = pairsCount;
+        this.completedCount = completedCount;
+        this.matchingCount = matchingCount;
+        this.failedCount = failedCount;
+        this.onlyInBase = onlyInBase;
+        this.onlyInCompared = onlyInCompared;
+        this.elapsedNanos = elapsedNanos;
+        this.decodedQueueDepth = decodedQueueDepth;
+        this.comparedQueueDepth = comparedQueueDepth;
+        this.peakDecodedQueueDepth = peakDecodedQueueDepth;
+        this.peakComparedQueueDepth = peakComparedQueueDepth;
+    }
+
+    /**
+     * @return number of relative paths present in both trees
+     */
+    public int getPairsCount() {
+        return pairsCount;
+    }
+
+    /**
+     * @return number of pairs which passed all stages, including the failed ones
+     */
+    public int getCompletedCount() {
+        return completedCount;
+    }
+
+    public int getMatchingCount() {
+        return matchingCount;
+    }
+
+    /**
+     * @return number of compared pairs which are not matching, failed pairs are not included
+     */
+    public int getMismatchingCount() {
+        return completedCount - matchingCount - failedCount;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * @return relative paths of images missing in the compared tree
+     */
+    public List<String> getOnlyInBase() {
+        return onlyInBase;
+    }
+
+    /**
+     * @return relative paths of images missing in the base tree
+     */
+    public List<String> getOnlyInCompared() {
+        return onlyInCompared;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return completed pairs per second
+     */
+    public double getThroughput() {
+        return elapsedNanos > 0 ? completedCount * 1e9 / elapsedNanos : 0;
+    }
+
+    /**
+     * @return number of decoded pairs waiting for comparison
+     */
+    public int getDecodedQueueDepth() {
+        return decodedQueueDepth;
+    }
+
+    /**
+     * @return number of compared pairs waiting for writing
+     */
+    public int getComparedQueueDepth() {
+        return comparedQueueDepth;
+    }
+
+    public int getPeakDecodedQueueDepth() {
+        return peakDecodedQueueDepth;
+    }
+
+    public int getPeakComparedQueueDepth() {
+        return peakComparedQueueDepth;
+    }
+}
@@ -0,0 +1,341 @@
+package com.sieczk.runner;
+
+import com.sieczk.comparators.DirectComparator;
+import com.sieczk.comparators.DirectComparisonResult;
+import com.sieczk.utils.ImageUtil;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compares every image of the base directory tree with the image at the same relative path in the compared tree.<p>
+ * Pairs pass through three stages running on separate thread pools: decoding both files, comparing them
+ * and writing the output image. Stages are connected by bounded queues, so a slow stage blocks the preceding ones
+ * instead of letting decoded images pile up. At most
+ * decodeThreads + compareThreads + writeThreads + 2 * queueCapacity pairs are held in memory, no matter how large the trees are.<p>
+ * Failures of single pairs, e.g. unreadable files or images of different sizes, are reported in their results
+ * and do not stop the run. Runner compares one pair of trees at a time.
+ */
+public class TreeComparisonRunner {
+    private static final DecodedPair END_OF_DECODED = new DecodedPair(null, null, null, null);
+    private static final ComparedPair END_OF_COMPARED = new ComparedPair(null, null, null);
+
+    private final DirectComparator comparator;
+    private final TreeComparisonConfig config;
+
+    private volatile RunState lastRun;
+
+
+    public TreeComparisonRunner(DirectComparator comparator, TreeComparisonConfig config) {
+        this.comparator = comparator;
+        this.config = config;
+    }
+
+    public TreeComparisonRunner(DirectComparator comparator) {
+        this(comparator, new TreeComparisonConfig());
+    }
+
+    public TreeComparisonReport run(File baseDirectory, File comparedDirectory) throws IOException, InterruptedException {
+        return run(baseDirectory, comparedDirectory, result -> {});
+    }
+
+    /**
+     * Compares the trees and waits until all pairs are completed
+     *
+     * @param resultConsumer receives result of every pair, called concurrently if writeThreads is above 1
+     * @return final report of the run
+     * @throws IOException if the trees cannot be listed
+     * @throws InterruptedException if the calling thread is interrupted, all stages are stopped then
+     */
+    public synchronized TreeComparisonReport run(File baseDirectory, File comparedDirectory,
+                                                 Consumer<PairComparisonResult> resultConsumer) throws IOException, InterruptedException {
+        if (!baseDirectory.isDirectory())
+            throw new IllegalArgumentException("Base directory does not exist: " + baseDirectory);
+        if (!comparedDirectory.isDirectory())
+            throw new IllegalArgumentException("Compared directory does not exist: " + comparedDirectory);
+
+        Path baseRoot = baseDirectory.toPath();
+        Path comparedRoot = comparedDirectory.toPath();
+        SortedSet<String> baseImages = listImages(baseRoot);
+        SortedSet<String> comparedImages = listImages(comparedRoot);
+
+        RunState run = new RunState(baseImages, comparedImages, config);
+        lastRun = run;
+
+        ExecutorService decoding = Executors.newFixedThreadPool(config.getDecodeThreads(), namedThreads("tree-decode-"));
+        ExecutorService comparing = Executors.newFixedThreadPool(config.getCompareThreads(), namedThreads("tree-compare-"));
+        ExecutorService writing = Executors.newFixedThreadPool(config.getWriteThreads(), namedThreads("tree-write-"));
+        run.stages = List.of(decoding, comparing, writing);
+
+        try {
+            AtomicInteger nextPair = new AtomicInteger();
+            List<Future<?>> workers = new ArrayList<>();
+            workers.addAll(startWorkers(run, decoding, config.getDecodeThreads(), () -> decode(run, baseRoot, comparedRoot, nextPair)));
+            workers.addAll(startWorkers(run, comparing, config.getCompareThreads(), () -> compare(run)));
+            workers.addAll(startWorkers(run, writing, config.getWriteThreads(), () -> write(run, resultConsumer)));
+
+            awaitWorkers(run, workers);
+        } finally {
+            run.stages.forEach(ExecutorService::shutdownNow);
+            run.endNanos = System.nanoTime();
+        }
+
+        return run.report();
+    }
+
+    /**
+     * Returns progress of the running comparison, or the final report of the last one
+     *
+     * @return report, or null if no comparison was started
+     */
+    public TreeComparisonReport getReport() {
+        RunState run = lastRun;
+        return run != null ? run.report() : null;
+    }
+
+    private Void decode(RunState run, Path baseRoot, Path comparedRoot, AtomicInteger nextPair) throws InterruptedException {
+        for (int i = nextPair.getAndIncrement(); i < run.pairs.size(); i = nextPair.getAndIncrement()) {
+            String relativePath = run.pairs.get(i);
+            DecodedPair pair;
+
+            try {
+                BufferedImage baseImage = ImageUtil.readImage(baseRoot.resolve(relativePath).toFile());
+                BufferedImage comparedImage = ImageUtil.readImage(comparedRoot.resolve(relativePath).toFile());
+                pair = new DecodedPair(relativePath, baseImage, comparedImage, null);
+            } catch (IOException | RuntimeException e) {
+                pair = new DecodedPair(relativePath, null, null, e);
+            }
+
+            run.decoded.put(pair);
+            run.peakDecodedDepth.accumulateAndGet(run.decoded.size(), Math::max);
+        }
+
+        // The last finished worker of a stage ends the next stage with one marker per its worker
+        if (run.activeDecoders.decrementAndGet() == 0) {
+            for (int i = 0; i < config.getCompareThreads(); i++) run.decoded.put(END_OF_DECODED);
+        }
+        return null;
+    }
+
+    private Void compare(RunState run) throws InterruptedException {
+        for (DecodedPair pair = run.decoded.take(); pair != END_OF_DECODED; pair = run.decoded.take()) {
+            ComparedPair comparedPair;
+
+            if (pair.failure() != null) {
+                comparedPair = new ComparedPair(pair.relativePath(), null, pair.failure());
+            } else {
+                try {
+                    DirectComparisonResult result = comparator.compare(pair.baseImage(), pair.comparedImage());
+                    comparedPair = new ComparedPair(pair.relativePath(), result, null);
+                } catch (RuntimeException e) {
+                    comparedPair = new ComparedPair(pair.relativePath(), null, e);
+                }
+            }
+
+            run.compared.put(comparedPair);
+            run.peakComparedDepth.accumulateAndGet(run.compared.size(), Math::max);
+        }
+
+        if (run.activeComparers.decrementAndGet() == 0) {
+            for (int i = 0; i < config.getWriteThreads(); i++) run.compared.put(END_OF_COMPARED);
+        }
+        return null;
+    }
+
+    private Void write(RunState run, Consumer<PairComparisonResult> resultConsumer) throws InterruptedException {
+        for (ComparedPair pair = run.compared.take(); pair != END_OF_COMPARED; pair = run.compared.take()) {
+            PairComparisonResult result = complete(pair);
+
+            run.completed.incrementAndGet();
+            if (result.isFailed()) run.failed.incrementAndGet();
+            if (result.getIsMatching()) run.matching.incrementAndGet();
+
+            resultConsumer.accept(result);
+        }
+        return null;
+    }
+
+    /**
+     * Writes output image of the pair if it is not matching and output directory is set
+     */
+    private PairComparisonResult complete(ComparedPair pair) {
+        if (pair.failure() != null) {
+            return new PairComparisonResult(pair.relativePath(), false, null, pair.failure());
+        }
+
+        DirectComparisonResult result = pair.result();
+        File outputDirectory = config.getOutputDirectory();
+
+        if (result.getIsMatching() || result.getResultImage() == null || outputDirectory == null) {
+            return new PairComparisonResult(pair.relativePath(), result.getIsMatching(), null, null);
+        }
+
+        File outputFile = outputDirectory.toPath().resolve(withOutputExtension(pair.relativePath())).toFile();
+        try {
+            Files.createDirectories(outputFile.toPath().getParent());
+
+            if (!ImageIO.write(result.getResultImage(), config.getOutputFormat(), outputFile))
+                throw new IOException("No image writer found for format " + config.getOutputFormat());
+
+            return new PairComparisonResult(pair.relativePath(), false, outputFile, null);
+        } catch (IOException | RuntimeException e) {
+            return new PairComparisonResult(pair.relativePath(), false, null, e);
+        }
+    }
+
+    private String withOutputExtension(String relativePath) {
+        int dot = relativePath.lastIndexOf('.');
+        return relativePath.substring(0, dot + 1) + config.getOutputFormat();
+    }
+
+    /**
+     * Lists images in the tree
+     *
+     * @return paths relative to the root, with '/' separators
+     */
+    private SortedSet<String> listImages(Path root) throws IOException {
+        Set<String> extensions = config.getImageExtensions();
+
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths
+                    .filter(Files::isRegularFile)
+                    .filter(path -> extensions.contains(extensionOf(path.getFileName().toString())))
+                    .map(path -> root.relativize(path).toString().replace(File.separatorChar, '/'))
+                    .collect(Collectors.toCollection(TreeSet::new));
+        }
+    }
+
+    private static String extensionOf(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? "" : fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Starts workers of a stage. Worker failing for reasons other than a single pair, e.g. a throwing
+     * result consumer, stops all stages, since the remaining pairs could never pass through it
+     */
+    private static List<Future<?>> startWorkers(RunState run, ExecutorService stage, int count, Callable<Void> worker) {
+        List<Future<?>> workers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            workers.add(stage.submit(() -> {
+                try {
+                    return worker.call();
+                } catch (Exception | Error e) {
+                    run.abort(e);
+                    throw e;
+                }
+            }));
+        }
+        return workers;
+    }
+
+    private static void awaitWorkers(RunState run, List<Future<?>> workers) throws InterruptedException {
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (ExecutionException | CancellationException e) {
+                // Failure is already recorded by the worker
+            }
+        }
+
+        Throwable failure = run.failure.get();
+        if (failure instanceof RuntimeException runtimeException) throw runtimeException;
+        if (failure instanceof Error error) throw error;
+        if (failure != null) throw new IllegalStateException("Trees comparison stopped", failure);
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> new Thread(runnable, prefix + counter.incrementAndGet());
+    }
+
+    private record DecodedPair(String relativePath, BufferedImage baseImage, BufferedImage comparedImage, Exception failure) {
+    }
+
+    private record ComparedPair(String relativePath, DirectComparisonResult result, Exception failure) {
+    }
+
+    /**
+     * Queues and counters of a single run
+     */
+    private static class RunState {
+        private final List<String> pairs;
+        private final List<String> onlyInBase;
+        private final List<String> onlyInCompared;
+        private final BlockingQueue<DecodedPair> decoded;
+        private final BlockingQueue<ComparedPair> compared;
+
+        private final AtomicInteger activeDecoders;
+        private final AtomicInteger activeComparers;
+
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger matching = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger peakDecodedDepth = new AtomicInteger();
+        private final AtomicInteger peakComparedDepth = new AtomicInteger();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        private final long startNanos = System.nanoTime();
+        private volatile long endNanos;
+        private volatile List<ExecutorService> stages = List.of();
+
+
+        RunState(SortedSet<String> baseImages, SortedSet<String> comparedImages, TreeComparisonConfig config) {
+            this.pairs = baseImages.stream().filter(comparedImages::contains).toList();
+            this.onlyInBase = baseImages.stream().filter(path -> !comparedImages.contains(path)).toList();
+            this.onlyInCompared = comparedImages.stream().filter(path -> !baseImages.contains(path)).toList();
+            this.decoded = new ArrayBlockingQueue<>(config.getQueueCapacity());
+            this.compared = new ArrayBlockingQueue<>(config.getQueueCapacity());
+            this.activeDecoders = new AtomicInteger(config.getDecodeThreads());
+            this.activeComparers = new AtomicInteger(config.getCompareThreads());
+        }
+
+        void abort(Throwable cause) {
+            if (failure.compareAndSet(null, cause)) {
+                stages.forEach(ExecutorService::shutdownNow);
+            }
+        }
+
+        TreeComparisonReport report() {
+            long end = endNanos != 0 ? endNanos : System.nanoTime();
+
+            return new TreeComparisonReport(
+                    pairs.size(),
+                    completed.get(),
+                    matching.get(),
+                    failed.get(),
+                    onlyInBase,
+                    onlyInCompared,
+                    end - startNanos,
+                    decoded.size(),
+                    compared.size(),
+                    peakDecodedDepth.get(),
+                    peakComparedDepth.get()
+            );
+        }
+    }
+}
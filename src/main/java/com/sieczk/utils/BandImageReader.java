@@ -0,0 +1,82 @@
+package com.sieczk.utils;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Reads the first image of a file in horizontal bands, so only a single band is decoded in memory at a time.<p>
+ * Bands are read with source region set on the read parameters. Striped and tiled formats, like TIFF,
+ * decode only the rows of the band. Sequential formats, like PNG, still have to decode all preceding rows,
+ * but discard them immediately, so memory stays bounded while decoding time grows with the number of bands.
+ */
+public class BandImageReader implements Closeable {
+    private final ImageInputStream stream;
+    private final ImageReader reader;
+
+    private final int width;
+    private final int height;
+
+
+    public BandImageReader(File file) throws IOException {
+        this.stream = ImageIO.createImageInputStream(file);
+        if (stream == null)
+            throw new IOException("Cannot open " + file);
+
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+        if (!readers.hasNext()) {
+            stream.close();
+            throw new IOException("No image reader found for " + file);
+        }
+
+        this.reader = readers.next();
+        reader.setInput(stream, false, true);
+
+        try {
+            this.width = reader.getWidth(0);
+            this.height = reader.getHeight(0);
+        } catch (IOException e) {
+            reader.dispose();
+            stream.close();
+            throw e;
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Decodes rows of the band
+     *
+     * @param fromRow first row of the band (inclusive)
+     * @param toRow last row of the band (exclusive)
+     * @return image of the band, with the band top at row 0
+     */
+    public BufferedImage readBand(int fromRow, int toRow) throws IOException {
+        if (fromRow < 0 || toRow > height || fromRow >= toRow)
+            throw new IllegalArgumentException("Band must be a non-empty range of image rows");
+
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceRegion(new Rectangle(0, fromRow, width, toRow - fromRow));
+
+        return reader.read(0, param);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.dispose();
+        stream.close();
+    }
+}
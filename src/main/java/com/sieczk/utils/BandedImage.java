@@ -0,0 +1,187 @@
+package com.sieczk.utils;
+
+import java.awt.Image;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Vector;
+
+/**
+ * Image rendered lazily in horizontal bands. Every band is a separate tile, rendered only when
+ * its pixels are requested, and only the last rendered band is kept.<p>
+ * Image writers which pull rows or strips top to bottom, like the PNG and TIFF writers,
+ * can write the whole image while only a single band is held in memory.
+ * Bands rendered for the same index must have the same type.
+ */
+public class BandedImage implements RenderedImage {
+
+    @FunctionalInterface
+    public interface BandRenderer {
+        /**
+         * @param fromRow first row of the band (inclusive)
+         * @param toRow last row of the band (exclusive)
+         * @return image of the band, with the band top at row 0
+         */
+        BufferedImage render(int fromRow, int toRow) throws IOException;
+    }
+
+    private final int width;
+    private final int height;
+    private final int bandHeight;
+    private final BandRenderer renderer;
+
+    private final ColorModel colorModel;
+    private final SampleModel sampleModel;
+
+    private int cachedBand = -1;
+    private BufferedImage cachedImage;
+
+
+    public BandedImage(int width, int height, int bandHeight, BandRenderer renderer) throws IOException {
+        this.width = width;
+        this.height = height;
+        this.bandHeight = bandHeight;
+        this.renderer = renderer;
+
+        BufferedImage firstBand = renderBand(0);
+        this.colorModel = firstBand.getColorModel();
+        this.sampleModel = firstBand.getSampleModel().createCompatibleSampleModel(width, bandHeight);
+    }
+
+    @Override
+    public Vector<RenderedImage> getSources() {
+        return null;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        return Image.UndefinedProperty;
+    }
+
+    @Override
+    public String[] getPropertyNames() {
+        return null;
+    }
+
+    @Override
+    public ColorModel getColorModel() {
+        return colorModel;
+    }
+
+    @Override
+    public SampleModel getSampleModel() {
+        return sampleModel;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getMinX() {
+        return 0;
+    }
+
+    @Override
+    public int getMinY() {
+        return 0;
+    }
+
+    @Override
+    public int getNumXTiles() {
+        return 1;
+    }
+
+    @Override
+    public int getNumYTiles() {
+        return (height + bandHeight - 1) / bandHeight;
+    }
+
+    @Override
+    public int getMinTileX() {
+        return 0;
+    }
+
+    @Override
+    public int getMinTileY() {
+        return 0;
+    }
+
+    @Override
+    public int getTileWidth() {
+        return width;
+    }
+
+    @Override
+    public int getTileHeight() {
+        return bandHeight;
+    }
+
+    @Override
+    public int getTileGridXOffset() {
+        return 0;
+    }
+
+    @Override
+    public int getTileGridYOffset() {
+        return 0;
+    }
+
+    @Override
+    public Raster getTile(int tileX, int tileY) {
+        return renderBand(tileY).getRaster().createTranslatedChild(0, tileY * bandHeight);
+    }
+
+    @Override
+    public Raster getData() {
+        return getData(new Rectangle(0, 0, width, height));
+    }
+
+    @Override
+    public Raster getData(Rectangle rect) {
+        WritableRaster raster = Raster.createWritableRaster(
+                sampleModel.createCompatibleSampleModel(rect.width, rect.height),
+                new Point(rect.x, rect.y)
+        );
+        return copyData(raster);
+    }
+
+    @Override
+    public WritableRaster copyData(WritableRaster raster) {
+        Rectangle bounds = raster.getBounds().intersection(new Rectangle(0, 0, width, height));
+
+        for (int band = bounds.y / bandHeight; band * bandHeight < bounds.y + bounds.height; band++) {
+            Raster bandRaster = getTile(0, band);
+            Rectangle copied = bounds.intersection(bandRaster.getBounds());
+
+            raster.setRect(bandRaster.createChild(copied.x, copied.y, copied.width, copied.height, copied.x, copied.y, null));
+        }
+        return raster;
+    }
+
+    private synchronized BufferedImage renderBand(int band) {
+        if (band != cachedBand) {
+            int fromRow = band * bandHeight;
+            try {
+                cachedImage = renderer.render(fromRow, Math.min(height, fromRow + bandHeight));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            cachedBand = band;
+        }
+        return cachedImage;
+    }
+}
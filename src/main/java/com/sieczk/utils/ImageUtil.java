@@ -1,11 +1,48 @@
 package com.sieczk.utils;
 
+import com.sieczk.jfr.ConvolutionEvent;
+import com.sieczk.jfr.DecodeEvent;
+
+import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
 import java.awt.image.Kernel;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
 
 public class ImageUtil {
 
+    /**
+     * Decodes an image file
+     *
+     * @return decoded image
+     * @throws IOException if the file cannot be read or no image reader supports its format
+     */
+    public static BufferedImage readImage(File file) throws IOException {
+        DecodeEvent event = new DecodeEvent();
+        event.begin();
+
+        BufferedImage image = ImageIO.read(file);
+        if (image == null)
+            throw new IOException("No image reader found for file " + file);
+
+        if (event.shouldCommit()) {
+            event.file = file.getPath();
+            event.width = image.getWidth();
+            event.height = image.getHeight();
+            event.commit();
+        }
+        return image;
+    }
+
     /**
      * Resizes an image to the requested dimensions using Graphics2D with high-quality rendering hints.
      *
@@ -97,6 +134,9 @@ public class ImageUtil {
      * @return new instance of convolved imageData
      */
     public static double[] convolve(int[] imageData, int imageWidth, int imageHeight, Kernel kernel) {
+        ConvolutionEvent event = new ConvolutionEvent();
+        event.begin();
+
         double[] outputMap = new double[imageData.length];
         int kernelHalf = kernel.getWidth() / 2;
 
@@ -125,6 +165,12 @@ public class ImageUtil {
             }
         }
 
+        if (event.shouldCommit()) {
+            event.width = imageWidth;
+            event.height = imageHeight;
+            event.kernelSize = kernel.getWidth();
+            event.commit();
+        }
         return outputMap;
     }
 
@@ -176,4 +222,70 @@ public class ImageUtil {
 
         return new Kernel(dimension, dimension, kernelData);
     }
-}
\ No newline at end of file
+
+    /**
+     * Finds the first row in which two images can differ by comparing their backing arrays in bulk.
+     * Bulk comparison is possible only if both images have the same type, size, raster layout and color model
+     * and own their whole data buffer, otherwise 0 is returned and every row has to be checked.
+     * Color models are compared as well, because equal samples of indexed images with different palettes
+     * are different colors.
+     * Bytes ignored by the color model (e.g. padding of TYPE_INT_RGB) are compared as well,
+     * so the returned row is never below the first row with visibly different pixels.
+     *
+     * @param first the first image
+     * @param second the second image
+     * @return index of the first row that may differ, or image height if the rasters are identical
+     */
+    public static int findFirstDifferentRow(BufferedImage first, BufferedImage second) {
+        if (first.getType() != second.getType() || first.getType() == BufferedImage.TYPE_CUSTOM) return 0;
+        if (first.getWidth() != second.getWidth() || first.getHeight() != second.getHeight()) return 0;
+
+        Raster firstRaster = first.getRaster();
+        Raster secondRaster = second.getRaster();
+
+        if (!hasBulkComparableLayout(firstRaster) || !hasBulkComparableLayout(secondRaster)) return 0;
+        if (!firstRaster.getSampleModel().equals(secondRaster.getSampleModel())) return 0;
+        if (!first.getColorModel().equals(second.getColorModel())) return 0;
+
+        DataBuffer firstBuffer = firstRaster.getDataBuffer();
+        DataBuffer secondBuffer = secondRaster.getDataBuffer();
+
+        int mismatchIndex;
+        if (firstBuffer instanceof DataBufferInt firstInts && secondBuffer instanceof DataBufferInt secondInts) {
+            mismatchIndex = Arrays.mismatch(firstInts.getData(), secondInts.getData());
+        } else if (firstBuffer instanceof DataBufferByte firstBytes && secondBuffer instanceof DataBufferByte secondBytes) {
+            mismatchIndex = Arrays.mismatch(firstBytes.getData(), secondBytes.getData());
+        } else {
+            return 0;
+        }
+
+        if (mismatchIndex < 0) return first.getHeight();
+
+        return Math.min(first.getHeight(), mismatchIndex / getScanlineStride(firstRaster.getSampleModel()));
+    }
+
+    /**
+     * Checks if raster data starts at the beginning of a single bank buffer, which is not shared with a parent image
+     */
+    private static boolean hasBulkComparableLayout(Raster raster) {
+        DataBuffer buffer = raster.getDataBuffer();
+        SampleModel sampleModel = raster.getSampleModel();
+
+        boolean isKnownSampleModel = sampleModel instanceof SinglePixelPackedSampleModel
+                || sampleModel instanceof ComponentSampleModel;
+
+        return isKnownSampleModel
+                && buffer.getNumBanks() == 1
+                && buffer.getOffset() == 0
+                && raster.getSampleModelTranslateX() == 0
+                && raster.getSampleModelTranslateY() == 0
+                && raster.getParent() == null;
+    }
+
+    private static int getScanlineStride(SampleModel sampleModel) {
+        if (sampleModel instanceof SinglePixelPackedSampleModel packedSampleModel) {
+            return packedSampleModel.getScanlineStride();
+        }
+        return ((ComponentSampleModel) sampleModel).getScanlineStride();
+    }
+}
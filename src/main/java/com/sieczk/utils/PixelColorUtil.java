@@ -1,6 +1,8 @@
 package com.sieczk.utils;
 
 public class PixelColorUtil {
+    private static final int MAX_SQUARED_DISTANCE = 255 * 255 * 3;
+    private static final int MAX_WEIGHTED_DISTANCE = (1022 * 255 * 255) + (1024 * 255 * 255) + (1022 * 255 * 255);
 
     /**
      * Converts RGB space coordinates into HSV (cylindrical)
@@ -9,34 +11,68 @@ public class PixelColorUtil {
      * @return float representing HSV channels
      */
     public static float[] convertRGBtoHSV(int rgb) {
-        float H = 0;
-        float S = 0;
-        float V;
-
-        float red = ((rgb >> 16) & 0xFF) / 255f;
-        float green = ((rgb >> 8) & 0xFF) / 255f;
-        float blue = (rgb & 0xFF) / 255f;
-
-        float min = Math.min(red, Math.min(green, blue));
-        float max = Math.max(red, Math.max(green, blue));
-        float delta = max-min;
+        return new float[]{hue(rgb), saturation(rgb), value(rgb)};
+    }
 
-        V = max;
+    /**
+     * Calculates HSV hue of the RGB color without allocating
+     *
+     * @param rgb ARGB integer (alpha channel is ignored)
+     * @return hue normalized to [0, 1]
+     */
+    public static float hue(int rgb) {
+        int red = (rgb >> 16) & 0xFF;
+        int green = (rgb >> 8) & 0xFF;
+        int blue = rgb & 0xFF;
 
-        if (delta == 0) return new float[]{H,S,V};
+        int max = Math.max(red, Math.max(green, blue));
+        int min = Math.min(red, Math.min(green, blue));
 
-        S = delta/max;
+        if (max == min) return 0;
 
-        float invDelta = 1 / delta;
+        float[] channel = HSVTables.CHANNEL;
+        float invDelta = HSVTables.INVERTED_DELTA[(max << 8) | min];
+        float H;
 
-        if (red == max)         H = (green - blue) * invDelta;
-        else if (green == max)  H = 2 + (blue - red) * invDelta;
-        else                    H = 4 + (red - green) * invDelta;
+        if (red == max)         H = (channel[green] - channel[blue]) * invDelta;
+        else if (green == max)  H = 2 + (channel[blue] - channel[red]) * invDelta;
+        else                    H = 4 + (channel[red] - channel[green]) * invDelta;
 
         H /= 6; // Normalize to [0, 1]
         if (H < 0) H += 1;
 
-        return new float[]{H,S,V};
+        return H;
+    }
+
+    /**
+     * Calculates HSV saturation of the RGB color without allocating
+     *
+     * @param rgb ARGB integer (alpha channel is ignored)
+     * @return saturation in [0, 1]
+     */
+    public static float saturation(int rgb) {
+        int red = (rgb >> 16) & 0xFF;
+        int green = (rgb >> 8) & 0xFF;
+        int blue = rgb & 0xFF;
+
+        int max = Math.max(red, Math.max(green, blue));
+        int min = Math.min(red, Math.min(green, blue));
+
+        return HSVTables.SATURATION[(max << 8) | min];
+    }
+
+    /**
+     * Calculates HSV value of the RGB color without allocating
+     *
+     * @param rgb ARGB integer (alpha channel is ignored)
+     * @return value in [0, 1]
+     */
+    public static float value(int rgb) {
+        int red = (rgb >> 16) & 0xFF;
+        int green = (rgb >> 8) & 0xFF;
+        int blue = rgb & 0xFF;
+
+        return HSVTables.CHANNEL[Math.max(red, Math.max(green, blue))];
     }
 
     /**
@@ -45,9 +81,26 @@ public class PixelColorUtil {
      * @return normalized distance [0-100] between colors in the HSV space
      */
     public static int normalizedDistanceHSV(float[] hsv1, float[] hsv2) {
-        float deltaH = Math.min(Math.abs(hsv1[0] - hsv2[0]), 1 - Math.abs(hsv1[0] - hsv2[0]));
-        float deltaS = hsv1[1] - hsv2[1];
-        float deltaV = hsv1[2] - hsv2[2];
+        return normalizedDistanceHSV(hsv1[0], hsv1[1], hsv1[2], hsv2[0], hsv2[1], hsv2[2]);
+    }
+
+    /**
+     * Calculates a normalized distance between two RGB colors in the HSV color space.
+     * Gives the same results as converting both colors with convertRGBtoHSV(), but does not allocate
+     *
+     * @return normalized distance [0-100] between colors in the HSV space
+     */
+    public static int normalizedDistanceHSV(int rgb1, int rgb2) {
+        return normalizedDistanceHSV(
+                hue(rgb1), saturation(rgb1), value(rgb1),
+                hue(rgb2), saturation(rgb2), value(rgb2)
+        );
+    }
+
+    private static int normalizedDistanceHSV(float h1, float s1, float v1, float h2, float s2, float v2) {
+        float deltaH = Math.min(Math.abs(h1 - h2), 1 - Math.abs(h1 - h2));
+        float deltaS = s1 - s2;
+        float deltaV = v1 - v2;
 
         float squaredDistance = deltaH * deltaH + deltaS * deltaS + deltaV * deltaV;
         float maxSquaredDistance = 2.25f;
@@ -61,22 +114,7 @@ public class PixelColorUtil {
      * @return normalized distance [0-100] between colors in the RGB space
      */
     public static int normalizedDistanceRGB(int rgb1, int rgb2) {
-        int r1 = (rgb1 >> 16) & 0xFF;
-        int g1 = (rgb1 >> 8) & 0xFF;
-        int b1 = rgb1 & 0xFF;
-
-        int r2 = (rgb2 >> 16) & 0xFF;
-        int g2 = (rgb2 >> 8) & 0xFF;
-        int b2 = rgb2 & 0xFF;
-
-        int redDiff = r1-r2;
-        int greenDiff = g1 - g2;
-        int blueDiff = b1 - b2;
-
-        float squaredDistance = (redDiff * redDiff) + (greenDiff * greenDiff) + (blueDiff * blueDiff);
-        int maxSquaredDistance = 255 * 255 * 3;
-
-        return Math.round( (squaredDistance / maxSquaredDistance) * 100 );
+        return normalizeSquaredDistance(squaredDistanceRGB(rgb1, rgb2), MAX_SQUARED_DISTANCE);
     }
 
     /**
@@ -86,17 +124,35 @@ public class PixelColorUtil {
      * @return normalized distance [0-100] between colors in the RGB space
      */
     public static int normalizedDistanceWeightedRGB(int rgb1, int rgb2) {
-        int r1 = (rgb1 >> 16) & 0xFF;
-        int g1 = (rgb1 >> 8) & 0xFF;
-        int b1 = rgb1 & 0xFF;
+        return normalizeSquaredDistance(squaredWeightedDistanceRGB(rgb1, rgb2), MAX_WEIGHTED_DISTANCE);
+    }
+
+    /**
+     * Calculates a sum of squared channel differences of two RGB colors
+     *
+     * @return squared distance [0-195075]
+     */
+    public static int squaredDistanceRGB(int rgb1, int rgb2) {
+        int redDiff = ((rgb1 >> 16) & 0xFF) - ((rgb2 >> 16) & 0xFF);
+        int greenDiff = ((rgb1 >> 8) & 0xFF) - ((rgb2 >> 8) & 0xFF);
+        int blueDiff = (rgb1 & 0xFF) - (rgb2 & 0xFF);
 
+        return (redDiff * redDiff) + (greenDiff * greenDiff) + (blueDiff * blueDiff);
+    }
+
+    /**
+     * Calculates a weighted sum of squared channel differences of two RGB colors.
+     * Red and blue weights depend on the mean red value, green has a fixed, higher weight
+     *
+     * @return squared weighted distance [0-199496700]
+     */
+    public static int squaredWeightedDistanceRGB(int rgb1, int rgb2) {
+        int r1 = (rgb1 >> 16) & 0xFF;
         int r2 = (rgb2 >> 16) & 0xFF;
-        int g2 = (rgb2 >> 8) & 0xFF;
-        int b2 = rgb2 & 0xFF;
 
-        int redDiff = r1-r2;
-        int greenDiff = g1 - g2;
-        int blueDiff = b1 - b2;
+        int redDiff = r1 - r2;
+        int greenDiff = ((rgb1 >> 8) & 0xFF) - ((rgb2 >> 8) & 0xFF);
+        int blueDiff = (rgb1 & 0xFF) - (rgb2 & 0xFF);
 
         int redMean = (r1 + r2) >> 1;
 
@@ -105,9 +161,184 @@ public class PixelColorUtil {
         int greenWeight = 1024;
         int blueWeight = 512 + ((255 - redMean) << 1);
 
-        float squaredWeightedDistance = (redWeight * redDiff * redDiff) + (greenWeight * greenDiff * greenDiff) + (blueWeight * blueDiff * blueDiff);
-        int maxWeightedDistance = (1022 * 255 * 255) + (1024 * 255 * 255) + (1022 * 255 * 255);
+        return (redWeight * redDiff * redDiff) + (greenWeight * greenDiff * greenDiff) + (blueWeight * blueDiff * blueDiff);
+    }
+
+    /**
+     * Finds the lowest squared RGB distance which normalized distance exceeds the threshold,
+     * so pixels can be compared without normalizing and rounding their distances
+     *
+     * @param threshold normalized distance threshold [0-100]
+     * @return squared distance cut-off, above the max squared distance if no distance exceeds the threshold
+     */
+    public static int squaredDistanceCutoffRGB(int threshold) {
+        return findSquaredDistanceCutoff(threshold, MAX_SQUARED_DISTANCE);
+    }
+
+    /**
+     * Finds the lowest squared weighted RGB distance which normalized distance exceeds the threshold,
+     * so pixels can be compared without normalizing and rounding their distances
+     *
+     * @param threshold normalized distance threshold [0-100]
+     * @return squared weighted distance cut-off, above the max distance if no distance exceeds the threshold
+     */
+    public static int squaredWeightedDistanceCutoffRGB(int threshold) {
+        return findSquaredDistanceCutoff(threshold, MAX_WEIGHTED_DISTANCE);
+    }
+
+    private static int normalizeSquaredDistance(int squaredDistance, int maxSquaredDistance) {
+        return Math.round( ((float) squaredDistance / maxSquaredDistance) * 100 );
+    }
+
+    /**
+     * Every float operation of the normalization is monotonic, so normalized distance never decreases
+     * with the squared distance and the cut-off can be found by binary search with the same operations
+     */
+    private static int findSquaredDistanceCutoff(int threshold, int maxSquaredDistance) {
+        int low = 0;
+        int high = maxSquaredDistance + 1;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (normalizeSquaredDistance(middle, maxSquaredDistance) > threshold) high = middle;
+            else low = middle + 1;
+        }
+        return low;
+    }
+
+    /**
+     * Converts RGB color into CIE Lab coordinates, assuming sRGB with D65 white point
+     *
+     * @param rgb ARGB integer (alpha channel is ignored)
+     * @return L (0-100), a and b channels
+     */
+    public static float[] convertRGBtoLab(int rgb) {
+        float fX = labX(rgb);
+        float fY = labY(rgb);
+        float fZ = labZ(rgb);
+
+        return new float[]{116 * fY - 16, 500 * (fX - fY), 200 * (fY - fZ)};
+    }
+
+    /**
+     * Calculates CIE76 color difference (Delta E) between two RGB colors converted to Lab.
+     * Delta E of 1 is about the smallest perceptible difference, so the distance is not rescaled,
+     * only capped at 100 - black and white are 100 apart. Conversion uses lookup tables, no allocations
+     *
+     * @return Delta E [0-100] between colors
+     */
+    public static int normalizedDistanceLab(int rgb1, int rgb2) {
+        if (((rgb1 ^ rgb2) & 0xFFFFFF) == 0) return 0;
+
+        float fY1 = labY(rgb1);
+        float fY2 = labY(rgb2);
+
+        float deltaL = 116 * (fY1 - fY2);
+        float deltaA = 500 * ((labX(rgb1) - fY1) - (labX(rgb2) - fY2));
+        float deltaB = 200 * ((fY1 - labZ(rgb1)) - (fY2 - labZ(rgb2)));
+
+        float deltaE = (float) Math.sqrt(deltaL * deltaL + deltaA * deltaA + deltaB * deltaB);
+
+        return Math.min(100, Math.round(deltaE));
+    }
+
+    private static float labX(int rgb) {
+        float[] tables = LabTables.CONTRIBUTIONS;
+        return LabTables.f(tables[(rgb >> 16) & 0xFF] + tables[768 + ((rgb >> 8) & 0xFF)] + tables[1536 + (rgb & 0xFF)]);
+    }
+
+    private static float labY(int rgb) {
+        float[] tables = LabTables.CONTRIBUTIONS;
+        return LabTables.f(tables[256 + ((rgb >> 16) & 0xFF)] + tables[1024 + ((rgb >> 8) & 0xFF)] + tables[1792 + (rgb & 0xFF)]);
+    }
+
+    private static float labZ(int rgb) {
+        float[] tables = LabTables.CONTRIBUTIONS;
+        return LabTables.f(tables[512 + ((rgb >> 16) & 0xFF)] + tables[1280 + ((rgb >> 8) & 0xFF)] + tables[2048 + (rgb & 0xFF)]);
+    }
+
+    /**
+     * Float terms of the RGB to HSV conversion, precomputed for every channel value (or max/min channel pair).
+     * Values are calculated with the same float operations as the direct conversion, so results are identical.
+     * Built on first use of HSV methods.
+     */
+    private static final class HSVTables {
+        static final float[] CHANNEL = new float[256];
+        static final float[] INVERTED_DELTA = new float[256 * 256];
+        static final float[] SATURATION = new float[256 * 256];
+
+        static {
+            for (int i = 0; i < 256; i++) {
+                CHANNEL[i] = i / 255f;
+            }
+
+            for (int max = 0; max < 256; max++) {
+                for (int min = 0; min < max; min++) {
+                    float delta = CHANNEL[max] - CHANNEL[min];
+                    INVERTED_DELTA[(max << 8) | min] = 1 / delta;
+                    SATURATION[(max << 8) | min] = delta / CHANNEL[max];
+                }
+            }
+        }
+    }
+
+    /**
+     * Terms of the sRGB to CIE Lab conversion. Every channel value is linearized and multiplied by its
+     * XYZ matrix column divided by the D65 white point, so XYZ coordinates are sums of three lookups.
+     * Lab nonlinearity (cube root above the linear segment) is tabulated and linearly interpolated,
+     * which keeps Lab channels within 0.005 of the exact conversion.
+     * Built once per JVM, on first use of Lab methods.
+     */
+    private static final class LabTables {
+        // Red, green and blue contributions to X, Y and Z: CONTRIBUTIONS[(channel * 3 + coordinate) * 256 + value]
+        static final float[] CONTRIBUTIONS = new float[9 * 256];
+
+        private static final int F_STEPS = 4096;
+        // XYZ of saturated colors can slightly exceed the white point due to rounding of the matrix
+        private static final int F_POINTS = F_STEPS + F_STEPS / 16;
+        // Value and slope of every interpolated segment
+        private static final float[] F_INTERPOLATION = new float[2 * F_POINTS];
+
+        private static final double[][] SRGB_TO_XYZ = {
+                {0.4124564, 0.3575761, 0.1804375},
+                {0.2126729, 0.7151522, 0.0721750},
+                {0.0193339, 0.1191920, 0.9503041}
+        };
+        private static final double[] D65_WHITE = {0.95047, 1.0, 1.08883};
+
+        static {
+            for (int value = 0; value < 256; value++) {
+                double channel = value / 255.0;
+                double linear = channel <= 0.04045 ? channel / 12.92 : Math.pow((channel + 0.055) / 1.055, 2.4);
+
+                for (int rgb = 0; rgb < 3; rgb++) {
+                    for (int xyz = 0; xyz < 3; xyz++) {
+                        CONTRIBUTIONS[(rgb * 3 + xyz) * 256 + value] = (float) (linear * SRGB_TO_XYZ[xyz][rgb] / D65_WHITE[xyz]);
+                    }
+                }
+            }
+
+            for (int i = 0; i + 1 < F_POINTS; i++) {
+                float value = (float) exactF((double) i / F_STEPS);
+                F_INTERPOLATION[2 * i] = value;
+                F_INTERPOLATION[2 * i + 1] = (float) exactF((double) (i + 1) / F_STEPS) - value;
+            }
+        }
+
+        static double exactF(double t) {
+            double delta = 6.0 / 29;
+            return t > delta * delta * delta ? Math.cbrt(t) : t / (3 * delta * delta) + 4.0 / 29;
+        }
+
+        /**
+         * Contributions are never negative and their sums stay below the table end, so t needs no clamping
+         */
+        static float f(float t) {
+            float position = t * F_STEPS;
+            int index = (int) position;
 
-        return Math.round( (squaredWeightedDistance / maxWeightedDistance) * 100 );
+            return F_INTERPOLATION[2 * index] + F_INTERPOLATION[2 * index + 1] * (position - index);
+        }
     }
 }
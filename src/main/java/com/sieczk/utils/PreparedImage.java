@@ -0,0 +1,77 @@
+package com.sieczk.utils;
+
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Image together with forms derived from it by the comparators - luminosity, SSIM convolutions,
+ * hashes and tile fingerprints.<p>
+ * Every form is calculated on the first request and cached, so an image compared against many others,
+ * e.g. a baseline checked against every screenshot of a suite, is processed only once.
+ * Forms which depend on comparator settings are cached per settings, so one prepared image
+ * can be shared by differently configured comparators.<p>
+ * Prepared image is thread safe. The image must not be modified after it is prepared,
+ * since cached forms would no longer match it.
+ */
+public class PreparedImage {
+    private final BufferedImage image;
+
+    private int[] luminosity;
+    private final Map<Object, Object> derivedForms = new HashMap<>();
+
+
+    public PreparedImage(BufferedImage image) {
+        if (image == null)
+            throw new IllegalArgumentException("Prepared image cannot be null");
+
+        this.image = image;
+    }
+
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    public int getWidth() {
+        return image.getWidth();
+    }
+
+    public int getHeight() {
+        return image.getHeight();
+    }
+
+    /**
+     * Returns Y channel (YCbCr) of the image, see ImageUtil.extractLuminosityArray().
+     * The array is shared by all callers and must not be modified
+     *
+     * @return 1D array of Y channel int values
+     */
+    public synchronized int[] getLuminosity() {
+        if (luminosity == null) {
+            luminosity = ImageUtil.extractLuminosityArray(image);
+        }
+        return luminosity;
+    }
+
+    /**
+     * Returns form derived from the image, calculating it on the first request.
+     * Key identifies both the kind of the form and settings it depends on, so it should implement equals() and hashCode(),
+     * records are the simplest choice. Returned form is shared by all callers and must not be modified
+     *
+     * @param key identifier of the derived form
+     * @param derivation calculates the form from this prepared image
+     * @return cached derived form
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T getDerived(Object key, Function<PreparedImage, T> derivation) {
+        // Derivations may request other forms of this image, so the map cannot be updated by computeIfAbsent()
+        Object derived = derivedForms.get(key);
+
+        if (derived == null) {
+            derived = derivation.apply(this);
+            derivedForms.put(key, derived);
+        }
+        return (T) derived;
+    }
+}
@@ -73,6 +73,15 @@ public interface ImageAccessor {
      */
     int[] getPixelsArray();
 
+    /**
+     * Copies ARGB integers of a single image row into provided array. Uses TYPE_INT_ARGB color model
+     *
+     * @param y the Y coordinate of the row
+     * @param row destination array, at least image width long
+     * @return destination array filled with the row pixels
+     */
+    int[] getRow(int y, int[] row);
+
     /**
      * Overwrites pixel data under 1D array index
      * @param index image 1D array index
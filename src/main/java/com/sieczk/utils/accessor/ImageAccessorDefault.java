@@ -33,6 +33,16 @@ public class ImageAccessorDefault extends ImageAccessorImpl {
         imageRGBData = bufferedImage.getRGB(0,0, width, height, null, 0, width);
     }
 
+    @Override
+    public int[] getRow(int y, int[] row) {
+        System.arraycopy(imageRGBData, y * width, row, 0, width);
+
+        for (int x = 0; x < width; x++) {
+            row[x] |= FULL_ALPHA;
+        }
+        return row;
+    }
+
     @Override
     public int getAlpha(int index) {
         return (imageRGBData[index] & ALPHA_MASK) >>> 24;
@@ -81,6 +81,19 @@ public abstract class ImageAccessorImpl implements ImageAccessor {
         return pixels;
     }
 
+    /**
+     * Returns RGB values for a single image row.
+     *
+     * @return destination array filled with ARGB integers of the row
+     */
+    @Override
+    public int[] getRow(int y, int[] row) {
+        for (int x = 0; x < width; x++) {
+            row[x] = getPixel(x, y);
+        }
+        return row;
+    }
+
     /**
      * Overwrites pixel data under 1D array index
      * @param index image 1D array index
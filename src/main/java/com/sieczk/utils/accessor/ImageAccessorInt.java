@@ -61,6 +61,27 @@ public class ImageAccessorInt extends ImageAccessorImpl {
         offsetBlue  = findFirstSetBitIndex(maskBlue);
     }
 
+    /**
+     * Returns RGB values for a single image row.
+     * Rows of images already stored in (A)RGB order are copied directly from the buffer
+     *
+     * @return destination array filled with ARGB integers of the row
+     */
+    @Override
+    public int[] getRow(int y, int[] row) {
+        if (maskRed != 0x00ff0000 || maskBlue != 0x000000ff)
+            return super.getRow(y, row);
+
+        System.arraycopy(imageDataInt, y * width, row, 0, width);
+
+        if (!hasAlpha) {
+            for (int x = 0; x < width; x++) {
+                row[x] |= FULL_ALPHA;
+            }
+        }
+        return row;
+    }
+
     @Override
     public int getAlpha(int index) {
         return hasAlpha ? (imageDataInt[index] & maskAlpha) >>> offsetAlpha : 255;
@@ -3,16 +3,33 @@ package analyzers.direct;
 import com.sieczk.analyzers.common.PixelPoint;
 import com.sieczk.analyzers.direct.ColorSpace;
 import com.sieczk.analyzers.direct.DirectAnalyzer;
+import com.sieczk.analyzers.direct.DistanceStatistics;
+import com.sieczk.analyzers.direct.DistanceKernel;
+import com.sieczk.analyzers.direct.DistanceKernelScalar;
+import com.sieczk.analyzers.direct.DistanceKernelVector;
+import com.sieczk.analyzers.direct.ExcludedAreas;
+import com.sieczk.analyzers.direct.FastCompareStrategy;
 import com.sieczk.analyzers.direct.Mismatches;
+import com.sieczk.analyzers.direct.TileFingerprints;
 import com.sieczk.comparators.DirectComparatorConfig;
+import com.sieczk.utils.PixelColorUtil;
+import com.sieczk.utils.ImageUtil;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import utils.TestImages;
 
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class DirectAnalyzerTest {
 
@@ -160,4 +177,504 @@ public class DirectAnalyzerTest {
             assert(mismatches.getMismatchedPixels().contains(p));
         }
     }
+
+    @Test
+    void testCompare_parallelMatchesSequential() {
+        BufferedImage actual = TestImages.randomImage(301, 157, 1);
+        BufferedImage checked = TestImages.randomImage(301, 157, 2);
+
+        Mismatches sequential = new DirectAnalyzer(defaultConfig).compare(actual, checked);
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            DirectComparatorConfig parallelConfig = new DirectComparatorConfig()
+                    .colorDistanceThreshold(10)
+                    .colorSpace(ColorSpace.RGB)
+                    .parallelism(3)
+                    .executor(executor);
+            Mismatches parallel = new DirectAnalyzer(parallelConfig).compare(actual, checked);
+
+            Assertions.assertEquals(sequential.getMismatchesCount(), parallel.getMismatchesCount());
+            Assertions.assertEquals(sequential.getMismatchedPixels(), parallel.getMismatchedPixels());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testCompareEveryNth_parallelMatchesSequential() {
+        BufferedImage actual = TestImages.randomImage(97, 211, 3);
+        BufferedImage checked = TestImages.randomImage(97, 211, 4);
+
+        DirectComparatorConfig config = new DirectComparatorConfig()
+                .pixelsSkipped(2)
+                .colorDistanceThreshold(10);
+        Mismatches sequential = new DirectAnalyzer(config).compareEveryNth(actual, checked);
+        Mismatches parallel = new DirectAnalyzer(config.parallelism(4)).compareEveryNth(actual, checked);
+
+        Assertions.assertEquals(sequential.getMismatchesCount(), parallel.getMismatchesCount());
+        Assertions.assertEquals(sequential.getMismatchedPixels(), parallel.getMismatchedPixels());
+        parallel.forEachMismatch((x, y) -> {
+            Assertions.assertEquals(0, x % 3);
+            Assertions.assertEquals(0, y % 3);
+        });
+    }
+
+    @Test
+    void testCompare_startRowSkipsIdenticalRows() {
+        BufferedImage actual = TestImages.randomImage(64, 48, 7);
+        BufferedImage checked = ImageUtil.deepCopy(actual);
+        checked.setRGB(10, 20, ~actual.getRGB(10, 20));
+        checked.setRGB(63, 47, ~actual.getRGB(63, 47));
+
+        int startRow = ImageUtil.findFirstDifferentRow(actual, checked);
+        DirectAnalyzer analyzer = new DirectAnalyzer(defaultConfig);
+        Mismatches expected = analyzer.compare(actual, checked);
+
+        Assertions.assertEquals(20, startRow);
+        Assertions.assertEquals(expected.getMismatchedPixels(), analyzer.compare(actual, checked, startRow).getMismatchedPixels());
+        Assertions.assertEquals(expected.getMismatchedPixels(),
+                new DirectAnalyzer(defaultConfig.parallelism(4)).compare(actual, checked, startRow).getMismatchedPixels());
+        Assertions.assertEquals(2, analyzer.countMismatches(actual, checked, new ExcludedAreas(), 100, startRow));
+    }
+
+    @Test
+    void testCountMismatches_matchesFullComparison() {
+        BufferedImage actual = TestImages.randomImage(120, 80, 5);
+        BufferedImage checked = TestImages.randomImage(120, 80, 6);
+        DirectAnalyzer analyzer = new DirectAnalyzer(defaultConfig);
+
+        int expected = analyzer.compare(actual, checked).getMismatchesCount();
+        int counted = analyzer.countMismatches(actual, checked, new ExcludedAreas(), Integer.MAX_VALUE);
+
+        Assertions.assertEquals(expected, counted);
+    }
+
+    @Test
+    void testCountMismatches_stopsAtLimit() {
+        BufferedImage actual = new BufferedImage(50, 50, BufferedImage.TYPE_INT_RGB);
+        BufferedImage checked = new BufferedImage(50, 50, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 50; y++) {
+            for (int x = 0; x < 50; x++) {
+                checked.setRGB(x, y, 0xFFFFFF);
+            }
+        }
+
+        Assertions.assertEquals(10, new DirectAnalyzer(defaultConfig).countMismatches(actual, checked, new ExcludedAreas(), 10));
+        Assertions.assertEquals(10, new DirectAnalyzer(defaultConfig.parallelism(4)).countMismatches(actual, checked, new ExcludedAreas(), 10));
+    }
+
+    @Test
+    void testCountMismatches_skipsExcludedAreas() {
+        BufferedImage actual = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        BufferedImage checked = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        checked.setRGB(1, 1, 0xFFFFFF);
+        checked.setRGB(8, 8, 0xFFFFFF);
+
+        ExcludedAreas excludedAreas = new ExcludedAreas();
+        excludedAreas.excludeArea(new Rectangle(0, 0, 5, 5));
+
+        int counted = new DirectAnalyzer(defaultConfig).countMismatches(actual, checked, excludedAreas, 100);
+
+        Assertions.assertEquals(1, counted);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {64, 128})
+    void testCompare_fingerprintsMatchFullComparison(int tileSize) {
+        BufferedImage actual = TestImages.randomImage(300, 200, 9);
+        BufferedImage checked = locallyChangedImage(actual, 10, 4);
+
+        DirectAnalyzer analyzer = new DirectAnalyzer(defaultConfig);
+        Mismatches expected = analyzer.compare(actual, checked);
+        TileFingerprints fingerprints = TileFingerprints.of(actual, tileSize);
+
+        Mismatches fingerprinted = new DirectAnalyzer(new DirectComparatorConfig()
+                .colorDistanceThreshold(10)
+                .fingerprintTileSize(tileSize))
+                .compare(actual, checked);
+        Mismatches reused = analyzer.compare(actual, checked, null, 0, fingerprints);
+        Mismatches parallel = new DirectAnalyzer(defaultConfig.parallelism(3))
+                .compare(actual, checked, null, ImageUtil.findFirstDifferentRow(actual, checked), fingerprints);
+
+        Assertions.assertTrue(expected.getMismatchesCount() > 0);
+        for (Mismatches mismatches : List.of(fingerprinted, reused, parallel)) {
+            Assertions.assertEquals(expected.getMismatchesCount(), mismatches.getMismatchesCount());
+            Assertions.assertEquals(expected.getMismatchedPixels(), mismatches.getMismatchedPixels());
+        }
+    }
+
+    @Test
+    void testCountMismatches_fingerprintsMatchFullComparison() {
+        BufferedImage actual = TestImages.randomImage(250, 190, 11);
+        BufferedImage checked = locallyChangedImage(actual, 12, 3);
+        TileFingerprints fingerprints = TileFingerprints.of(actual, 64);
+        DirectAnalyzer analyzer = new DirectAnalyzer(defaultConfig);
+
+        int expected = analyzer.compare(actual, checked).getMismatchesCount();
+
+        Assertions.assertEquals(expected, analyzer.countMismatches(actual, checked, new ExcludedAreas(), Integer.MAX_VALUE, 0, fingerprints));
+        Assertions.assertEquals(0, analyzer.countMismatches(actual, ImageUtil.deepCopy(actual), new ExcludedAreas(), Integer.MAX_VALUE, 0, fingerprints));
+    }
+
+    @Test
+    void testCompare_fingerprintsOfDifferentImageSizeRejected() {
+        BufferedImage actual = TestImages.randomImage(100, 100, 13);
+        TileFingerprints fingerprints = TileFingerprints.of(TestImages.randomImage(100, 64, 13), 64);
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new DirectAnalyzer(defaultConfig).compare(actual, actual, null, 0, fingerprints));
+    }
+
+    @Test
+    void testCompare_excludedPixelsSkippedDuringScan() {
+        BufferedImage actual = TestImages.randomImage(300, 170, 16);
+        BufferedImage checked = TestImages.randomImage(300, 170, 17);
+
+        ExcludedAreas excludedAreas = new ExcludedAreas();
+        excludedAreas.excludeArea(new Rectangle(0, 0, 200, 40));
+        excludedAreas.excludeArea(new Rectangle(30, 60, 7, 90));
+        excludedAreas.excludeArea(new Rectangle(128, 100, 172, 70));
+        excludedAreas.includeArea(new Rectangle(150, 120, 10, 10));
+
+        List<PixelPoint> expected = new ArrayList<>();
+        new DirectAnalyzer(defaultConfig).compare(actual, checked).forEachMismatch((x, y) -> {
+            if (!excludedAreas.contains(x, y)) expected.add(new PixelPoint(x, y));
+        });
+
+        Mismatches sequential = new DirectAnalyzer(defaultConfig).compare(actual, checked, excludedAreas);
+        Mismatches fingerprinted = new DirectAnalyzer(defaultConfig)
+                .compare(actual, checked, excludedAreas, 0, TileFingerprints.of(actual, 64));
+        Mismatches parallel = new DirectAnalyzer(defaultConfig.parallelism(3)).compare(actual, checked, excludedAreas);
+
+        for (Mismatches mismatches : List.of(sequential, fingerprinted, parallel)) {
+            Assertions.assertEquals(expected.size(), mismatches.getMismatchesCount());
+            Assertions.assertEquals(expected, mismatches.getMismatchedPixels());
+        }
+        Assertions.assertEquals(expected.size(),
+                new DirectAnalyzer(defaultConfig).countMismatches(actual, checked, excludedAreas, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void testCompareEveryNth_excludedPixelsSkippedDuringScan() {
+        BufferedImage actual = TestImages.randomImage(150, 90, 18);
+        BufferedImage checked = TestImages.randomImage(150, 90, 19);
+
+        ExcludedAreas excludedAreas = new ExcludedAreas();
+        excludedAreas.excludeArea(new Rectangle(10, 10, 100, 50));
+
+        Mismatches expected = new DirectAnalyzer(fastCompareConfig).compareEveryNth(actual, checked);
+        expected.excludeResults(excludedAreas);
+        Mismatches mismatches = new DirectAnalyzer(fastCompareConfig).compareEveryNth(actual, checked, excludedAreas, 0);
+
+        Assertions.assertEquals(expected.getMismatchesCount(), mismatches.getMismatchesCount());
+        Assertions.assertEquals(expected.getMismatchedPixels(), mismatches.getMismatchedPixels());
+    }
+
+    @ParameterizedTest
+    @EnumSource(ColorSpace.class)
+    void testCollectStatistics_matchesPixelByPixelDistances(ColorSpace colorSpace) {
+        BufferedImage actual = TestImages.randomImage(230, 150, 20);
+        BufferedImage checked = locallyChangedImage(actual, 21, 5);
+        DirectComparatorConfig config = new DirectComparatorConfig()
+                .colorSpace(colorSpace)
+                .colorDistanceThreshold(10);
+
+        ExcludedAreas excludedAreas = new ExcludedAreas();
+        excludedAreas.excludeArea(new Rectangle(20, 10, 90, 60));
+        excludedAreas.includeArea(new Rectangle(40, 30, 10, 10));
+
+        long[] expectedHistogram = new long[DistanceStatistics.MAX_DISTANCE + 1];
+        for (int y = 0; y < actual.getHeight(); y++) {
+            for (int x = 0; x < actual.getWidth(); x++) {
+                if (excludedAreas.contains(x, y)) continue;
+                expectedHistogram[distance(colorSpace, actual.getRGB(x, y), checked.getRGB(x, y))]++;
+            }
+        }
+        Mismatches expectedMismatches = new DirectAnalyzer(config).compare(actual, checked, excludedAreas);
+
+        DistanceStatistics sequential = new DirectAnalyzer(config).collectStatistics(actual, checked, excludedAreas);
+        DistanceStatistics fingerprinted = new DirectAnalyzer(config)
+                .collectStatistics(actual, checked, excludedAreas, ImageUtil.findFirstDifferentRow(actual, checked),
+                        TileFingerprints.of(actual, 64), null);
+        DistanceStatistics parallel = new DirectAnalyzer(new DirectComparatorConfig()
+                .colorSpace(colorSpace)
+                .colorDistanceThreshold(10)
+                .parallelism(3))
+                .collectStatistics(actual, checked, excludedAreas);
+
+        for (DistanceStatistics statistics : List.of(sequential, fingerprinted, parallel)) {
+            Assertions.assertArrayEquals(expectedHistogram, statistics.getHistogram());
+            Assertions.assertEquals(expectedMismatches.getMismatchesCount(), statistics.getMismatchesCount());
+        }
+    }
+
+    @Test
+    void testCollectStatistics_derivedValues() {
+        BufferedImage actual = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        BufferedImage checked = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        checked.setRGB(1, 1, 0xFFFFFF);
+        checked.setRGB(2, 2, 0x808080);
+
+        ExcludedAreas excludedAreas = new ExcludedAreas();
+        excludedAreas.excludeArea(new Rectangle(5, 0, 5, 10));
+
+        DistanceStatistics statistics = new DirectAnalyzer(defaultConfig).collectStatistics(actual, checked, excludedAreas);
+        int halfDistance = PixelColorUtil.normalizedDistanceRGB(0, 0x808080);
+
+        Assertions.assertEquals(50, statistics.getComparedPixels());
+        Assertions.assertEquals(2, statistics.getMismatchesCount());
+        Assertions.assertEquals(2.0, statistics.getMismatchedPercentage());
+        Assertions.assertEquals(100, statistics.getMaxDistance());
+        Assertions.assertEquals((100 + halfDistance) / 50.0, statistics.getMeanDistance(), 1e-9);
+    }
+
+    @Test
+    void testCollectStatistics_marksSameMismatchesAsCompare() {
+        BufferedImage actual = TestImages.randomImage(200, 130, 22);
+        BufferedImage checked = locallyChangedImage(actual, 23, 4);
+        ExcludedAreas excludedAreas = new ExcludedAreas();
+        excludedAreas.excludeArea(new Rectangle(50, 40, 60, 30));
+
+        DirectAnalyzer analyzer = new DirectAnalyzer(defaultConfig);
+        Mismatches expected = analyzer.compare(actual, checked, excludedAreas);
+
+        Mismatches mismatches = new Mismatches(actual.getWidth(), actual.getHeight(), 3);
+        DistanceStatistics statistics = analyzer.collectStatistics(actual, checked, excludedAreas, 0, null, mismatches);
+
+        Assertions.assertTrue(expected.getMismatchesCount() > 0);
+        Assertions.assertEquals(expected.getMismatchesCount(), statistics.getMismatchesCount());
+        Assertions.assertEquals(expected.getMismatchesCount(), mismatches.getMismatchesCount());
+        Assertions.assertEquals(expected.getMismatchedPixels(), mismatches.getMismatchedPixels());
+    }
+
+    @ParameterizedTest
+    @EnumSource(ColorSpace.class)
+    void testCompareFast_pyramidFindsThinLinesMissedByEveryNth(ColorSpace colorSpace) {
+        BufferedImage actual = new BufferedImage(200, 120, BufferedImage.TYPE_INT_RGB);
+        BufferedImage checked = new BufferedImage(200, 120, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 120; y++) {
+            for (int x = 0; x < 200; x++) {
+                actual.setRGB(x, y, 0x808080);
+                checked.setRGB(x, y, x == 51 || y == 77 ? 0x801080 : 0x808080);
+            }
+        }
+
+        DirectComparatorConfig config = new DirectComparatorConfig()
+                .colorSpace(colorSpace)
+                .colorDistanceThreshold(5)
+                .pixelsSkipped(1);
+
+        Mismatches expected = new DirectAnalyzer(config).compare(actual, checked);
+        Mismatches everyNth = new DirectAnalyzer(config).compareFast(actual, checked, null, 0);
+        Mismatches pyramid = new DirectAnalyzer(config.fastCompareStrategy(FastCompareStrategy.PYRAMID)).compareFast(actual, checked, null, 0);
+
+        Assertions.assertEquals(319, expected.getMismatchesCount());
+        Assertions.assertEquals(0, everyNth.getMismatchesCount());
+        Assertions.assertEquals(expected.getMismatchedPixels(), pyramid.getMismatchedPixels());
+    }
+
+    @ParameterizedTest
+    @EnumSource(ColorSpace.class)
+    void testCompareFast_pyramidFindsChangesCancellingOutInBlock(ColorSpace colorSpace) {
+        // Stroke 6 pixels wide shifted by 1 pixel inside a single block, and two swapped colors in the next block
+        BufferedImage actual = new BufferedImage(16, 8, BufferedImage.TYPE_INT_RGB);
+        BufferedImage checked = new BufferedImage(16, 8, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                actual.setRGB(x, y, x >= 1 && x <= 6 ? 0x000000 : 0xFFFFFF);
+                checked.setRGB(x, y, x >= 2 && x <= 7 ? 0x000000 : 0xFFFFFF);
+            }
+            for (int x = 8; x < 16; x++) {
+                actual.setRGB(x, y, 0x808080);
+                checked.setRGB(x, y, 0x808080);
+            }
+        }
+        actual.setRGB(10, 3, 0xFF0000);
+        actual.setRGB(11, 3, 0x0000FF);
+        checked.setRGB(10, 3, 0x0000FF);
+        checked.setRGB(11, 3, 0xFF0000);
+
+        DirectComparatorConfig config = new DirectComparatorConfig()
+                .colorSpace(colorSpace)
+                .colorDistanceThreshold(1)
+                .fastCompareStrategy(FastCompareStrategy.PYRAMID)
+                .pyramidBlockSize(8);
+
+        Mismatches expected = new DirectAnalyzer(config).compare(actual, checked);
+        Mismatches pyramid = new DirectAnalyzer(config).compareFast(actual, checked, null, 0);
+
+        Assertions.assertEquals(18, expected.getMismatchesCount());
+        Assertions.assertEquals(expected.getMismatchedPixels(), pyramid.getMismatchedPixels());
+    }
+
+    @ParameterizedTest
+    @EnumSource(ColorSpace.class)
+    void testCompareFast_pyramidFindsIsolatedPixels(ColorSpace colorSpace) {
+        BufferedImage actual = new BufferedImage(256, 256, BufferedImage.TYPE_INT_RGB);
+        BufferedImage checked = new BufferedImage(256, 256, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(30);
+        for (int i = 0; i < 40; i++) {
+            checked.setRGB(random.nextInt(256), random.nextInt(256), 0x640000);
+        }
+
+        DirectComparatorConfig config = new DirectComparatorConfig()
+                .colorSpace(colorSpace)
+                .colorDistanceThreshold(1)
+                .fastCompareStrategy(FastCompareStrategy.PYRAMID);
+
+        Mismatches expected = new DirectAnalyzer(config).compare(actual, checked);
+        Mismatches pyramid = new DirectAnalyzer(config).compareFast(actual, checked, null, 0);
+
+        Assertions.assertTrue(expected.getMismatchesCount() > 30);
+        Assertions.assertEquals(expected.getMismatchedPixels(), pyramid.getMismatchedPixels());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {4, 8, 16})
+    void testCompareFast_pyramidMatchesFullComparisonForLines(int blockSize) {
+        Random random = new Random(20);
+        BufferedImage actual = new BufferedImage(301, 157, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 157; y++) {
+            for (int x = 0; x < 301; x++) {
+                actual.setRGB(x, y, random.nextInt(100) << 16 | random.nextInt(100) << 8 | random.nextInt(100));
+            }
+        }
+
+        // Lines brightened by the same shift, like borders and underlines
+        BufferedImage checked = ImageUtil.deepCopy(actual);
+        for (int i = 0; i < 8; i++) {
+            int row = random.nextInt(157);
+            int column = random.nextInt(301);
+            for (int x = 0; x < 301; x++) checked.setRGB(x, row, actual.getRGB(x, row) + 0x606060);
+            for (int y = 0; y < 157; y++) checked.setRGB(column, y, actual.getRGB(column, y) + 0x606060);
+        }
+
+        ExcludedAreas excludedAreas = new ExcludedAreas();
+        excludedAreas.excludeArea(new Rectangle(100, 20, 90, 40));
+
+        DirectComparatorConfig config = new DirectComparatorConfig()
+                .colorDistanceThreshold(10)
+                .fastCompareStrategy(FastCompareStrategy.PYRAMID)
+                .pyramidBlockSize(blockSize);
+
+        Mismatches expected = new DirectAnalyzer(config).compare(actual, checked, excludedAreas);
+        Mismatches pyramid = new DirectAnalyzer(config).compareFast(actual, checked, excludedAreas, 0);
+        Mismatches parallel = new DirectAnalyzer(config.parallelism(3)).compareFast(actual, checked, excludedAreas, 0);
+
+        Assertions.assertTrue(expected.getMismatchesCount() > 3000);
+        Assertions.assertEquals(expected.getMismatchedPixels(), pyramid.getMismatchedPixels());
+        Assertions.assertEquals(expected.getMismatchedPixels(), parallel.getMismatchedPixels());
+        Assertions.assertEquals(expected.getMismatchesCount(),
+                new DirectAnalyzer(config).countMismatchesFast(actual, checked, excludedAreas, Integer.MAX_VALUE, 0));
+    }
+
+    @Test
+    void testCreateKernel_vectorizedWhenModuleAvailable() {
+        DistanceKernel kernel = DistanceKernel.create(ColorSpace.RGB, 10, true);
+
+        Assertions.assertEquals(DistanceKernel.VECTOR_API_AVAILABLE, kernel instanceof DistanceKernelVector);
+        Assertions.assertFalse(DistanceKernel.create(ColorSpace.RGB, 10, false) instanceof DistanceKernelVector);
+        Assertions.assertFalse(DistanceKernel.create(ColorSpace.HSV, 10, true) instanceof DistanceKernelVector);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = ColorSpace.class, names = {"RGB", "WEIGHTED_RGB"})
+    void testCreateKernel_squaredCutoffMatchesRoundedDistances(ColorSpace colorSpace) {
+        BufferedImage actual = TestImages.randomImage(203, 37, 9);
+        BufferedImage checked = perturbedImage(actual, 10);
+        int width = actual.getWidth();
+        int[] actualRow = new int[width];
+        int[] checkedRow = new int[width];
+
+        for (int threshold = 0; threshold <= 100; threshold++) {
+            DistanceKernel reference = new DistanceKernelScalar(colorSpace == ColorSpace.RGB
+                    ? PixelColorUtil::normalizedDistanceRGB
+                    : PixelColorUtil::normalizedDistanceWeightedRGB, threshold);
+
+            for (boolean vectorized : new boolean[]{false, true}) {
+                DistanceKernel kernel = DistanceKernel.create(colorSpace, threshold, vectorized);
+
+                for (int y = 0; y < actual.getHeight(); y++) {
+                    actual.getRGB(0, y, width, 1, actualRow, 0, width);
+                    checked.getRGB(0, y, width, 1, checkedRow, 0, width);
+                    long[] expectedMask = new long[4];
+                    long[] mask = new long[4];
+
+                    int expectedCount = reference.compareRow(actualRow, checkedRow, width, expectedMask, 0);
+
+                    Assertions.assertEquals(expectedCount, kernel.compareRow(actualRow, checkedRow, width, mask, 0));
+                    Assertions.assertArrayEquals(expectedMask, mask, "threshold " + threshold);
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = ColorSpace.class, names = {"RGB", "WEIGHTED_RGB"})
+    void testCompare_vectorizedMatchesScalar(ColorSpace colorSpace) {
+        BufferedImage actual = TestImages.randomImage(203, 37, 7);
+        BufferedImage checked = perturbedImage(actual, 8);
+
+        for (int threshold = 0; threshold <= 100; threshold++) {
+            DirectComparatorConfig config = new DirectComparatorConfig()
+                    .colorSpace(colorSpace)
+                    .colorDistanceThreshold(threshold);
+
+            Mismatches scalar = new DirectAnalyzer(config.vectorizedComparison(false)).compare(actual, checked);
+            Mismatches vectorized = new DirectAnalyzer(config.vectorizedComparison(true)).compare(actual, checked);
+
+            Assertions.assertEquals(scalar.getMismatchesCount(), vectorized.getMismatchesCount(), "threshold " + threshold);
+            Assertions.assertEquals(scalar.getMismatchedPixels(), vectorized.getMismatchedPixels(), "threshold " + threshold);
+        }
+    }
+
+    /**
+     * Copies image shifting every channel by a small random amount, so distances cluster around low thresholds
+     */
+    private BufferedImage perturbedImage(BufferedImage image, long seed) {
+        Random random = new Random(seed);
+        BufferedImage perturbed = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int rgb = image.getRGB(x, y);
+                int spread = random.nextInt(4) == 0 ? 256 : 40;
+                int red = Math.floorMod(((rgb >> 16) & 0xFF) + random.nextInt(spread), 256);
+                int green = Math.floorMod(((rgb >> 8) & 0xFF) - random.nextInt(spread), 256);
+                int blue = Math.floorMod((rgb & 0xFF) + random.nextInt(spread), 256);
+                perturbed.setRGB(x, y, (red << 16) | (green << 8) | blue);
+            }
+        }
+        return perturbed;
+    }
+
+    /**
+     * Copies image replacing a few small random rectangles with noise, like a typical UI regression
+     */
+    private BufferedImage locallyChangedImage(BufferedImage image, long seed, int changesCount) {
+        Random random = new Random(seed);
+        BufferedImage changed = ImageUtil.deepCopy(image);
+        for (int i = 0; i < changesCount; i++) {
+            int width = 1 + random.nextInt(Math.max(1, image.getWidth() / 20));
+            int height = 1 + random.nextInt(Math.max(1, image.getHeight() / 20));
+            int fromX = random.nextInt(image.getWidth() - width + 1);
+            int fromY = random.nextInt(image.getHeight() - height + 1);
+
+            for (int y = fromY; y < fromY + height; y++) {
+                for (int x = fromX; x < fromX + width; x++) {
+                    changed.setRGB(x, y, random.nextInt(0x1000000));
+                }
+            }
+        }
+        return changed;
+    }
+
+    private int distance(ColorSpace colorSpace, int actualRGB, int checkedRGB) {
+        return switch (colorSpace) {
+            case RGB -> PixelColorUtil.normalizedDistanceRGB(actualRGB, checkedRGB);
+            case WEIGHTED_RGB -> PixelColorUtil.normalizedDistanceWeightedRGB(actualRGB, checkedRGB);
+            case HSV -> PixelColorUtil.normalizedDistanceHSV(actualRGB, checkedRGB);
+            case LAB_DELTA_E -> PixelColorUtil.normalizedDistanceLab(actualRGB, checkedRGB);
+        };
+    }
 }
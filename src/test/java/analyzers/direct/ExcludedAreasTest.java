@@ -0,0 +1,71 @@
+package analyzers.direct;
+
+import com.sieczk.analyzers.direct.ExcludedAreas;
+import com.sieczk.analyzers.direct.ExclusionMask;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.awt.Rectangle;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
+import java.util.Random;
+
+public class ExcludedAreasTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4, 5, 6, 7, 8})
+    void testCompile_matchesAreaContains(long seed) {
+        Random random = new Random(seed);
+        ExcludedAreas excludedAreas = new ExcludedAreas();
+
+        for (int i = 0; i < 12; i++) {
+            Rectangle rectangle = new Rectangle(
+                    random.nextInt(240) - 20,
+                    random.nextInt(170) - 20,
+                    1 + random.nextInt(80),
+                    1 + random.nextInt(60)
+            );
+            if (random.nextInt(3) == 0) excludedAreas.includeArea(rectangle);
+            else excludedAreas.excludeArea(rectangle);
+        }
+
+        assertMatchesArea(excludedAreas, 200, 150);
+    }
+
+    @Test
+    void testCompile_curvedAreaMatchesAreaContains() {
+        ExcludedAreas excludedAreas = new ExcludedAreas();
+        excludedAreas.getExcluded().add(new Area(new Ellipse2D.Double(10.5, 20, 90, 61.3)));
+        excludedAreas.excludeArea(new Rectangle(60, 0, 70, 40));
+
+        assertMatchesArea(excludedAreas, 130, 100);
+    }
+
+    @Test
+    void testCompile_cachedUntilAreasChange() {
+        ExcludedAreas excludedAreas = new ExcludedAreas();
+        excludedAreas.excludeArea(new Rectangle(5, 5, 10, 10));
+
+        ExclusionMask compiled = excludedAreas.compile(50, 50);
+        Assertions.assertSame(compiled, excludedAreas.compile(50, 50));
+        Assertions.assertNotSame(compiled, excludedAreas.compile(60, 50));
+
+        excludedAreas.includeArea(new Rectangle(5, 5, 2, 2));
+        ExclusionMask recompiled = excludedAreas.compile(60, 50);
+
+        Assertions.assertFalse(recompiled.isExcluded(5, 5));
+        Assertions.assertTrue(recompiled.isExcluded(7, 7));
+    }
+
+    private void assertMatchesArea(ExcludedAreas excludedAreas, int width, int height) {
+        ExclusionMask compiled = excludedAreas.compile(width, height);
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                Assertions.assertEquals(excludedAreas.contains(x, y), compiled.isExcluded(x, y), "pixel " + x + ", " + y);
+            }
+        }
+    }
+}
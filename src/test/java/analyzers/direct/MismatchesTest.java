@@ -7,10 +7,14 @@ import com.sieczk.analyzers.direct.MismatchesGroup;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 
 import java.awt.Rectangle;
 import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.List;
+import java.util.Random;
 
 public class MismatchesTest {
     private ArrayList<PixelPoint> mismatchedPixels;
@@ -28,6 +32,7 @@ public class MismatchesTest {
         mismatchedPixels.add(new PixelPoint(10, 10));
         mismatchedPixels.add(new PixelPoint(20, 20));
         mismatchedPixels.add(new PixelPoint(30, 30));
+        mismatches = new Mismatches(mismatchedPixels, GROUPING_RADIUS);
 
         ExcludedAreas excluded = new ExcludedAreas();
         excluded.excludeArea(new Rectangle(15, 15, 10, 10));
@@ -35,6 +40,7 @@ public class MismatchesTest {
         mismatches.excludeResults(excluded);
 
         Assertions.assertEquals(2, mismatches.getMismatchedPixels().size());
+        Assertions.assertEquals(2, mismatches.getMismatchesCount());
         Assertions.assertFalse(mismatches.getMismatchedPixels().contains(new PixelPoint(20, 20)));
         Assertions.assertTrue(mismatches.getMismatchedPixels().contains(new PixelPoint(10, 10)));
         Assertions.assertTrue(mismatches.getMismatchedPixels().contains(new PixelPoint(30, 30)));
@@ -104,6 +110,131 @@ public class MismatchesTest {
         Mismatches testMismatches = new Mismatches(pixels, 2);
 
         Assertions.assertEquals(pixels, testMismatches.getMismatchedPixels());
+        Assertions.assertEquals(2, testMismatches.getMismatchesCount());
+    }
+
+    @Test
+    void add_duplicatedPixelCountedOnce() {
+        Mismatches testMismatches = new Mismatches(100, 10, GROUPING_RADIUS);
+        testMismatches.add(70, 5);
+        testMismatches.add(70, 5);
+
         Assertions.assertEquals(1, testMismatches.getMismatchesCount());
+        Assertions.assertTrue(testMismatches.contains(70, 5));
+        Assertions.assertFalse(testMismatches.contains(6, 5));
+        Assertions.assertFalse(testMismatches.contains(-1, 5));
+        Assertions.assertFalse(testMismatches.contains(100, 5));
+    }
+
+    @Test
+    void forEachMismatch_visitsPixelsRowByRow() {
+        Mismatches testMismatches = new Mismatches(130, 3, GROUPING_RADIUS);
+        testMismatches.add(129, 0);
+        testMismatches.add(64, 2);
+        testMismatches.add(0, 1);
+
+        List<PixelPoint> visited = new ArrayList<>();
+        testMismatches.forEachMismatch((x, y) -> visited.add(new PixelPoint(x, y)));
+
+        Assertions.assertEquals(
+                List.of(new PixelPoint(129, 0), new PixelPoint(0, 1), new PixelPoint(64, 2)),
+                visited
+        );
+    }
+
+    @Test
+    void groupMismatches_joinWithinRadiusOnly() {
+        Mismatches testMismatches = new Mismatches(100, 100, 3);
+        testMismatches.add(10, 10);
+        testMismatches.add(13, 13);
+        testMismatches.add(17, 13);
+        testMismatches.add(80, 80);
+
+        List<MismatchesGroup> groups = testMismatches.groupMismatches();
+
+        Assertions.assertEquals(List.of(
+                new MismatchesGroup(2, 10, 13, 10, 13),
+                new MismatchesGroup(1, 17, 17, 13, 13),
+                new MismatchesGroup(1, 80, 80, 80, 80)
+        ), groups);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "1, 0.02",
+            "1, 0.3",
+            "2, 0.05",
+            "3, 0.01",
+            "3, 0.2",
+            "5, 0.005",
+            "8, 0.01",
+    })
+    void groupMismatches_matchesNeighbourhoodSearch(int radius, double density) {
+        int width = 150;
+        int height = 90;
+        boolean[][] grid = randomGrid(width, height, density, new Random(radius * 31L + (long) (density * 1000)));
+
+        Mismatches testMismatches = new Mismatches(width, height, radius);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (grid[y][x]) testMismatches.add(x, y);
+            }
+        }
+
+        Assertions.assertEquals(groupByNeighbourhoodSearch(grid, radius), testMismatches.groupMismatches());
+    }
+
+    private boolean[][] randomGrid(int width, int height, double density, Random random) {
+        boolean[][] grid = new boolean[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                grid[y][x] = random.nextDouble() < density;
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Reference grouping - DFS visiting every pixel in the (2r+1)^2 neighbourhood
+     */
+    private List<MismatchesGroup> groupByNeighbourhoodSearch(boolean[][] grid, int radius) {
+        int height = grid.length;
+        int width = grid[0].length;
+        boolean[][] visited = new boolean[height][width];
+        List<MismatchesGroup> groups = new ArrayList<>();
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (!grid[y][x] || visited[y][x]) continue;
+
+                int size = 0;
+                int minX = x, maxX = x, minY = y, maxY = y;
+                ArrayDeque<int[]> stack = new ArrayDeque<>();
+                stack.push(new int[]{x, y});
+                visited[y][x] = true;
+
+                while (!stack.isEmpty()) {
+                    int[] current = stack.pop();
+                    size++;
+                    minX = Math.min(minX, current[0]);
+                    maxX = Math.max(maxX, current[0]);
+                    minY = Math.min(minY, current[1]);
+                    maxY = Math.max(maxY, current[1]);
+
+                    for (int dy = -radius; dy <= radius; dy++) {
+                        for (int dx = -radius; dx <= radius; dx++) {
+                            int nx = current[0] + dx;
+                            int ny = current[1] + dy;
+                            if (nx < 0 || ny < 0 || nx >= width || ny >= height) continue;
+                            if (!grid[ny][nx] || visited[ny][nx]) continue;
+                            visited[ny][nx] = true;
+                            stack.push(new int[]{nx, ny});
+                        }
+                    }
+                }
+                groups.add(new MismatchesGroup(size, minX, maxX, minY, maxY));
+            }
+        }
+        return groups;
     }
 }
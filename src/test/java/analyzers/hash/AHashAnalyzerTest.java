@@ -1,6 +1,7 @@
 package analyzers.hash;
 
 import com.sieczk.analyzers.hash.AHashAnalyzer;
+import com.sieczk.analyzers.hash.ImageHash;
 import com.sieczk.utils.ImageUtil;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -43,9 +44,9 @@ public class AHashAnalyzerTest {
         expectedHash.set(3);
         expectedHash.set(5);
         expectedHash.set(7);
-        BitSet actualHash = analyzer.aHash(image);
+        ImageHash actualHash = analyzer.aHash(image);
 
-        Assertions.assertEquals(expectedHash, actualHash);
+        Assertions.assertEquals(expectedHash, actualHash.toBitSet());
     }
 
     @Test
@@ -61,9 +62,9 @@ public class AHashAnalyzerTest {
 
         BitSet expectedHash = new BitSet(4);
         expectedHash.set(0, 4);
-        BitSet actualHash = analyzer.aHash(image);
+        ImageHash actualHash = analyzer.aHash(image);
 
-        Assertions.assertEquals(expectedHash, actualHash);
+        Assertions.assertEquals(expectedHash, actualHash.toBitSet());
     }
 
     @Test
@@ -75,8 +76,8 @@ public class AHashAnalyzerTest {
 
         BitSet expectedHash = new BitSet(1);
         expectedHash.set(0);
-        BitSet actualHash = analyzer.aHash(image);
+        ImageHash actualHash = analyzer.aHash(image);
 
-        Assertions.assertEquals(expectedHash, actualHash);
+        Assertions.assertEquals(expectedHash, actualHash.toBitSet());
     }
 }
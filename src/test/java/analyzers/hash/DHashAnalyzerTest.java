@@ -1,6 +1,7 @@
 package analyzers.hash;
 
 import com.sieczk.analyzers.hash.DHashAnalyzer;
+import com.sieczk.analyzers.hash.ImageHash;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -33,7 +34,7 @@ public class DHashAnalyzerTest {
             }
         }
 
-        BitSet actualHash = analyzer.dHash(image);
+        ImageHash actualHash = analyzer.dHash(image);
         BitSet expectedHash = new BitSet(height * (width - 1));
         index = 0;
         for (int y = 0; y < height; y++) {
@@ -47,7 +48,7 @@ public class DHashAnalyzerTest {
             }
         }
 
-        Assertions.assertEquals(expectedHash, actualHash);
+        Assertions.assertEquals(expectedHash, actualHash.toBitSet());
         Assertions.assertEquals(height * (width - 1), actualHash.length());
     }
 
@@ -71,10 +72,10 @@ public class DHashAnalyzerTest {
             }
         }
 
-        BitSet actualHash = analyzer.dHash(image);
+        ImageHash actualHash = analyzer.dHash(image);
 
         BitSet expectedHash = new BitSet(height * (width - 1));
-        Assertions.assertEquals(expectedHash, actualHash);
+        Assertions.assertEquals(expectedHash, actualHash.toBitSet());
     }
 
     @Test
@@ -97,10 +98,10 @@ public class DHashAnalyzerTest {
             }
         }
 
-        BitSet actualHash = analyzer.dHash(image);
+        ImageHash actualHash = analyzer.dHash(image);
         BitSet expectedHash = new BitSet(height * (width - 1));
         expectedHash.set(0, height * (width - 1));
 
-        Assertions.assertEquals(expectedHash, actualHash);
+        Assertions.assertEquals(expectedHash, actualHash.toBitSet());
     }
 }
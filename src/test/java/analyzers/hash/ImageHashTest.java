@@ -0,0 +1,125 @@
+package analyzers.hash;
+
+import com.sieczk.analyzers.hash.AHashAnalyzer;
+import com.sieczk.analyzers.hash.ImageHash;
+import com.sieczk.analyzers.hash.PHashAnalyzer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.BitSet;
+import java.util.Random;
+
+public class ImageHashTest {
+
+    @Test
+    void testHammingDistance_countsDifferingBits() {
+        ImageHash first = hash(70, 0, 5, 64, 69);
+        ImageHash second = hash(70, 0, 6, 64);
+
+        Assertions.assertEquals(3, first.hammingDistance(second));
+        Assertions.assertEquals(3, second.hammingDistance(first));
+        Assertions.assertEquals(0, first.hammingDistance(first));
+    }
+
+    @Test
+    void testSimilarity_relativeToHashLength() {
+        ImageHash first = hash(63, 0, 1, 2);
+        ImageHash second = hash(63, 0);
+
+        Assertions.assertEquals(1.0 - 2.0 / 63, first.similarity(second), 1e-9);
+        Assertions.assertEquals(1.0, hash(0).similarity(hash(0)));
+    }
+
+    @Test
+    void testDifferentLengths_missingBitsCleared() {
+        ImageHash shorter = hash(10, 1);
+        ImageHash longer = hash(130, 1, 129);
+
+        Assertions.assertEquals(1, shorter.hammingDistance(longer));
+        Assertions.assertEquals(1.0 - 1.0 / 130, shorter.similarity(longer), 1e-9);
+    }
+
+    @Test
+    void testSerialization_roundTrip() {
+        for (int length : new int[]{0, 1, 7, 8, 63, 64, 65, 1000}) {
+            Random random = new Random(length);
+            BitSet bits = new BitSet();
+            for (int i = 0; i < length; i++) {
+                if (random.nextBoolean()) bits.set(i);
+            }
+            ImageHash hash = ImageHash.fromBitSet(bits, length);
+
+            Assertions.assertEquals(Integer.BYTES + (length + 7) / 8, hash.toBytes().length);
+            Assertions.assertEquals(hash, ImageHash.fromBytes(hash.toBytes()));
+            Assertions.assertEquals(hash, ImageHash.fromHex(hash.toHex()));
+            Assertions.assertEquals(bits, hash.toBitSet());
+        }
+    }
+
+    @Test
+    void testSerialization_bitOrder() {
+        Assertions.assertEquals("0000000c" + "0108", hash(12, 0, 11).toHex());
+    }
+
+    @Test
+    void testFromBytes_invalid() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ImageHash.fromBytes(new byte[]{0, 0}));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ImageHash.fromHex("00000010" + "ff"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ImageHash.fromHex("00000004" + "f0"));
+    }
+
+    @Test
+    void testFromBitSet_bitOutsideLength() {
+        BitSet bits = new BitSet();
+        bits.set(8);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ImageHash.fromBitSet(bits, 8));
+    }
+
+    @Test
+    void testEqualsAndHashCode() {
+        Assertions.assertEquals(hash(64, 3), hash(64, 3));
+        Assertions.assertEquals(hash(64, 3).hashCode(), hash(64, 3).hashCode());
+        Assertions.assertNotEquals(hash(64, 3), hash(65, 3));
+        Assertions.assertNotEquals(hash(64, 3), hash(64, 4));
+    }
+
+    @Test
+    void testGet() {
+        ImageHash hash = hash(100, 99);
+
+        Assertions.assertTrue(hash.get(99));
+        Assertions.assertFalse(hash.get(98));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> hash.get(100));
+    }
+
+    @Test
+    void testBits_acrossWords() {
+        ImageHash hash = hash(130, 0, 3, 62, 63, 64, 66, 129);
+
+        Assertions.assertEquals(0b1001, hash.bits(0, 4));
+        Assertions.assertEquals(0b10111, hash.bits(62, 5));
+        Assertions.assertEquals(hash.toBitSet().toLongArray()[1], hash.bits(64, 64));
+        Assertions.assertEquals(1, hash.bits(129, 1));
+        Assertions.assertEquals(0, hash.bits(130, 0));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> hash.bits(100, 31));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> hash.bits(0, 65));
+    }
+
+    @Test
+    void testAnalyzers_realHashLength() {
+        BufferedImage image = new BufferedImage(5, 3, BufferedImage.TYPE_INT_RGB);
+
+        Assertions.assertEquals(63, new PHashAnalyzer().pHash(image).length());
+        Assertions.assertEquals(15, new AHashAnalyzer().aHash(image).length());
+    }
+
+    private static ImageHash hash(int length, int... setBits) {
+        BitSet bits = new BitSet();
+        for (int bit : setBits) {
+            bits.set(bit);
+        }
+        return ImageHash.fromBitSet(bits, length);
+    }
+}
@@ -1,5 +1,6 @@
 package analyzers.hash;
 
+import com.sieczk.analyzers.hash.ImageHash;
 import com.sieczk.analyzers.hash.PHashAnalyzer;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,7 +8,6 @@ import org.junit.jupiter.api.Test;
 
 import java.awt.Color;
 import java.awt.image.BufferedImage;
-import java.util.BitSet;
 
 public class PHashAnalyzerTest {
 
@@ -36,8 +36,8 @@ public class PHashAnalyzerTest {
         BufferedImage image1 = createTestImage(128, Color.BLACK);
         BufferedImage image2 = createTestImage(128, Color.BLACK);
 
-        BitSet hash1 = pHashAnalyzer.pHash(image1);
-        BitSet hash2 = pHashAnalyzer.pHash(image2);
+        ImageHash hash1 = pHashAnalyzer.pHash(image1);
+        ImageHash hash2 = pHashAnalyzer.pHash(image2);
 
         Assertions.assertEquals(hash1, hash2);
     }
@@ -47,8 +47,8 @@ public class PHashAnalyzerTest {
         BufferedImage image1 = createTestImage(128, Color.BLACK);
         BufferedImage image2 = createTestImage(128, Color.WHITE);
 
-        BitSet hash1 = pHashAnalyzer.pHash(image1);
-        BitSet hash2 = pHashAnalyzer.pHash(image2);
+        ImageHash hash1 = pHashAnalyzer.pHash(image1);
+        ImageHash hash2 = pHashAnalyzer.pHash(image2);
 
         Assertions.assertNotEquals(hash1, hash2);
     }
@@ -65,8 +65,8 @@ public class PHashAnalyzerTest {
             }
         }
 
-        BitSet hash1 = pHashAnalyzer.pHash(image1);
-        BitSet hash2 = pHashAnalyzer.pHash(image2);
+        ImageHash hash1 = pHashAnalyzer.pHash(image1);
+        ImageHash hash2 = pHashAnalyzer.pHash(image2);
 
         Assertions.assertNotEquals(hash1, hash2, "Hashes of similar images should be different.");
     }
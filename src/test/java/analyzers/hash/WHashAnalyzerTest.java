@@ -1,12 +1,12 @@
 package analyzers.hash;
 
+import com.sieczk.analyzers.hash.ImageHash;
 import com.sieczk.analyzers.hash.WHashAnalyzer;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.awt.Color;
 import java.awt.image.BufferedImage;
-import java.util.BitSet;
 
 public class WHashAnalyzerTest {
 
@@ -32,8 +32,8 @@ public class WHashAnalyzerTest {
         BufferedImage image1 = createTestImage(64, 64, Color.BLACK);
         BufferedImage image2 = createTestImage(64, 64, Color.BLACK);
 
-        BitSet hash1 = wHashAnalyzer.wHash(image1);
-        BitSet hash2 = wHashAnalyzer.wHash(image2);
+        ImageHash hash1 = wHashAnalyzer.wHash(image1);
+        ImageHash hash2 = wHashAnalyzer.wHash(image2);
 
         Assertions.assertEquals(hash1, hash2);
     }
@@ -45,8 +45,8 @@ public class WHashAnalyzerTest {
         BufferedImage image1 = createTestImage(64, 64, Color.BLACK);
         BufferedImage image2 = createTestImage(64, 64, Color.WHITE);
 
-        BitSet hash1 = wHashAnalyzer.wHash(image1);
-        BitSet hash2 = wHashAnalyzer.wHash(image2);
+        ImageHash hash1 = wHashAnalyzer.wHash(image1);
+        ImageHash hash2 = wHashAnalyzer.wHash(image2);
 
         Assertions.assertNotEquals(hash1, hash2);
     }
@@ -65,8 +65,8 @@ public class WHashAnalyzerTest {
             }
         }
 
-        BitSet hash1 = wHashAnalyzer.wHash(image1);
-        BitSet hash2 = wHashAnalyzer.wHash(image2);
+        ImageHash hash1 = wHashAnalyzer.wHash(image1);
+        ImageHash hash2 = wHashAnalyzer.wHash(image2);
 
         Assertions.assertNotEquals(hash1, hash2, "Hashes of similar images should be different.");
     }
@@ -77,9 +77,9 @@ public class WHashAnalyzerTest {
         wHashAnalyzer = new WHashAnalyzer(coefficient);
         BufferedImage image = createTestImage(128, 64, Color.BLACK);
 
-        BitSet hash = wHashAnalyzer.wHash(image);
+        ImageHash hash = wHashAnalyzer.wHash(image);
 
-        Assertions.assertEquals(32 * 16, hash.size());
+        Assertions.assertEquals(32 * 16, hash.length());
     }
 
     @Test
@@ -88,11 +88,11 @@ public class WHashAnalyzerTest {
         WHashAnalyzer wHashAnalyzer2 = new WHashAnalyzer(0.5);
         BufferedImage image = createTestImage(64, 64, Color.BLACK);
 
-        BitSet hash1 = wHashAnalyzer1.wHash(image);
-        BitSet hash2 = wHashAnalyzer2.wHash(image);
+        ImageHash hash1 = wHashAnalyzer1.wHash(image);
+        ImageHash hash2 = wHashAnalyzer2.wHash(image);
 
-        Assertions.assertNotEquals(hash1.size(), hash2.size());
-        Assertions.assertEquals(16*16, hash1.size()); // (64*0.25)*(64*0.25)
-        Assertions.assertEquals(32*32, hash2.size()); // (64*0.5)*(64*0.5)
+        Assertions.assertNotEquals(hash1.length(), hash2.length());
+        Assertions.assertEquals(16*16, hash1.length()); // (64*0.25)*(64*0.25)
+        Assertions.assertEquals(32*32, hash2.length()); // (64*0.5)*(64*0.5)
     }
 }
@@ -0,0 +1,106 @@
+package cli;
+
+import com.sieczk.cli.ImageComparatorCli;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import utils.TestImages;
+
+import javax.imageio.ImageIO;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class ImageComparatorCliTest {
+    private static final Rectangle CHANGED_AREA = new Rectangle(10, 10, 30, 20);
+
+    @TempDir
+    Path tempDir;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"direct", "ssim", "phash", "ahash", "dhash", "whash"})
+    void testRun_identicalPairsMatching(String algorithm) throws IOException {
+        BufferedImage image = TestImages.randomImage(64, 48, 1);
+        String base = write(image, "base.png");
+        String compared = write(image, "compared.png");
+
+        int exitCode = run("--algorithm", algorithm, base, compared, base, compared);
+
+        List<String> lines = outputLines();
+        Assertions.assertEquals(ImageComparatorCli.EXIT_MATCHING, exitCode);
+        Assertions.assertEquals(2, lines.size());
+        Assertions.assertTrue(lines.get(0).startsWith("{\"base\":"));
+        Assertions.assertTrue(lines.get(0).contains("\"algorithm\":\"" + algorithm + "\",\"matching\":true"));
+    }
+
+    @Test
+    void testRun_manifestWithMismatchingPair() throws IOException {
+        BufferedImage image = TestImages.randomImage(64, 48, 1);
+        write(image, "base.png");
+        write(image, "same.png");
+        write(TestImages.changedImage(image, CHANGED_AREA), "changed.png");
+        Path manifest = tempDir.resolve("pairs.tsv");
+        Files.writeString(manifest, "# base\tcompared\nbase.png\tsame.png\n\nbase.png\tchanged.png\n");
+
+        int exitCode = run("--manifest", manifest.toString(), "--threads", "2", "--color-distance", "5");
+
+        List<String> lines = outputLines();
+        Assertions.assertEquals(ImageComparatorCli.EXIT_NOT_MATCHING, exitCode);
+        Assertions.assertEquals(2, lines.size());
+        Assertions.assertEquals(1, lines.stream().filter(line -> line.contains("\"matching\":false")).count());
+        Assertions.assertTrue(lines.stream().allMatch(line -> line.contains("\"mismatchedPercentage\":")));
+    }
+
+    @Test
+    void testRun_unreadableFileReportedAsError() throws IOException {
+        String base = write(TestImages.randomImage(20, 20, 1), "base.png");
+        Path broken = tempDir.resolve("broken \"file\".png");
+        Files.writeString(broken, "not an image");
+
+        int exitCode = run(base, broken.toString());
+
+        String line = outputLines().get(0);
+        Assertions.assertEquals(ImageComparatorCli.EXIT_ERROR, exitCode);
+        Assertions.assertTrue(line.contains("broken \\\"file\\\".png"));
+        Assertions.assertTrue(line.contains("\"error\":"));
+    }
+
+    @Test
+    void testRun_invalidArguments() {
+        Assertions.assertEquals(ImageComparatorCli.EXIT_ERROR, run("--algorithm", "unknown", "a.png", "b.png"));
+        Assertions.assertEquals(ImageComparatorCli.EXIT_ERROR, run("a.png"));
+        Assertions.assertEquals(ImageComparatorCli.EXIT_ERROR, run("--threads", "0", "a.png", "b.png"));
+        Assertions.assertEquals(ImageComparatorCli.EXIT_ERROR, run());
+        Assertions.assertEquals(ImageComparatorCli.EXIT_ERROR, run("--min-similarity", "NaN", "a.png", "b.png"));
+        Assertions.assertEquals(ImageComparatorCli.EXIT_ERROR, run("--min-similarity", "1.5", "a.png", "b.png"));
+        Assertions.assertEquals(ImageComparatorCli.EXIT_ERROR, run("--min-similarity", "-0.1", "a.png", "b.png"));
+
+        Assertions.assertTrue(err.toString(StandardCharsets.UTF_8).contains("Usage:"));
+        Assertions.assertEquals(0, out.size());
+    }
+
+    private int run(String... args) {
+        return ImageComparatorCli.run(args, new PrintStream(out, true, StandardCharsets.UTF_8), new PrintStream(err, true, StandardCharsets.UTF_8));
+    }
+
+    private List<String> outputLines() {
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    private String write(BufferedImage image, String name) throws IOException {
+        Path file = tempDir.resolve(name);
+        ImageIO.write(image, "png", file.toFile());
+        return file.toString();
+    }
+}
@@ -0,0 +1,134 @@
+package comparators;
+
+import com.sieczk.analyzers.direct.ColorSpace;
+import com.sieczk.comparators.AsyncComparator;
+import com.sieczk.comparators.DirectComparator;
+import com.sieczk.comparators.DirectComparatorConfig;
+import com.sieczk.comparators.DirectComparisonResult;
+import com.sieczk.comparators.HashComparator;
+import com.sieczk.comparators.SSIMComparator;
+import com.sieczk.utils.PreparedImage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utils.TestImages;
+
+import javax.imageio.ImageIO;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class AsyncComparatorTest {
+    private static final Rectangle CHANGED_AREA = new Rectangle(10, 10, 30, 20);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCompare_filesSameAsBlocking() throws IOException {
+        BufferedImage base = TestImages.randomImage(80, 60, 1);
+        BufferedImage compared = TestImages.changedImage(base, CHANGED_AREA);
+        File baseFile = write(base, "base.png");
+        File comparedFile = write(compared, "compared.png");
+
+        DirectComparator directComparator = new DirectComparator(new DirectComparatorConfig().colorSpace(ColorSpace.RGB).mismatchedPercentageThreshold(1));
+        SSIMComparator ssimComparator = new SSIMComparator();
+        HashComparator hashComparator = new HashComparator();
+
+        try (AsyncComparator async = new AsyncComparator()) {
+            CompletableFuture<DirectComparisonResult> direct = async.compare(baseFile, comparedFile, directComparator::compare);
+            CompletableFuture<Double> ssim = async.compare(baseFile, comparedFile, ssimComparator::compare);
+            CompletableFuture<Double> pHash = async.compare(baseFile, comparedFile, hashComparator::comparePHash);
+
+            Assertions.assertEquals(directComparator.compare(base, compared).getIsMatching(), direct.join().getIsMatching());
+            Assertions.assertEquals(ssimComparator.compare(base, compared), ssim.join());
+            Assertions.assertEquals(hashComparator.comparePHash(base, compared), pHash.join());
+        }
+    }
+
+    @Test
+    void testCompare_preparedBaseManyFiles() throws IOException {
+        BufferedImage base = TestImages.randomImage(80, 60, 1);
+        PreparedImage preparedBase = new PreparedImage(base);
+        DirectComparator comparator = new DirectComparator(new DirectComparatorConfig().mismatchedPercentageThreshold(1));
+
+        List<CompletableFuture<DirectComparisonResult>> results = new ArrayList<>();
+        try (AsyncComparator async = new AsyncComparator()) {
+            for (int i = 0; i < 20; i++) {
+                File comparedFile = write(i % 2 == 0 ? base : TestImages.changedImage(base, CHANGED_AREA), "compared" + i + ".png");
+                results.add(async.compare(preparedBase, comparedFile, comparator::compare));
+            }
+
+            for (int i = 0; i < results.size(); i++) {
+                Assertions.assertEquals(i % 2 == 0, results.get(i).join().getIsMatching());
+            }
+        }
+    }
+
+    @Test
+    void testClose_completesComparisonsOfFilesBeingRead() throws IOException {
+        BufferedImage base = TestImages.randomImage(1000, 1000, 1);
+        File baseFile = write(base, "base.png");
+        File comparedFile = write(TestImages.changedImage(base, CHANGED_AREA), "compared.png");
+        HashComparator comparator = new HashComparator();
+
+        List<CompletableFuture<Double>> results = new ArrayList<>();
+        AsyncComparator async = new AsyncComparator();
+        for (int i = 0; i < 4; i++) {
+            results.add(async.compare(baseFile, comparedFile, comparator::compareAHash));
+        }
+        async.close();
+
+        for (CompletableFuture<Double> result : results) {
+            Assertions.assertEquals(comparator.compareAHash(base, TestImages.changedImage(base, CHANGED_AREA)), result.join());
+        }
+    }
+
+    @Test
+    void testCompare_providedExecutors() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        BufferedImage base = TestImages.randomImage(40, 40, 1);
+
+        try (AsyncComparator async = new AsyncComparator(executor, executor)) {
+            Assertions.assertEquals(1.0, async.compare(base, base, new SSIMComparator()::compare).join());
+        }
+
+        Assertions.assertFalse(executor.isShutdown());
+        executor.shutdown();
+    }
+
+    @Test
+    void testCompare_unreadableFile() throws IOException {
+        File baseFile = write(TestImages.randomImage(20, 20, 1), "base.png");
+        File brokenFile = tempDir.resolve("broken.png").toFile();
+        Files.writeString(brokenFile.toPath(), "not an image");
+
+        try (AsyncComparator async = new AsyncComparator()) {
+            CompletionException exception = Assertions.assertThrows(CompletionException.class,
+                    () -> async.compare(baseFile, brokenFile, new HashComparator()::compareAHash).join());
+
+            Assertions.assertInstanceOf(UncheckedIOException.class, exception.getCause());
+        }
+    }
+
+    @Test
+    void testConstructor_nullExecutor() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new AsyncComparator(null, Runnable::run));
+    }
+
+    private File write(BufferedImage image, String name) throws IOException {
+        File file = tempDir.resolve(name).toFile();
+        ImageIO.write(image, "png", file);
+        return file;
+    }
+}
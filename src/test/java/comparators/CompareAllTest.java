@@ -0,0 +1,111 @@
+package comparators;
+
+import com.sieczk.analyzers.direct.ColorSpace;
+import com.sieczk.analyzers.direct.ExcludedAreas;
+import com.sieczk.comparators.DirectComparator;
+import com.sieczk.comparators.DirectComparatorConfig;
+import com.sieczk.comparators.DirectComparisonResult;
+import com.sieczk.comparators.HashComparator;
+import com.sieczk.comparators.SSIMComparator;
+import com.sieczk.utils.PreparedImage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import utils.TestImages;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class CompareAllTest {
+
+    @Test
+    void testDirectCompareAll_sameAsSingleComparisons() {
+        DirectComparatorConfig config = new DirectComparatorConfig()
+                .colorSpace(ColorSpace.RGB)
+                .colorDistanceThreshold(10)
+                .mismatchedPercentageThreshold(3)
+                .fingerprintTileSize(64);
+        DirectComparator comparator = new DirectComparator(config);
+
+        BufferedImage base = TestImages.randomImage(200, 150, 1);
+        List<BufferedImage> candidates = candidates(base);
+        ExcludedAreas excludedAreas = new ExcludedAreas();
+        excludedAreas.excludeArea(new Rectangle(0, 0, 30, 30));
+
+        List<DirectComparisonResult> results = comparator.compareAll(base, candidates, excludedAreas);
+
+        Assertions.assertEquals(candidates.size(), results.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            Assertions.assertEquals(comparator.compare(base, candidates.get(i), excludedAreas).getIsMatching(), results.get(i).getIsMatching());
+        }
+        Assertions.assertTrue(results.get(0).getIsMatching());
+        Assertions.assertFalse(results.get(candidates.size() - 1).getIsMatching());
+    }
+
+    @Test
+    void testSSIMCompareAll_sameAsSingleComparisons() {
+        SSIMComparator comparator = new SSIMComparator();
+        BufferedImage base = TestImages.randomImage(60, 40, 1);
+        List<BufferedImage> candidates = candidates(base);
+
+        List<Double> results = comparator.compareAll(base, candidates);
+
+        for (int i = 0; i < candidates.size(); i++) {
+            Assertions.assertEquals(comparator.compare(base, candidates.get(i)), results.get(i));
+        }
+    }
+
+    @Test
+    void testHashCompareAll_sameAsSingleComparisons() {
+        HashComparator comparator = new HashComparator();
+        BufferedImage base = TestImages.randomImage(64, 64, 1);
+        List<BufferedImage> candidates = candidates(base);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        try {
+            PreparedImage preparedBase = new PreparedImage(base);
+            List<Double> pHashes = comparator.compareAllPHash(preparedBase, candidates, executor);
+            List<Double> wHashes = comparator.compareAllWHash(preparedBase, candidates, executor);
+            List<Double> aHashes = comparator.compareAllAHash(preparedBase, candidates, executor);
+            List<Double> dHashes = comparator.compareAllDHash(preparedBase, candidates, executor);
+
+            for (int i = 0; i < candidates.size(); i++) {
+                BufferedImage candidate = candidates.get(i);
+                Assertions.assertEquals(comparator.comparePHash(base, candidate), pHashes.get(i));
+                Assertions.assertEquals(comparator.compareWHash(base, candidate), wHashes.get(i));
+                Assertions.assertEquals(comparator.compareAHash(base, candidate), aHashes.get(i));
+                Assertions.assertEquals(comparator.compareDHash(base, candidate), dHashes.get(i));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testCompareAll_comparisonExceptionRethrown() {
+        DirectComparator comparator = new DirectComparator();
+        BufferedImage base = TestImages.randomImage(40, 40, 1);
+        List<BufferedImage> candidates = List.of(base, TestImages.randomImage(20, 40, 2));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> comparator.compareAll(base, candidates));
+    }
+
+    @Test
+    void testCompareAll_noCandidates() {
+        Assertions.assertTrue(new SSIMComparator().compareAll(TestImages.randomImage(10, 10, 1), List.of()).isEmpty());
+    }
+
+    /**
+     * Candidates ordered by the size of the changed area, starting from the unchanged copy
+     */
+    private static List<BufferedImage> candidates(BufferedImage base) {
+        List<BufferedImage> candidates = new ArrayList<>();
+        for (int size = 0; size <= 40; size += 8) {
+            candidates.add(TestImages.changedImage(base, new Rectangle(20, 5, size, size)));
+        }
+        return candidates;
+    }
+}
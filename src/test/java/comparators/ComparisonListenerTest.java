@@ -0,0 +1,100 @@
+package comparators;
+
+import com.sieczk.analyzers.direct.ExcludedAreas;
+import com.sieczk.comparators.ComparisonStage;
+import com.sieczk.comparators.DirectComparator;
+import com.sieczk.comparators.DirectComparatorConfig;
+import com.sieczk.comparators.HashComparator;
+import com.sieczk.comparators.HashComparatorConfig;
+import com.sieczk.comparators.SSIMComparator;
+import com.sieczk.comparators.SSIMComparatorConfig;
+import com.sieczk.utils.PreparedImage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import utils.TestImages;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class ComparisonListenerTest {
+    private static final Rectangle CHANGED_AREA = new Rectangle(20, 20, 10, 8);
+
+    @Test
+    void testDirectComparator_reportsStages() {
+        BufferedImage base = TestImages.randomImage(80, 60, 1);
+        BufferedImage compared = TestImages.changedImage(TestImages.randomImage(40, 30, 1), CHANGED_AREA);
+        Map<ComparisonStage, Long> sizes = new ConcurrentHashMap<>();
+
+        DirectComparatorConfig config = new DirectComparatorConfig();
+        config.enforceImageSize(false).comparisonListener((stage, nanos, size) -> {
+            Assertions.assertTrue(nanos >= 0);
+            sizes.put(stage, size);
+        });
+
+        ExcludedAreas excludedAreas = new ExcludedAreas();
+        excludedAreas.excludeArea(new Rectangle(0, 0, 10, 10));
+
+        new DirectComparator(config).compare(base, compared, excludedAreas);
+
+        Assertions.assertEquals(4800L, sizes.get(ComparisonStage.RESIZE));
+        Assertions.assertEquals(100L, sizes.get(ComparisonStage.EXCLUSION_MASK));
+        Assertions.assertEquals(4800L, sizes.get(ComparisonStage.ACCESSOR_CREATION));
+        Assertions.assertTrue(sizes.get(ComparisonStage.PIXEL_LOOP) <= 4800L);
+        Assertions.assertTrue(sizes.get(ComparisonStage.GROUP_MISMATCHES) > 0);
+        Assertions.assertEquals(1200L, sizes.get(ComparisonStage.DEEP_COPY));
+        Assertions.assertEquals(sizes.get(ComparisonStage.GROUP_MISMATCHES), sizes.get(ComparisonStage.MARK));
+    }
+
+    @Test
+    void testSSIMComparator_cachedMomentsNotReported() {
+        PreparedImage base = new PreparedImage(TestImages.randomImage(40, 40, 1));
+        List<ComparisonStage> stages = new CopyOnWriteArrayList<>();
+
+        SSIMComparatorConfig config = new SSIMComparatorConfig();
+        config.comparisonListener((stage, nanos, size) -> stages.add(stage));
+        SSIMComparator comparator = new SSIMComparator(config);
+
+        comparator.compare(base, new PreparedImage(TestImages.randomImage(40, 40, 2)));
+        Assertions.assertEquals(List.of(ComparisonStage.LUMINOSITY, ComparisonStage.WEIGHTED_MOMENTS,
+                ComparisonStage.WEIGHTED_MOMENTS, ComparisonStage.SSIM_MAP), stages);
+
+        stages.clear();
+        comparator.compare(base, new PreparedImage(TestImages.randomImage(40, 40, 3)));
+        Assertions.assertEquals(List.of(ComparisonStage.LUMINOSITY, ComparisonStage.WEIGHTED_MOMENTS,
+                ComparisonStage.SSIM_MAP), stages);
+    }
+
+    @Test
+    void testHashComparator_hashReportedOncePerImage() {
+        PreparedImage base = new PreparedImage(TestImages.randomImage(40, 40, 1));
+        PreparedImage compared = new PreparedImage(TestImages.randomImage(40, 40, 2));
+        List<ComparisonStage> stages = new CopyOnWriteArrayList<>();
+
+        HashComparatorConfig config = new HashComparatorConfig();
+        config.comparisonListener((stage, nanos, size) -> stages.add(stage));
+        HashComparator comparator = new HashComparator(config);
+
+        comparator.comparePHash(base, compared);
+        comparator.comparePHash(base, compared);
+
+        Assertions.assertEquals(List.of(ComparisonStage.HASH, ComparisonStage.HASH), stages);
+    }
+
+    @Test
+    void testNoListener_sameResult() {
+        BufferedImage base = TestImages.randomImage(50, 50, 1);
+        BufferedImage compared = TestImages.changedImage(base, CHANGED_AREA);
+
+        DirectComparatorConfig config = new DirectComparatorConfig().mismatchedPercentageThreshold(1);
+        DirectComparatorConfig listenedConfig = new DirectComparatorConfig().mismatchedPercentageThreshold(1);
+        listenedConfig.comparisonListener((stage, nanos, size) -> { });
+
+        Assertions.assertEquals(
+                new DirectComparator(config).compare(base, compared).getIsMatching(),
+                new DirectComparator(listenedConfig).compare(base, compared).getIsMatching());
+    }
+}
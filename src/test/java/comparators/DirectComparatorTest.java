@@ -0,0 +1,236 @@
+package comparators;
+
+import com.sieczk.analyzers.direct.ColorSpace;
+import com.sieczk.analyzers.direct.DirectAnalyzer;
+import com.sieczk.analyzers.direct.DistanceStatistics;
+import com.sieczk.analyzers.direct.ExcludedAreas;
+import com.sieczk.analyzers.direct.MarkingType;
+import com.sieczk.analyzers.direct.Mismatches;
+import com.sieczk.comparators.DirectComparator;
+import com.sieczk.comparators.DirectComparatorConfig;
+import com.sieczk.comparators.DirectComparisonResult;
+import com.sieczk.comparators.SSIMComparator;
+import com.sieczk.comparators.StreamedComparisonResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import utils.TestImages;
+
+import javax.imageio.ImageIO;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+public class DirectComparatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 37, 64, 1000})
+    void testCompareStreamed_sameAsInMemory(int bandHeight) throws IOException {
+        DirectComparatorConfig config = new DirectComparatorConfig()
+                .colorDistanceThreshold(10)
+                .colorSpace(ColorSpace.RGB)
+                .streamingBandHeight(bandHeight);
+
+        BufferedImage base = TestImages.randomImage(300, 230, 1);
+        BufferedImage compared = changedImage(base);
+        ExcludedAreas excludedAreas = new ExcludedAreas();
+        excludedAreas.excludeArea(new Rectangle(20, 30, 90, 100));
+
+        StreamedComparisonResult result = new DirectComparator(config)
+                .compareStreamed(write(base, "base.png"), write(compared, "compared.png"), excludedAreas);
+
+        Mismatches mismatches = new DirectAnalyzer(config).compare(base, compared, excludedAreas);
+
+        Assertions.assertTrue(mismatches.getMismatchesCount() > 0);
+        Assertions.assertEquals(mismatches.getMismatchesCount(), result.getMismatchesCount());
+        Assertions.assertEquals(mismatches.groupMismatches(), result.getMismatchesGroups());
+        Assertions.assertFalse(result.getIsMatching());
+        Assertions.assertNull(result.getResultImage());
+    }
+
+    @ParameterizedTest
+    @EnumSource(MarkingType.class)
+    void testCompareStreamed_outputSameAsInMemory(MarkingType markingType) throws IOException {
+        DirectComparatorConfig config = new DirectComparatorConfig()
+                .colorDistanceThreshold(10)
+                .mismatchedAreasMarking(markingType)
+                .excludedAreasMarking(markingType)
+                .streamingBandHeight(29);
+
+        BufferedImage base = TestImages.randomImage(200, 170, 2);
+        BufferedImage compared = changedImage(base);
+        ExcludedAreas excludedAreas = new ExcludedAreas();
+        excludedAreas.excludeArea(new Rectangle(150, 10, 30, 140));
+
+        File outputFile = tempDir.resolve("output.png").toFile();
+        new DirectComparator(config).compareStreamed(
+                write(base, "base.png"), write(compared, "compared.png"), excludedAreas, outputFile, "png");
+
+        BufferedImage expected = new DirectComparator(config).compare(base, compared, excludedAreas).getResultImage();
+        BufferedImage streamed = ImageIO.read(outputFile);
+
+        Assertions.assertEquals(expected.getWidth(), streamed.getWidth());
+        Assertions.assertEquals(expected.getHeight(), streamed.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                Assertions.assertEquals(expected.getRGB(x, y) & 0xFFFFFF, streamed.getRGB(x, y) & 0xFFFFFF, "Pixel " + x + ", " + y);
+            }
+        }
+    }
+
+    @Test
+    void testCompareStreamed_tiffFiles() throws IOException {
+        DirectComparatorConfig config = new DirectComparatorConfig()
+                .colorDistanceThreshold(10)
+                .streamingBandHeight(50);
+
+        BufferedImage base = TestImages.randomImage(160, 140, 7);
+        BufferedImage compared = changedImage(base);
+        File baseFile = tempDir.resolve("base.tiff").toFile();
+        File comparedFile = tempDir.resolve("compared.tiff").toFile();
+        ImageIO.write(base, "tiff", baseFile);
+        ImageIO.write(compared, "tiff", comparedFile);
+
+        File outputFile = tempDir.resolve("output.tiff").toFile();
+        StreamedComparisonResult result = new DirectComparator(config)
+                .compareStreamed(baseFile, comparedFile, new ExcludedAreas(), outputFile, "tiff");
+
+        BufferedImage expected = new DirectComparator(config).compare(base, compared).getResultImage();
+        BufferedImage streamed = ImageIO.read(outputFile);
+
+        Assertions.assertEquals(new DirectAnalyzer(config).compare(base, compared).getMismatchesCount(), result.getMismatchesCount());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                Assertions.assertEquals(expected.getRGB(x, y) & 0xFFFFFF, streamed.getRGB(x, y) & 0xFFFFFF, "Pixel " + x + ", " + y);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 5})
+    void testCompareStreamed_verdictOnly(int percentageThreshold) throws IOException {
+        DirectComparatorConfig config = new DirectComparatorConfig()
+                .colorDistanceThreshold(10)
+                .mismatchedPercentageThreshold(percentageThreshold)
+                .verdictOnly(true)
+                .streamingBandHeight(16);
+
+        BufferedImage base = TestImages.randomImage(120, 90, 3);
+        BufferedImage compared = changedImage(base);
+
+        StreamedComparisonResult result = new DirectComparator(config)
+                .compareStreamed(write(base, "base.png"), write(compared, "compared.png"));
+        boolean expected = new DirectComparator(config).compare(base, compared).getIsMatching();
+
+        Assertions.assertEquals(expected, result.getIsMatching());
+        Assertions.assertTrue(result.getMismatchesGroups().isEmpty());
+    }
+
+    @Test
+    void testCompareStreamed_identicalFiles() throws IOException {
+        BufferedImage base = TestImages.randomImage(80, 60, 4);
+        File file = write(base, "base.png");
+
+        DirectComparator comparator = new DirectComparator(new DirectComparatorConfig().mismatchedPercentageThreshold(1));
+        StreamedComparisonResult result = comparator.compareStreamed(file, file);
+
+        Assertions.assertTrue(result.getIsMatching());
+        Assertions.assertEquals(0, result.getMismatchesCount());
+        Assertions.assertTrue(result.getMismatchesGroups().isEmpty());
+    }
+
+    @Test
+    void testCompareStreamed_differentSizes() throws IOException {
+        File base = write(TestImages.randomImage(80, 60, 5), "base.png");
+        File compared = write(TestImages.randomImage(80, 61, 6), "compared.png");
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new DirectComparator().compareStreamed(base, compared));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void testCompare_statistics(boolean produceOutputImage) {
+        DirectComparatorConfig config = new DirectComparatorConfig()
+                .colorDistanceThreshold(10)
+                .mismatchedPercentageThreshold(5)
+                .returnOutputImage(produceOutputImage)
+                .collectStatistics(true);
+
+        BufferedImage base = TestImages.randomImage(150, 120, 8);
+        BufferedImage compared = changedImage(base);
+
+        DirectComparisonResult result = new DirectComparator(config).compare(base, compared);
+        DirectComparisonResult expected = new DirectComparator(config.collectStatistics(false)).compare(base, compared);
+        DistanceStatistics statistics = result.getStatistics();
+
+        Assertions.assertNull(expected.getStatistics());
+        Assertions.assertEquals(expected.getIsMatching(), result.getIsMatching());
+        Assertions.assertEquals(new DirectAnalyzer(config).compare(base, compared).getMismatchesCount(), statistics.getMismatchesCount());
+        Assertions.assertEquals(150 * 120, statistics.getComparedPixels());
+        Assertions.assertEquals(produceOutputImage, result.getResultImage() != null);
+        if (produceOutputImage) {
+            for (int y = 0; y < base.getHeight(); y++) {
+                for (int x = 0; x < base.getWidth(); x++) {
+                    Assertions.assertEquals(expected.getResultImage().getRGB(x, y), result.getResultImage().getRGB(x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCompare_statisticsOfIdenticalImages() {
+        DirectComparatorConfig config = new DirectComparatorConfig().collectStatistics(true);
+        BufferedImage base = TestImages.randomImage(64, 48, 9);
+
+        DistanceStatistics statistics = new DirectComparator(config).compare(base, base).getStatistics();
+
+        Assertions.assertEquals(64 * 48, statistics.getHistogram()[0]);
+        Assertions.assertEquals(0, statistics.getMaxDistance());
+        Assertions.assertEquals(0.0, statistics.getMeanDistance());
+    }
+
+    @Test
+    void testCompare_indexedImagesWithDifferentPalettes() {
+        BufferedImage black = indexedImage(0x000000);
+        BufferedImage red = indexedImage(0xFF0000);
+
+        DirectComparatorConfig config = new DirectComparatorConfig().colorDistanceThreshold(1).collectStatistics(true);
+        DirectComparisonResult result = new DirectComparator(config).compare(black, red);
+
+        Assertions.assertFalse(result.getIsMatching());
+        Assertions.assertEquals(16 * 16, result.getStatistics().getMismatchesCount());
+        Assertions.assertTrue(new SSIMComparator().compare(black, red) < 1.0);
+    }
+
+    /**
+     * Image with all pixels at palette index 0, which has the provided color
+     */
+    private static BufferedImage indexedImage(int rgb) {
+        byte[] reds = {(byte) (rgb >> 16), (byte) 0xFF};
+        byte[] greens = {(byte) (rgb >> 8), (byte) 0xFF};
+        byte[] blues = {(byte) rgb, (byte) 0xFF};
+
+        return new BufferedImage(16, 16, BufferedImage.TYPE_BYTE_INDEXED, new IndexColorModel(8, 2, reds, greens, blues));
+    }
+
+    private File write(BufferedImage image, String name) throws IOException {
+        File file = tempDir.resolve(name).toFile();
+        ImageIO.write(image, "png", file);
+        return file;
+    }
+
+    private static BufferedImage changedImage(BufferedImage image) {
+        return TestImages.changedImage(image, new Rectangle(10, 20, 40, 50), new Rectangle(60, 75, 25, 45),
+                new Rectangle(0, image.getHeight() - 3, image.getWidth(), 1));
+    }
+}
@@ -0,0 +1,34 @@
+package index;
+
+import com.sieczk.analyzers.hash.ImageHash;
+import com.sieczk.index.BKTreeIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Cases specific to the BK-tree, results shared with other indexes are checked by {@link HashIndexContractTest}
+ */
+public class BKTreeIndexTest {
+
+    @Test
+    void testBuild_parallelWithDuplicates() {
+        ImageHash hash = TestHashes.randomHash(64, new Random(1));
+
+        BKTreeIndex<Integer> index = BKTreeIndex.build(Collections.nCopies(100_000, hash), TestHashes.ids(100_000));
+        index.add(hash, -1);
+
+        Assertions.assertEquals(100_001, index.findWithin(hash, 0).size());
+        Assertions.assertEquals(3, index.findNearest(hash, 3).size());
+    }
+
+    @Test
+    void testBuild_differentListSizes() {
+        ImageHash hash = TestHashes.randomHash(64, new Random(1));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BKTreeIndex.build(List.of(hash), List.of()));
+    }
+}
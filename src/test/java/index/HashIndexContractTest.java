@@ -0,0 +1,151 @@
+package index;
+
+import com.sieczk.analyzers.hash.ImageHash;
+import com.sieczk.index.BKTreeIndex;
+import com.sieczk.index.HashIndex;
+import com.sieczk.index.HashMatch;
+import com.sieczk.index.MultiIndexHashIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Exact results required from every hash index, checked against a linear scan
+ */
+public class HashIndexContractTest {
+
+    enum Backend {
+        BK_TREE_BUILT {
+            @Override
+            <T> HashIndex<T> create(List<ImageHash> hashes, List<T> values) {
+                return BKTreeIndex.build(hashes, values);
+            }
+        },
+        BK_TREE_BUILT_AND_ADDED {
+            @Override
+            <T> HashIndex<T> create(List<ImageHash> hashes, List<T> values) {
+                int built = hashes.size() / 2;
+                HashIndex<T> index = BKTreeIndex.build(hashes.subList(0, built), values.subList(0, built));
+                addAll(index, hashes.subList(built, hashes.size()), values.subList(built, values.size()));
+                return index;
+            }
+        },
+        BK_TREE_ADDED {
+            @Override
+            <T> HashIndex<T> create(List<ImageHash> hashes, List<T> values) {
+                return addAll(new BKTreeIndex<>(), hashes, values);
+            }
+        },
+        MULTI_INDEX {
+            @Override
+            <T> HashIndex<T> create(List<ImageHash> hashes, List<T> values) {
+                return addAll(new MultiIndexHashIndex<>(64, 4), hashes, values);
+            }
+        };
+
+        abstract <T> HashIndex<T> create(List<ImageHash> hashes, List<T> values);
+
+        private static <T> HashIndex<T> addAll(HashIndex<T> index, List<ImageHash> hashes, List<T> values) {
+            for (int i = 0; i < hashes.size(); i++) {
+                index.add(hashes.get(i), values.get(i));
+            }
+            return index;
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void testFindWithin_sameAsLinearScan(Backend backend) {
+        List<ImageHash> hashes = TestHashes.clusteredHashes(20_000, 64, 1);
+        HashIndex<Integer> index = backend.create(hashes, TestHashes.ids(hashes.size()));
+
+        Random random = new Random(2);
+        for (int query = 0; query < 50; query++) {
+            ImageHash hash = TestHashes.flipBits(hashes.get(random.nextInt(hashes.size())), random.nextInt(4), random);
+            int radius = random.nextInt(16);
+
+            Assertions.assertEquals(TestHashes.linearScan(hashes, hash, radius), TestHashes.sortedIds(index.findWithin(hash, radius)));
+        }
+        Assertions.assertEquals(hashes.size(), index.size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void testFindWithin_orderedWithDistances(Backend backend) {
+        List<ImageHash> hashes = TestHashes.clusteredHashes(1000, 64, 3);
+        HashIndex<Integer> index = backend.create(hashes, TestHashes.ids(hashes.size()));
+
+        List<HashMatch<Integer>> matches = index.findWithin(hashes.get(0), 10);
+
+        Assertions.assertEquals(0, matches.get(0).getDistance());
+        for (int i = 0; i < matches.size(); i++) {
+            HashMatch<Integer> match = matches.get(i);
+            Assertions.assertEquals(hashes.get(match.getValue()).hammingDistance(hashes.get(0)), match.getDistance());
+            Assertions.assertSame(hashes.get(match.getValue()), match.getHash());
+            if (i > 0) Assertions.assertTrue(matches.get(i - 1).getDistance() <= match.getDistance());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void testFindNearest_sameDistancesAsLinearScan(Backend backend) {
+        List<ImageHash> hashes = TestHashes.clusteredHashes(10_000, 64, 4);
+        HashIndex<Integer> index = backend.create(hashes, TestHashes.ids(hashes.size()));
+
+        Random random = new Random(5);
+        for (int query = 0; query < 30; query++) {
+            ImageHash hash = query % 2 == 0
+                    ? TestHashes.randomHash(64, random)
+                    : TestHashes.flipBits(hashes.get(random.nextInt(hashes.size())), 3, random);
+            int count = 1 + random.nextInt(20);
+
+            List<Integer> expected = hashes.stream()
+                    .map(stored -> stored.hammingDistance(hash))
+                    .sorted()
+                    .limit(count)
+                    .toList();
+            List<Integer> actual = index.findNearest(hash, count).stream().map(HashMatch::getDistance).toList();
+
+            Assertions.assertEquals(expected, actual);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void testDuplicates(Backend backend) {
+        ImageHash hash = TestHashes.randomHash(64, new Random(1));
+        HashIndex<Integer> index = backend.create(Collections.nCopies(1000, hash), TestHashes.ids(1000));
+
+        Assertions.assertEquals(1000, index.findWithin(hash, 0).size());
+        Assertions.assertEquals(1000, index.findWithin(TestHashes.flipBits(hash, 5, new Random(2)), 5).size());
+        Assertions.assertEquals(3, index.findNearest(hash, 3).size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void testEmptyIndex(Backend backend) {
+        HashIndex<String> index = backend.create(List.of(), List.of());
+        ImageHash hash = TestHashes.randomHash(64, new Random(1));
+
+        Assertions.assertTrue(index.findWithin(hash, 64).isEmpty());
+        Assertions.assertTrue(index.findNearest(hash, 5).isEmpty());
+
+        index.add(hash, "image");
+        Assertions.assertEquals("image", index.findNearest(hash, 5).get(0).getValue());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void testInvalidArguments(Backend backend) {
+        HashIndex<String> index = backend.create(List.of(), List.of());
+        ImageHash hash = TestHashes.randomHash(64, new Random(1));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> index.findWithin(hash, -1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> index.findNearest(hash, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> index.add(null, "image"));
+    }
+}
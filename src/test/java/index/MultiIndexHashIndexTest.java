@@ -0,0 +1,70 @@
+package index;
+
+import com.sieczk.analyzers.hash.ImageHash;
+import com.sieczk.index.HashMatch;
+import com.sieczk.index.MultiIndexHashIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Cases specific to multi-index hashing, results shared with other indexes are checked by {@link HashIndexContractTest}
+ */
+public class MultiIndexHashIndexTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 3, 7, 64})
+    void testFindWithin_anySubstringsCount(int substrings) {
+        List<ImageHash> hashes = TestHashes.clusteredHashes(20_000, 64, 1);
+        MultiIndexHashIndex<Integer> index = new MultiIndexHashIndex<>(64, substrings);
+        for (int i = 0; i < hashes.size(); i++) {
+            index.add(hashes.get(i), i);
+        }
+
+        Random random = new Random(2);
+        for (int query = 0; query < 50; query++) {
+            ImageHash hash = TestHashes.flipBits(hashes.get(random.nextInt(hashes.size())), random.nextInt(4), random);
+            int radius = random.nextInt(16);
+
+            Assertions.assertEquals(TestHashes.linearScan(hashes, hash, radius), TestHashes.sortedIds(index.findWithin(hash, radius)));
+        }
+    }
+
+    @Test
+    void testFindWithin_oddHashLength() {
+        List<ImageHash> hashes = TestHashes.clusteredHashes(5000, 63, 3);
+        MultiIndexHashIndex<Integer> index = new MultiIndexHashIndex<>(63);
+        for (int i = 0; i < hashes.size(); i++) {
+            index.add(hashes.get(i), i);
+        }
+
+        Random random = new Random(4);
+        for (int query = 0; query < 30; query++) {
+            ImageHash hash = TestHashes.flipBits(hashes.get(random.nextInt(hashes.size())), random.nextInt(3), random);
+            int radius = random.nextInt(10);
+            List<HashMatch<Integer>> matches = index.findWithin(hash, radius);
+
+            Assertions.assertEquals(TestHashes.linearScan(hashes, hash, radius), TestHashes.sortedIds(matches));
+            for (int i = 1; i < matches.size(); i++) {
+                Assertions.assertTrue(matches.get(i - 1).getDistance() <= matches.get(i).getDistance());
+            }
+        }
+    }
+
+    @Test
+    void testInvalidArguments() {
+        MultiIndexHashIndex<String> index = new MultiIndexHashIndex<>(64);
+        ImageHash shorterHash = TestHashes.randomHash(32, new Random(1));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> index.add(shorterHash, "image"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> index.findWithin(shorterHash, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> index.findNearest(shorterHash, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MultiIndexHashIndex<>(64, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MultiIndexHashIndex<>(64, 65));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MultiIndexHashIndex<>(0));
+    }
+}
@@ -0,0 +1,70 @@
+package index;
+
+import com.sieczk.analyzers.hash.ImageHash;
+import com.sieczk.index.HashMatch;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Hashes shared by index tests
+ */
+final class TestHashes {
+
+    private TestHashes() {
+    }
+
+    /**
+     * Random hashes, every fourth of them a near duplicate of an earlier one
+     */
+    static List<ImageHash> clusteredHashes(int count, int length, long seed) {
+        Random random = new Random(seed);
+        List<ImageHash> hashes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            hashes.add(i % 4 == 3 ? flipBits(hashes.get(random.nextInt(i)), random.nextInt(6), random) : randomHash(length, random));
+        }
+        return hashes;
+    }
+
+    static ImageHash randomHash(int length, Random random) {
+        BitSet bits = new BitSet(length);
+        for (int i = 0; i < length; i++) {
+            if (random.nextBoolean()) bits.set(i);
+        }
+        return ImageHash.fromBitSet(bits, length);
+    }
+
+    static ImageHash flipBits(ImageHash hash, int count, Random random) {
+        BitSet bits = hash.toBitSet();
+        for (int i = 0; i < count; i++) {
+            bits.flip(random.nextInt(hash.length()));
+        }
+        return ImageHash.fromBitSet(bits, hash.length());
+    }
+
+    /**
+     * @return positions of hashes within the radius, the values expected from an index storing hashes with their positions
+     */
+    static List<Integer> linearScan(List<ImageHash> hashes, ImageHash hash, int radius) {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < hashes.size(); i++) {
+            if (hashes.get(i).hammingDistance(hash) <= radius) ids.add(i);
+        }
+        return ids;
+    }
+
+    static List<Integer> sortedIds(List<HashMatch<Integer>> matches) {
+        return matches.stream().map(HashMatch::getValue).sorted(Comparator.naturalOrder()).toList();
+    }
+
+    static List<Integer> ids(int count) {
+        List<Integer> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(i);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,100 @@
+package jfr;
+
+import com.sieczk.comparators.DirectComparator;
+import com.sieczk.comparators.DirectComparatorConfig;
+import com.sieczk.comparators.HashComparator;
+import com.sieczk.comparators.SSIMComparator;
+import com.sieczk.jfr.ComparisonEvent;
+import com.sieczk.jfr.ConvolutionEvent;
+import com.sieczk.jfr.DecodeEvent;
+import com.sieczk.jfr.HashEvent;
+import com.sieczk.jfr.MismatchesGroupingEvent;
+import com.sieczk.jfr.ResizeEvent;
+import com.sieczk.utils.ImageUtil;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utils.TestImages;
+
+import javax.imageio.ImageIO;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+public class ImageComparatorEventsTest {
+    private static final Rectangle CHANGED_AREA = new Rectangle(4, 4, 12, 10);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testEvents_recordedWithFields() throws IOException {
+        BufferedImage base = TestImages.randomImage(64, 48, 1);
+        File comparedFile = tempDir.resolve("compared.png").toFile();
+        ImageIO.write(TestImages.changedImage(TestImages.randomImage(32, 24, 1), CHANGED_AREA), "png", comparedFile);
+
+        Path recordingFile = tempDir.resolve("comparison.jfr");
+        try (Recording recording = new Recording()) {
+            List.of(ComparisonEvent.class, DecodeEvent.class, ResizeEvent.class, HashEvent.class,
+                    ConvolutionEvent.class, MismatchesGroupingEvent.class).forEach(recording::enable);
+            recording.start();
+
+            BufferedImage compared = ImageUtil.readImage(comparedFile);
+            DirectComparatorConfig config = new DirectComparatorConfig();
+            config.enforceImageSize(false);
+            new DirectComparator(config).compare(base, compared);
+            new SSIMComparator().compare(base, TestImages.changedImage(base, CHANGED_AREA));
+            new HashComparator().compareDHash(base, TestImages.changedImage(base, CHANGED_AREA));
+
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+
+        RecordedEvent decode = single(events, "com.sieczk.Decode");
+        Assertions.assertEquals(comparedFile.getPath(), decode.getString("file"));
+        Assertions.assertEquals(32, decode.getInt("width"));
+
+        RecordedEvent resize = single(events, "com.sieczk.Resize");
+        Assertions.assertEquals(32, resize.getInt("sourceWidth"));
+        Assertions.assertEquals(64, resize.getInt("width"));
+
+        RecordedEvent direct = comparison(events, "direct");
+        Assertions.assertEquals("RGB", direct.getString("colorSpace"));
+        Assertions.assertEquals(48, direct.getInt("height"));
+        Assertions.assertTrue(direct.getLong("mismatchesCount") > 0);
+        Assertions.assertFalse(direct.getBoolean("matching"));
+        Assertions.assertFalse(direct.getDuration().isNegative());
+
+        RecordedEvent grouping = single(events, "com.sieczk.MismatchesGrouping");
+        Assertions.assertEquals(direct.getLong("mismatchesCount"), grouping.getLong("mismatchesCount"));
+        Assertions.assertTrue(grouping.getInt("groupsCount") > 0);
+
+        Assertions.assertTrue(comparison(events, "ssim").getDouble("similarity") < 1.0);
+        Assertions.assertEquals(5, events.stream().filter(event -> event.getEventType().getName().equals("com.sieczk.Convolution")).count());
+
+        Assertions.assertTrue(comparison(events, "dHash").getDouble("similarity") > 0);
+        Assertions.assertEquals(2, events.stream().filter(event -> event.getEventType().getName().equals("com.sieczk.Hash")).count());
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream().filter(event -> event.getEventType().getName().equals(name)).toList();
+        Assertions.assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+
+    private static RecordedEvent comparison(List<RecordedEvent> events, String algorithm) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.sieczk.Comparison"))
+                .filter(event -> algorithm.equals(event.getString("algorithm")))
+                .findFirst()
+                .orElseThrow();
+    }
+}
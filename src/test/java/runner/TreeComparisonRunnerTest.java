@@ -0,0 +1,132 @@
+package runner;
+
+import com.sieczk.analyzers.direct.ColorSpace;
+import com.sieczk.comparators.DirectComparator;
+import com.sieczk.comparators.DirectComparatorConfig;
+import com.sieczk.runner.PairComparisonResult;
+import com.sieczk.runner.TreeComparisonConfig;
+import com.sieczk.runner.TreeComparisonReport;
+import com.sieczk.runner.TreeComparisonRunner;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utils.TestImages;
+
+import javax.imageio.ImageIO;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class TreeComparisonRunnerTest {
+    private static final Rectangle CHANGED_AREA = new Rectangle(5, 5, 20, 15);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRun_pairsMatchedByRelativePath() throws IOException, InterruptedException {
+        Path base = tempDir.resolve("base");
+        Path compared = tempDir.resolve("compared");
+        Path output = tempDir.resolve("output");
+
+        for (int i = 0; i < 12; i++) {
+            BufferedImage image = TestImages.randomImage(60, 40, i);
+            String name = "suite" + (i % 3) + "/case" + i + ".png";
+            write(image, base.resolve(name));
+            write(i % 4 == 0 ? TestImages.changedImage(image, CHANGED_AREA) : image, compared.resolve(name));
+        }
+        write(TestImages.randomImage(60, 40, 20), base.resolve("onlyBase.png"));
+        write(TestImages.randomImage(60, 40, 21), compared.resolve("nested/onlyCompared.png"));
+        write(TestImages.randomImage(60, 40, 22), base.resolve("resized.png"));
+        write(TestImages.randomImage(30, 40, 22), compared.resolve("resized.png"));
+        Files.writeString(base.resolve("notes.txt"), "ignored");
+
+        DirectComparator comparator = new DirectComparator(new DirectComparatorConfig()
+                .colorSpace(ColorSpace.RGB)
+                .colorDistanceThreshold(10)
+                .mismatchedPercentageThreshold(1)
+                .returnOutputImage(true));
+        TreeComparisonConfig config = new TreeComparisonConfig()
+                .decodeThreads(3)
+                .compareThreads(2)
+                .writeThreads(2)
+                .queueCapacity(2)
+                .outputDirectory(output.toFile());
+
+        Map<String, PairComparisonResult> results = new ConcurrentHashMap<>();
+        TreeComparisonRunner runner = new TreeComparisonRunner(comparator, config);
+        TreeComparisonReport report = runner.run(base.toFile(), compared.toFile(), result -> results.put(result.getRelativePath(), result));
+
+        Assertions.assertEquals(13, report.getPairsCount());
+        Assertions.assertEquals(13, report.getCompletedCount());
+        Assertions.assertEquals(9, report.getMatchingCount());
+        Assertions.assertEquals(3, report.getMismatchingCount());
+        Assertions.assertEquals(1, report.getFailedCount());
+        Assertions.assertEquals(List.of("onlyBase.png"), report.getOnlyInBase());
+        Assertions.assertEquals(List.of("nested/onlyCompared.png"), report.getOnlyInCompared());
+        Assertions.assertEquals(0, report.getDecodedQueueDepth());
+        Assertions.assertEquals(0, report.getComparedQueueDepth());
+        Assertions.assertTrue(report.getPeakDecodedQueueDepth() <= 2);
+        Assertions.assertTrue(report.getPeakComparedQueueDepth() <= 2);
+        Assertions.assertTrue(report.getThroughput() > 0);
+
+        Assertions.assertEquals(13, results.size());
+        Assertions.assertInstanceOf(IllegalArgumentException.class, results.get("resized.png").getFailure());
+
+        PairComparisonResult mismatched = results.get("suite0/case0.png");
+        Assertions.assertFalse(mismatched.getIsMatching());
+        Assertions.assertEquals(output.resolve("suite0/case0.png").toFile(), mismatched.getOutputFile());
+        Assertions.assertNotNull(ImageIO.read(mismatched.getOutputFile()));
+
+        Assertions.assertNull(results.get("suite1/case1.png").getOutputFile());
+        Assertions.assertFalse(Files.exists(output.resolve("suite1/case1.png")));
+    }
+
+    @Test
+    void testRun_unreadableFileReported() throws IOException, InterruptedException {
+        Path base = tempDir.resolve("base");
+        Path compared = tempDir.resolve("compared");
+        write(TestImages.randomImage(20, 20, 1), base.resolve("broken.png"));
+        Files.createDirectories(compared);
+        Files.writeString(compared.resolve("broken.png"), "not an image");
+
+        TreeComparisonReport report = new TreeComparisonRunner(new DirectComparator())
+                .run(base.toFile(), compared.toFile());
+
+        Assertions.assertEquals(1, report.getFailedCount());
+        Assertions.assertEquals(0, report.getMismatchingCount());
+    }
+
+    @Test
+    void testRun_failingConsumerStopsRun() throws IOException {
+        Path base = tempDir.resolve("base");
+        for (int i = 0; i < 20; i++) {
+            write(TestImages.randomImage(20, 20, i), base.resolve("case" + i + ".png"));
+        }
+
+        TreeComparisonRunner runner = new TreeComparisonRunner(new DirectComparator(), new TreeComparisonConfig().queueCapacity(1));
+
+        Assertions.assertThrows(IllegalStateException.class, () -> runner.run(base.toFile(), base.toFile(), result -> {
+            throw new IllegalStateException("Consumer failure");
+        }));
+        Assertions.assertTrue(runner.getReport().getCompletedCount() < 20);
+    }
+
+    @Test
+    void testRun_missingDirectory() {
+        TreeComparisonRunner runner = new TreeComparisonRunner(new DirectComparator());
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> runner.run(tempDir.resolve("missing").toFile(), tempDir.toFile()));
+    }
+
+    private static void write(BufferedImage image, Path path) throws IOException {
+        Files.createDirectories(path.getParent());
+        ImageIO.write(image, "png", path.toFile());
+    }
+}
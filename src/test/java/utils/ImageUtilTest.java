@@ -5,8 +5,10 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
 import java.awt.image.Kernel;
 
 public class ImageUtilTest {
@@ -276,4 +278,80 @@ public class ImageUtilTest {
 
         Assertions.assertArrayEquals(expectedKernelData, actualKernelData, DELTA);
     }
+
+    @ParameterizedTest
+    @ValueSource(ints = {
+            BufferedImage.TYPE_INT_RGB,
+            BufferedImage.TYPE_INT_ARGB,
+            BufferedImage.TYPE_3BYTE_BGR,
+            BufferedImage.TYPE_4BYTE_ABGR
+    })
+    public void testFindFirstDifferentRow_identicalImages(int imageType) {
+        BufferedImage image1 = createPatternImage(40, 30, imageType);
+        BufferedImage image2 = createPatternImage(40, 30, imageType);
+
+        Assertions.assertEquals(30, ImageUtil.findFirstDifferentRow(image1, image2));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {
+            BufferedImage.TYPE_INT_RGB,
+            BufferedImage.TYPE_INT_ARGB,
+            BufferedImage.TYPE_3BYTE_BGR,
+            BufferedImage.TYPE_4BYTE_ABGR
+    })
+    public void testFindFirstDifferentRow_rowOfFirstDifference(int imageType) {
+        BufferedImage image1 = createPatternImage(40, 30, imageType);
+        BufferedImage image2 = createPatternImage(40, 30, imageType);
+        image2.setRGB(39, 17, 0xFF123456);
+        image2.setRGB(3, 25, 0xFF654321);
+
+        Assertions.assertEquals(17, ImageUtil.findFirstDifferentRow(image1, image2));
+    }
+
+    @Test
+    public void testFindFirstDifferentRow_differentTypes() {
+        BufferedImage image1 = createPatternImage(40, 30, BufferedImage.TYPE_INT_RGB);
+        BufferedImage image2 = createPatternImage(40, 30, BufferedImage.TYPE_INT_ARGB);
+
+        Assertions.assertEquals(0, ImageUtil.findFirstDifferentRow(image1, image2));
+    }
+
+    @Test
+    public void testFindFirstDifferentRow_subimagesNotComparedInBulk() {
+        BufferedImage image1 = createPatternImage(40, 30, BufferedImage.TYPE_INT_RGB).getSubimage(0, 0, 20, 20);
+        BufferedImage image2 = createPatternImage(40, 30, BufferedImage.TYPE_INT_RGB).getSubimage(0, 0, 20, 20);
+
+        Assertions.assertEquals(0, ImageUtil.findFirstDifferentRow(image1, image2));
+    }
+
+    @Test
+    public void testFindFirstDifferentRow_indexedImagesWithDifferentPalettes() {
+        BufferedImage black = createIndexedImage(16, 16, 0x000000);
+        BufferedImage red = createIndexedImage(16, 16, 0xFF0000);
+
+        Assertions.assertEquals(0, ImageUtil.findFirstDifferentRow(black, red));
+        Assertions.assertEquals(16, ImageUtil.findFirstDifferentRow(black, createIndexedImage(16, 16, 0x000000)));
+    }
+
+    /**
+     * Creates image with all pixels at palette index 0, which has the provided color
+     */
+    private BufferedImage createIndexedImage(int width, int height, int rgb) {
+        byte[] reds = {(byte) (rgb >> 16), (byte) 0xFF};
+        byte[] greens = {(byte) (rgb >> 8), (byte) 0xFF};
+        byte[] blues = {(byte) rgb, (byte) 0xFF};
+
+        return new BufferedImage(width, height, BufferedImage.TYPE_BYTE_INDEXED, new IndexColorModel(8, 2, reds, greens, blues));
+    }
+
+    private BufferedImage createPatternImage(int width, int height, int imageType) {
+        BufferedImage image = new BufferedImage(width, height, imageType);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, 0xFF000000 | (x * 6) << 16 | (y * 8) << 8 | (x + y));
+            }
+        }
+        return image;
+    }
 }
@@ -2,9 +2,12 @@ package utils;
 
 import com.sieczk.utils.PixelColorUtil;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
+import java.util.Random;
+
 public class PixelColorUtilTest {
     private static final float DELTA = 0.0001f;
 
@@ -87,4 +90,193 @@ public class PixelColorUtilTest {
         int actualDistance = PixelColorUtil.normalizedDistanceWeightedRGB(rgb1, rgb2);
         Assertions.assertEquals(expectedDistance, actualDistance);
     }
+
+    @Test
+    public void testRGBtoHSV_allColorsMatchDirectConversion() {
+        for (int rgb = 0; rgb < 0x1000000; rgb++) {
+            float[] expectedHSV = referenceRGBtoHSV(rgb);
+
+            if (expectedHSV[0] != PixelColorUtil.hue(rgb)
+                    || expectedHSV[1] != PixelColorUtil.saturation(rgb)
+                    || expectedHSV[2] != PixelColorUtil.value(rgb)) {
+                Assertions.fail("HSV mismatch for color " + Integer.toHexString(rgb));
+            }
+        }
+    }
+
+    @Test
+    public void testDistanceHSV_packedRGBMatchesConvertedColors() {
+        Random random = new Random(13);
+
+        for (int i = 0; i < 1_000_000; i++) {
+            int rgb1 = random.nextInt();
+            int rgb2 = random.nextBoolean() ? random.nextInt() : rgb1 ^ random.nextInt(0x080808);
+
+            int expectedDistance = PixelColorUtil.normalizedDistanceHSV(referenceRGBtoHSV(rgb1), referenceRGBtoHSV(rgb2));
+
+            Assertions.assertEquals(expectedDistance, PixelColorUtil.normalizedDistanceHSV(rgb1, rgb2));
+        }
+    }
+
+    @Test
+    public void testSquaredDistanceCutoffRGB_matchesRoundingForEveryDistance() {
+        for (int threshold = 0; threshold <= 100; threshold++) {
+            int cutoff = PixelColorUtil.squaredDistanceCutoffRGB(threshold);
+
+            for (int squared = 0; squared <= 255 * 255 * 3; squared++) {
+                boolean mismatched = Math.round(((float) squared / (255 * 255 * 3)) * 100) > threshold;
+
+                if (mismatched != squared >= cutoff) {
+                    Assertions.fail("Squared distance " + squared + " at threshold " + threshold);
+                }
+            }
+        }
+        Assertions.assertEquals(0, PixelColorUtil.squaredDistanceCutoffRGB(-1));
+        Assertions.assertEquals(255 * 255 * 3 + 1, PixelColorUtil.squaredDistanceCutoffRGB(100));
+    }
+
+    @Test
+    public void testSquaredWeightedDistanceCutoffRGB_bordersRounding() {
+        int maxDistance = (1022 * 255 * 255) + (1024 * 255 * 255) + (1022 * 255 * 255);
+
+        for (int threshold = 0; threshold < 100; threshold++) {
+            int cutoff = PixelColorUtil.squaredWeightedDistanceCutoffRGB(threshold);
+
+            // Normalization is monotonic, so the cut-off is exact if it is the first distance above the threshold
+            Assertions.assertTrue(Math.round(((float) cutoff / maxDistance) * 100) > threshold);
+            Assertions.assertTrue(Math.round(((float) (cutoff - 1) / maxDistance) * 100) <= threshold);
+        }
+    }
+
+    @Test
+    public void testSquaredDistances_matchNormalizedDistances() {
+        Random random = new Random(19);
+
+        for (int i = 0; i < 1_000_000; i++) {
+            int rgb1 = random.nextInt();
+            int rgb2 = random.nextBoolean() ? random.nextInt() : rgb1 ^ random.nextInt(0x080808);
+            int threshold = random.nextInt(101);
+
+            Assertions.assertEquals(
+                    PixelColorUtil.normalizedDistanceRGB(rgb1, rgb2) > threshold,
+                    PixelColorUtil.squaredDistanceRGB(rgb1, rgb2) >= PixelColorUtil.squaredDistanceCutoffRGB(threshold));
+            Assertions.assertEquals(
+                    PixelColorUtil.normalizedDistanceWeightedRGB(rgb1, rgb2) > threshold,
+                    PixelColorUtil.squaredWeightedDistanceRGB(rgb1, rgb2) >= PixelColorUtil.squaredWeightedDistanceCutoffRGB(threshold));
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+         // RGB value, L, a, b
+            "0xFFFFFF, 100.0, 0.0, 0.0",                // White
+            "0x000000, 0.0, 0.0, 0.0",                  // Black
+            "0xFF0000, 53.2408, 80.0925, 67.2032",      // Red
+            "0x00FF00, 87.7347, -86.1827, 83.1793",     // Green
+            "0x0000FF, 32.2970, 79.1875, -107.8602",    // Blue
+    })
+    public void testRGBtoLab(int rgb, float expectedL, float expectedA, float expectedB) {
+        float[] lab = PixelColorUtil.convertRGBtoLab(rgb);
+
+        Assertions.assertEquals(expectedL, lab[0], 0.01f);
+        Assertions.assertEquals(expectedA, lab[1], 0.01f);
+        Assertions.assertEquals(expectedB, lab[2], 0.01f);
+    }
+
+    @Test
+    public void testRGBtoLab_allColorsCloseToExactConversion() {
+        double maxError = 0;
+
+        for (int rgb = 0; rgb < 0x1000000; rgb++) {
+            double[] expectedLab = referenceRGBtoLab(rgb);
+            float[] lab = PixelColorUtil.convertRGBtoLab(rgb);
+
+            for (int channel = 0; channel < 3; channel++) {
+                maxError = Math.max(maxError, Math.abs(expectedLab[channel] - lab[channel]));
+            }
+        }
+        Assertions.assertTrue(maxError < 0.005, "Max Lab error " + maxError);
+    }
+
+    @Test
+    public void testDistanceLab_matchesExactDeltaE() {
+        Random random = new Random(17);
+        Assertions.assertEquals(100, PixelColorUtil.normalizedDistanceLab(0x000000, 0xFFFFFF));
+        Assertions.assertEquals(0, PixelColorUtil.normalizedDistanceLab(0xFF123456, 0x00123456));
+
+        for (int i = 0; i < 1_000_000; i++) {
+            int rgb1 = random.nextInt();
+            int rgb2 = random.nextBoolean() ? random.nextInt() : rgb1 ^ random.nextInt(0x080808);
+
+            double[] lab1 = referenceRGBtoLab(rgb1);
+            double[] lab2 = referenceRGBtoLab(rgb2);
+            double deltaE = Math.sqrt(Math.pow(lab1[0] - lab2[0], 2) + Math.pow(lab1[1] - lab2[1], 2) + Math.pow(lab1[2] - lab2[2], 2));
+
+            // Tables are approximate, so distances exactly between two integers may round either way
+            if (Math.abs(deltaE - Math.floor(deltaE) - 0.5) < 0.01) continue;
+
+            Assertions.assertEquals(Math.min(100, Math.round(deltaE)), PixelColorUtil.normalizedDistanceLab(rgb1, rgb2),
+                    Integer.toHexString(rgb1) + " " + Integer.toHexString(rgb2));
+        }
+    }
+
+    /**
+     * Direct sRGB to CIE Lab conversion in double precision, D65 white point
+     */
+    private double[] referenceRGBtoLab(int rgb) {
+        double[] linear = new double[3];
+        for (int channel = 0; channel < 3; channel++) {
+            double value = ((rgb >> (16 - 8 * channel)) & 0xFF) / 255.0;
+            linear[channel] = value <= 0.04045 ? value / 12.92 : Math.pow((value + 0.055) / 1.055, 2.4);
+        }
+
+        double x = (0.4124564 * linear[0] + 0.3575761 * linear[1] + 0.1804375 * linear[2]) / 0.95047;
+        double y = 0.2126729 * linear[0] + 0.7151522 * linear[1] + 0.0721750 * linear[2];
+        double z = (0.0193339 * linear[0] + 0.1191920 * linear[1] + 0.9503041 * linear[2]) / 1.08883;
+
+        double fX = labF(x);
+        double fY = labF(y);
+        double fZ = labF(z);
+
+        return new double[]{116 * fY - 16, 500 * (fX - fY), 200 * (fY - fZ)};
+    }
+
+    private double labF(double t) {
+        double delta = 6.0 / 29;
+        return t > delta * delta * delta ? Math.cbrt(t) : t / (3 * delta * delta) + 4.0 / 29;
+    }
+
+    /**
+     * Direct RGB to HSV conversion without precomputed tables
+     */
+    private float[] referenceRGBtoHSV(int rgb) {
+        float H = 0;
+        float S = 0;
+        float V;
+
+        float red = ((rgb >> 16) & 0xFF) / 255f;
+        float green = ((rgb >> 8) & 0xFF) / 255f;
+        float blue = (rgb & 0xFF) / 255f;
+
+        float min = Math.min(red, Math.min(green, blue));
+        float max = Math.max(red, Math.max(green, blue));
+        float delta = max-min;
+
+        V = max;
+
+        if (delta == 0) return new float[]{H,S,V};
+
+        S = delta/max;
+
+        float invDelta = 1 / delta;
+
+        if (red == max)         H = (green - blue) * invDelta;
+        else if (green == max)  H = 2 + (blue - red) * invDelta;
+        else                    H = 4 + (red - green) * invDelta;
+
+        H /= 6;
+        if (H < 0) H += 1;
+
+        return new float[]{H,S,V};
+    }
 }
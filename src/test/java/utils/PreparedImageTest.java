@@ -0,0 +1,145 @@
+package utils;
+
+import com.sieczk.analyzers.direct.ColorSpace;
+import com.sieczk.comparators.DirectComparator;
+import com.sieczk.comparators.DirectComparatorConfig;
+import com.sieczk.comparators.DirectComparisonResult;
+import com.sieczk.comparators.HashComparator;
+import com.sieczk.comparators.HashComparatorConfig;
+import com.sieczk.comparators.SSIMComparator;
+import com.sieczk.comparators.SSIMComparatorConfig;
+import com.sieczk.utils.ImageUtil;
+import com.sieczk.utils.PreparedImage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PreparedImageTest {
+    private static final Rectangle CHANGED_AREA = new Rectangle(5, 10, 20, 15);
+
+    @Test
+    void testGetLuminosity_cachedAndEqualToExtracted() {
+        BufferedImage image = TestImages.randomImage(40, 30, 1);
+        PreparedImage prepared = new PreparedImage(image);
+
+        int[] luminosity = prepared.getLuminosity();
+
+        Assertions.assertArrayEquals(ImageUtil.extractLuminosityArray(image), luminosity);
+        Assertions.assertSame(luminosity, prepared.getLuminosity());
+    }
+
+    @Test
+    void testGetDerived_calculatedOncePerKey() {
+        PreparedImage prepared = new PreparedImage(TestImages.randomImage(10, 10, 1));
+        AtomicInteger derivations = new AtomicInteger();
+
+        Object first = prepared.getDerived("key", image -> new Object[]{derivations.incrementAndGet()});
+        Object second = prepared.getDerived("key", image -> new Object[]{derivations.incrementAndGet()});
+        Object other = prepared.getDerived("other", image -> new Object[]{derivations.incrementAndGet()});
+
+        Assertions.assertSame(first, second);
+        Assertions.assertNotSame(first, other);
+        Assertions.assertEquals(2, derivations.get());
+    }
+
+    @Test
+    void testGetDerived_nestedDerivation() {
+        PreparedImage prepared = new PreparedImage(TestImages.randomImage(10, 10, 1));
+
+        Integer outer = prepared.getDerived("outer", image -> image.<Integer>getDerived("inner", inner -> 5) + 1);
+
+        Assertions.assertEquals(6, outer);
+        Assertions.assertEquals(5, prepared.<Integer>getDerived("inner", image -> 0));
+    }
+
+    @Test
+    void testConstructor_nullImage() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new PreparedImage(null));
+    }
+
+    @Test
+    void testHashComparator_sameAsRawImages() {
+        BufferedImage base = TestImages.randomImage(64, 48, 1);
+        BufferedImage compared = TestImages.changedImage(base, CHANGED_AREA);
+        PreparedImage preparedBase = new PreparedImage(base);
+        PreparedImage preparedCompared = new PreparedImage(compared);
+        HashComparator comparator = new HashComparator(new HashComparatorConfig().hashSizeCoefficient(0.25));
+
+        // Compared twice, so the second comparison uses cached hashes
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertEquals(comparator.comparePHash(base, compared), comparator.comparePHash(preparedBase, preparedCompared));
+            Assertions.assertEquals(comparator.compareWHash(base, compared), comparator.compareWHash(preparedBase, preparedCompared));
+            Assertions.assertEquals(comparator.compareAHash(base, compared), comparator.compareAHash(preparedBase, preparedCompared));
+            Assertions.assertEquals(comparator.compareDHash(base, compared), comparator.compareDHash(preparedBase, preparedCompared));
+        }
+    }
+
+    @Test
+    void testHashComparator_hashesCachedPerCoefficient() {
+        BufferedImage base = TestImages.randomImage(64, 64, 1);
+        BufferedImage compared = TestImages.changedImage(base, CHANGED_AREA);
+        PreparedImage preparedBase = new PreparedImage(base);
+        PreparedImage preparedCompared = new PreparedImage(compared);
+
+        for (double coefficient : new double[]{0.25, 0.5}) {
+            HashComparator comparator = new HashComparator(new HashComparatorConfig().hashSizeCoefficient(coefficient));
+
+            Assertions.assertEquals(comparator.compareWHash(base, compared), comparator.compareWHash(preparedBase, preparedCompared));
+        }
+    }
+
+    @Test
+    void testSSIMComparator_sameAsRawImages() {
+        BufferedImage base = TestImages.randomImage(50, 40, 1);
+        PreparedImage preparedBase = new PreparedImage(base);
+
+        for (SSIMComparatorConfig config : new SSIMComparatorConfig[]{new SSIMComparatorConfig(), new SSIMComparatorConfig().windowSize(7)}) {
+            SSIMComparator comparator = new SSIMComparator(config);
+
+            for (long seed = 2; seed < 4; seed++) {
+                BufferedImage compared = TestImages.changedImage(TestImages.randomImage(50, 40, seed), CHANGED_AREA);
+
+                Assertions.assertEquals(comparator.compare(base, compared), comparator.compare(preparedBase, new PreparedImage(compared)));
+            }
+        }
+    }
+
+    @Test
+    void testSSIMComparator_resizedComparedImage() {
+        BufferedImage base = TestImages.randomImage(50, 40, 1);
+        BufferedImage compared = TestImages.randomImage(25, 20, 2);
+        SSIMComparatorConfig config = new SSIMComparatorConfig();
+        config.enforceImageSize(false).assureImageSize(true);
+        SSIMComparator comparator = new SSIMComparator(config);
+
+        Assertions.assertEquals(comparator.compare(base, compared), comparator.compare(new PreparedImage(base), new PreparedImage(compared)));
+    }
+
+    @Test
+    void testDirectComparator_cachedFingerprints() {
+        DirectComparatorConfig config = new DirectComparatorConfig()
+                .colorSpace(ColorSpace.RGB)
+                .colorDistanceThreshold(10)
+                .mismatchedPercentageThreshold(5)
+                .returnOutputImage(true)
+                .fingerprintTileSize(64);
+
+        BufferedImage base = TestImages.randomImage(300, 200, 1);
+        PreparedImage preparedBase = new PreparedImage(base);
+        DirectComparator comparator = new DirectComparator(config);
+
+        for (BufferedImage compared : new BufferedImage[]{TestImages.changedImage(base, CHANGED_AREA), ImageUtil.deepCopy(base), TestImages.randomImage(300, 200, 2)}) {
+            DirectComparisonResult expected = comparator.compare(base, compared);
+            DirectComparisonResult actual = comparator.compare(preparedBase, compared);
+
+            Assertions.assertEquals(expected.getIsMatching(), actual.getIsMatching());
+            Assertions.assertEquals(
+                    ImageUtil.findFirstDifferentRow(expected.getResultImage(), actual.getResultImage()),
+                    expected.getResultImage().getHeight()
+            );
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package utils;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+/**
+ * Images shared by tests
+ */
+public final class TestImages {
+
+    private TestImages() {
+    }
+
+    /**
+     * @return image of random colors, same for the same seed
+     */
+    public static BufferedImage randomImage(int width, int height, long seed) {
+        Random random = new Random(seed);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        return image;
+    }
+
+    /**
+     * @return copy of the image with areas filled with magenta
+     */
+    public static BufferedImage changedImage(BufferedImage image, Rectangle... areas) {
+        BufferedImage changed = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = changed.createGraphics();
+        g2d.drawImage(image, 0, 0, null);
+        g2d.setColor(Color.MAGENTA);
+        for (Rectangle area : areas) {
+            g2d.fill(area);
+        }
+        g2d.dispose();
+        return changed;
+    }
+}